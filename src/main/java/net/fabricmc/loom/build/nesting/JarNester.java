@@ -26,26 +26,41 @@ package net.fabricmc.loom.build.nesting;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.Collection;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.UnaryOperator;
+import java.util.zip.ZipEntry;
 
 import com.google.common.base.Preconditions;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import org.gradle.api.UncheckedIOException;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 
 import net.fabricmc.loom.LoomGradlePlugin;
 import net.fabricmc.loom.util.ModPlatform;
-import net.fabricmc.loom.util.Pair;
+import net.fabricmc.loom.util.RawZipFile;
+import net.fabricmc.loom.util.RawZipWriter;
 import net.fabricmc.loom.util.ZipUtils;
 import net.fabricmc.loom.util.fmj.FabricModJsonFactory;
 
+/**
+ * Nests jars into a mod jar in a single pass. The existing entries are copied without being inflated,
+ * the nested jars are streamed in as stored entries and the mod metadata is updated as it is copied.
+ */
 public class JarNester {
+	private static final String NESTED_JARS_PATH = "META-INF/jars/";
+	private static final String JAR_JAR_METADATA_PATH = "META-INF/jarjar/metadata.json";
+
 	public static void nestJars(Collection<File> jars, File modJar, ModPlatform platform, Logger logger) {
 		if (jars.isEmpty()) {
 			logger.debug("Nothing to nest into " + modJar.getName());
@@ -54,90 +69,165 @@ public class JarNester {
 
 		Preconditions.checkArgument(FabricModJsonFactory.isNestableModJar(modJar, platform), "Cannot nest jars into none mod jar " + modJar.getName());
 
-		try {
-			ZipUtils.add(modJar.toPath(), jars.stream().map(file -> {
-				try {
-					return new Pair<>("META-INF/jars/" + file.getName(), Files.readAllBytes(file.toPath()));
-				} catch (IOException e) {
-					throw new UncheckedIOException(e);
-				}
-			}).collect(Collectors.toList()));
+		// Sorted so that the nested entries are always written in the same order
+		final List<File> sortedJars = jars.stream().sorted(Comparator.comparing(File::getName)).toList();
 
+		try {
 			if (platform.isForgeLike()) {
-				handleForgeJarJar(jars, modJar, logger);
+				nestJars(sortedJars, modJar.toPath(), JAR_JAR_METADATA_PATH, json -> createForgeJarJarMetadata(sortedJars, modJar, logger));
 				return;
 			}
 
-			int count = ZipUtils.transformJson(JsonObject.class, modJar.toPath(), Stream.of(platform == ModPlatform.FABRIC ? new Pair<>("fabric.mod.json", json -> {
-				JsonArray nestedJars = json.getAsJsonArray("jars");
+			if (platform == ModPlatform.FABRIC) {
+				nestJars(sortedJars, modJar.toPath(), "fabric.mod.json", json -> addFabricNestedJars(json, sortedJars, modJar, platform, logger));
+			} else if (platform == ModPlatform.QUILT) {
+				nestJars(sortedJars, modJar.toPath(), "quilt.mod.json", json -> addQuiltNestedJars(json, sortedJars, modJar, platform, logger));
+			} else {
+				throw new IllegalStateException("Unsupported platform " + platform);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to nest jars into " + modJar.getName(), e);
+		}
+	}
 
-				if (nestedJars == null || !json.has("jars")) {
-					nestedJars = new JsonArray();
+	/**
+	 * Rewrites the mod jar once, replacing any existing entries at the nested jar paths.
+	 *
+	 * @param metadataPath the path of the json file that lists the nested jars
+	 * @param metadataTransformer transforms the existing metadata, the input is null when the jar does not contain it
+	 */
+	private static void nestJars(List<File> jars, Path modJar, String metadataPath, UnaryOperator<@Nullable JsonObject> metadataTransformer) throws IOException {
+		final Path tempFile = modJar.resolveSibling(modJar.getFileName() + ".tmp");
+		boolean transformedMetadata = false;
+
+		try (RawZipFile zipFile = RawZipFile.open(modJar);
+				RawZipWriter writer = new RawZipWriter(tempFile)) {
+			for (RawZipFile.Entry entry : zipFile.getEntries()) {
+				final String name = entry.name();
+
+				if (name.equals(metadataPath)) {
+					final JsonObject json = metadataTransformer.apply(readJson(zipFile, entry));
+					writer.write(name, LoomGradlePlugin.GSON.toJson(json).getBytes(StandardCharsets.UTF_8), ZipEntry.DEFLATED, entry.dosTime());
+					transformedMetadata = true;
+				} else if (!isNestedJar(jars, name)) {
+					writer.copy(zipFile, entry);
 				}
+			}
 
-				for (File file : jars) {
-					String nestedJarPath = "META-INF/jars/" + file.getName();
-					Preconditions.checkArgument(FabricModJsonFactory.isNestableModJar(file, platform), "Cannot nest none mod jar: " + file.getName());
+			final int dosTime = RawZipWriter.toDosTime(System.currentTimeMillis());
 
-					for (JsonElement nestedJar : nestedJars) {
-						JsonObject jsonObject = nestedJar.getAsJsonObject();
+			if (!transformedMetadata) {
+				final JsonObject json = metadataTransformer.apply(null);
+				Preconditions.checkState(json != null, "Failed to transform " + metadataPath);
+				writer.writeParentDirectories(metadataPath, dosTime);
+				writer.write(metadataPath, LoomGradlePlugin.GSON.toJson(json).getBytes(StandardCharsets.UTF_8), ZipEntry.DEFLATED, dosTime);
+			}
 
-						if (jsonObject.has("file") && jsonObject.get("file").getAsString().equals(nestedJarPath)) {
-							throw new IllegalStateException("Cannot nest 2 jars at the same path: " + nestedJarPath);
-						}
-					}
+			writer.writeParentDirectories(NESTED_JARS_PATH, dosTime);
 
-					JsonObject jsonObject = new JsonObject();
-					jsonObject.addProperty("file", nestedJarPath);
-					nestedJars.add(jsonObject);
+			if (!writer.contains(NESTED_JARS_PATH)) {
+				writer.writeDirectory(NESTED_JARS_PATH, dosTime);
+			}
 
-					logger.debug("Nested " + nestedJarPath + " into " + modJar.getName());
-				}
+			for (File jar : jars) {
+				writer.writeStored(NESTED_JARS_PATH + jar.getName(), jar.toPath(), RawZipWriter.toDosTime(jar.lastModified()));
+			}
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(tempFile);
+			throw e;
+		}
 
-				json.add("jars", nestedJars);
+		Files.move(tempFile, modJar, StandardCopyOption.REPLACE_EXISTING);
+	}
 
-				return json;
-			}) : platform == ModPlatform.QUILT ? new Pair<>("quilt.mod.json", json -> {
-				JsonObject loader;
+	private static boolean isNestedJar(List<File> jars, String name) {
+		if (!name.startsWith(NESTED_JARS_PATH)) {
+			return false;
+		}
 
-				if (json.has("quilt_loader")) {
-					loader = json.getAsJsonObject("quilt_loader");
-				} else {
-					json.add("quilt_loader", loader = new JsonObject());
-				}
+		for (File jar : jars) {
+			if (name.equals(NESTED_JARS_PATH + jar.getName())) {
+				return true;
+			}
+		}
 
-				JsonArray nestedJars = loader.getAsJsonArray("jars");
+		return false;
+	}
 
-				if (nestedJars == null || !loader.has("jars")) {
-					nestedJars = new JsonArray();
-				}
+	private static JsonObject readJson(RawZipFile zipFile, RawZipFile.Entry entry) throws IOException {
+		try (Reader reader = new InputStreamReader(zipFile.getInputStream(entry), StandardCharsets.UTF_8)) {
+			return LoomGradlePlugin.GSON.fromJson(reader, JsonObject.class);
+		}
+	}
 
-				for (File file : jars) {
-					String nestedJarPath = "META-INF/jars/" + file.getName();
-					Preconditions.checkArgument(FabricModJsonFactory.isNestableModJar(file, platform), "Cannot nest none mod jar: " + file.getName());
+	private static JsonObject addFabricNestedJars(@Nullable JsonObject json, Collection<File> jars, File modJar, ModPlatform platform, Logger logger) {
+		Preconditions.checkState(json != null, "Failed to transform fabric.mod.json");
+		JsonArray nestedJars = json.getAsJsonArray("jars");
 
-					for (JsonElement nestedJar : nestedJars) {
-						String nestedJarString = nestedJar.getAsString();
+		if (nestedJars == null || !json.has("jars")) {
+			nestedJars = new JsonArray();
+		}
 
-						if (nestedJarPath.equals(nestedJarString)) {
-							throw new IllegalStateException("Cannot nest 2 jars at the same path: " + nestedJarString);
-						}
-					}
+		for (File file : jars) {
+			String nestedJarPath = NESTED_JARS_PATH + file.getName();
+			Preconditions.checkArgument(FabricModJsonFactory.isNestableModJar(file, platform), "Cannot nest none mod jar: " + file.getName());
 
-					nestedJars.add(nestedJarPath);
+			for (JsonElement nestedJar : nestedJars) {
+				JsonObject jsonObject = nestedJar.getAsJsonObject();
 
-					logger.debug("Nested " + nestedJarPath + " into " + modJar.getName());
+				if (jsonObject.has("file") && jsonObject.get("file").getAsString().equals(nestedJarPath)) {
+					throw new IllegalStateException("Cannot nest 2 jars at the same path: " + nestedJarPath);
 				}
+			}
 
-				loader.add("jars", nestedJars);
+			JsonObject jsonObject = new JsonObject();
+			jsonObject.addProperty("file", nestedJarPath);
+			nestedJars.add(jsonObject);
 
-				return json;
-			}) : null));
+			logger.debug("Nested " + nestedJarPath + " into " + modJar.getName());
+		}
 
-			Preconditions.checkState(count > 0, "Failed to transform fabric.mod.json");
-		} catch (IOException e) {
-			throw new java.io.UncheckedIOException("Failed to nest jars into " + modJar.getName(), e);
+		json.add("jars", nestedJars);
+
+		return json;
+	}
+
+	private static JsonObject addQuiltNestedJars(@Nullable JsonObject json, Collection<File> jars, File modJar, ModPlatform platform, Logger logger) {
+		Preconditions.checkState(json != null, "Failed to transform quilt.mod.json");
+		JsonObject loader;
+
+		if (json.has("quilt_loader")) {
+			loader = json.getAsJsonObject("quilt_loader");
+		} else {
+			json.add("quilt_loader", loader = new JsonObject());
+		}
+
+		JsonArray nestedJars = loader.getAsJsonArray("jars");
+
+		if (nestedJars == null || !loader.has("jars")) {
+			nestedJars = new JsonArray();
+		}
+
+		for (File file : jars) {
+			String nestedJarPath = NESTED_JARS_PATH + file.getName();
+			Preconditions.checkArgument(FabricModJsonFactory.isNestableModJar(file, platform), "Cannot nest none mod jar: " + file.getName());
+
+			for (JsonElement nestedJar : nestedJars) {
+				String nestedJarString = nestedJar.getAsString();
+
+				if (nestedJarPath.equals(nestedJarString)) {
+					throw new IllegalStateException("Cannot nest 2 jars at the same path: " + nestedJarString);
+				}
+			}
+
+			nestedJars.add(nestedJarPath);
+
+			logger.debug("Nested " + nestedJarPath + " into " + modJar.getName());
 		}
+
+		loader.add("jars", nestedJars);
+
+		return json;
 	}
 
 	private static @Nullable NestableJarGenerationTask.Metadata readNestedFile(File file, Logger logger) {
@@ -149,7 +239,8 @@ public class JarNester {
 		}
 	}
 
-	private static void handleForgeJarJar(Collection<File> jars, File modJar, Logger logger) throws IOException {
+	// Any existing jarjar metadata is replaced
+	private static JsonObject createForgeJarJarMetadata(Collection<File> jars, File modJar, Logger logger) {
 		JsonObject json = new JsonObject();
 		JsonArray nestedJars = new JsonArray();
 
@@ -161,7 +252,7 @@ public class JarNester {
 				continue;
 			}
 
-			String nestedJarPath = "META-INF/jars/" + file.getName();
+			String nestedJarPath = NESTED_JARS_PATH + file.getName();
 
 			for (JsonElement nestedJar : nestedJars) {
 				JsonObject jsonObject = nestedJar.getAsJsonObject();
@@ -188,6 +279,6 @@ public class JarNester {
 
 		json.add("jars", nestedJars);
 
-		ZipUtils.add(modJar.toPath(), "META-INF/jarjar/metadata.json", LoomGradlePlugin.GSON.toJson(json));
+		return json;
 	}
 }
@@ -0,0 +1,76 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2025 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.build.nesting;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Objects;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.fabricmc.loom.util.CacheFiles;
+import net.fabricmc.loom.util.Checksum;
+import net.fabricmc.loom.util.ModPlatform;
+
+/**
+ * Nestable jars by the hash of their input and generated metadata, shared between projects and builds.
+ */
+public final class NestableJarCache {
+	private static final String CACHE_VERSION = "1";
+
+	private final Path directory;
+
+	public NestableJarCache(Path directory) {
+		this.directory = directory;
+	}
+
+	public Path getCachedFile(Path input, ModPlatform platform, @Nullable String modJsonFile, @Nullable String nestingMetadata) throws IOException {
+		final String key = String.join("\n", CACHE_VERSION, platform.name(), Checksum.sha1Hex(input), Objects.toString(modJsonFile), Objects.toString(nestingMetadata));
+		final String hash = Checksum.sha1Hex(key.getBytes(StandardCharsets.UTF_8));
+		return directory.resolve(hash.substring(0, 2)).resolve(hash + ".jar");
+	}
+
+	/**
+	 * Copies the cached file to the output, if it exists.
+	 * The output is never linked to the cached file, as it may be modified by later tasks.
+	 *
+	 * @return whether the output was restored from the cache
+	 */
+	public boolean restore(Path cachedFile, Path output) throws IOException {
+		if (!Files.isRegularFile(cachedFile)) {
+			return false;
+		}
+
+		Files.copy(cachedFile, output, StandardCopyOption.REPLACE_EXISTING);
+		return true;
+	}
+
+	public void store(Path output, Path cachedFile) throws IOException {
+		CacheFiles.store(output, cachedFile);
+	}
+}
@@ -29,6 +29,7 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
@@ -54,6 +55,7 @@ import org.gradle.api.provider.MapProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.OutputDirectory;
 import org.gradle.api.tasks.PathSensitive;
 import org.gradle.api.tasks.PathSensitivity;
@@ -90,9 +92,15 @@ public abstract class NestableJarGenerationTask extends AbstractLoomTask {
 	@Input
 	protected abstract Property<ModPlatform> getModPlatform();
 
+	// Nestable jars by content hash, shared between projects and builds
+	@ApiStatus.Internal
+	@Internal
+	protected abstract DirectoryProperty getCacheDirectory();
+
 	@Inject
 	public NestableJarGenerationTask() {
 		getModPlatform().value(getExtension().getPlatform()).finalizeValue();
+		getCacheDirectory().set(new File(getExtension().getFiles().getUserCache(), "nestable_jars"));
 	}
 
 	@TaskAction
@@ -129,10 +137,35 @@ public abstract class NestableJarGenerationTask extends AbstractLoomTask {
 				Objects.requireNonNull(fabricModJson, "Could not generate fabric.mod.json for included dependency "+file.getName());
 			}
 
-			makeNestableJar(file, targetFile, fabricModJson, nestingMetadata);
+			generateOrRestore(file, targetFile, fabricModJson, nestingMetadata);
 		});
 	}
 
+	private void generateOrRestore(File input, File output, @Nullable String fabricModJson, @Nullable String nestingMetadata) {
+		final NestableJarCache cache = new NestableJarCache(getCacheDirectory().get().getAsFile().toPath());
+		final Path cachedFile;
+
+		try {
+			cachedFile = cache.getCachedFile(input.toPath(), getModPlatform().get(), fabricModJson, nestingMetadata);
+
+			if (cache.restore(cachedFile, output.toPath())) {
+				LOGGER.debug("Using cached nestable jar {} for {}", cachedFile, input.getName());
+				return;
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to read cached nestable jar for " + input, e);
+		}
+
+		makeNestableJar(input, output, fabricModJson, nestingMetadata);
+
+		try {
+			cache.store(output.toPath(), cachedFile);
+		} catch (IOException e) {
+			// The cache is only an optimisation, the output has already been generated
+			LOGGER.warn("Failed to cache nestable jar {}", output, e);
+		}
+	}
+
 	public void from(Configuration configuration) {
 		ArtifactView artifacts = configuration.getIncoming().artifactView(config -> {
 			config.attributes(
@@ -37,6 +37,7 @@ import org.gradle.internal.DefaultTaskExecutionRequest;
 import net.fabricmc.loom.LoomGradleExtension;
 import net.fabricmc.loom.configuration.ide.RunConfigSettings;
 import net.fabricmc.loom.task.LoomTasks;
+import net.fabricmc.loom.util.Constants;
 import net.fabricmc.loom.util.gradle.GradleUtils;
 
 public abstract class IdeaConfiguration implements Runnable {
@@ -50,6 +51,11 @@ public abstract class IdeaConfiguration implements Runnable {
 			} else {
 				task.setEnabled(false);
 			}
+
+			if (GradleUtils.getBooleanProperty(getProject(), Constants.Properties.LAZY_MOD_SOURCES)) {
+				// Dependencies still run when the task is disabled
+				task.dependsOn(Constants.Task.REMAP_MOD_SOURCES);
+			}
 		});
 
 		hookDownloadSources();
@@ -26,25 +26,26 @@ package net.fabricmc.loom.configuration.mods;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.jar.Attributes;
 import java.util.jar.Manifest;
-import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
 
 import org.jetbrains.annotations.Nullable;
 
 import net.fabricmc.loom.util.Constants;
-import net.fabricmc.loom.util.FileSystemUtil;
+import net.fabricmc.loom.util.RawZipFile;
+import net.fabricmc.loom.util.RawZipWriter;
 
 public class JarSplitter {
 	private static final Attributes.Name MANIFEST_SPLIT_ENV_NAME = new Attributes.Name(Constants.Manifest.SPLIT_ENV);
@@ -56,125 +57,105 @@ public class JarSplitter {
 		this.inputJar = inputJar;
 	}
 
+	/**
+	 * Determines the target from the manifest and the names in the central directory, no other entries are read.
+	 */
 	@Nullable
 	public Target analyseTarget() {
-		try (FileSystemUtil.Delegate input = FileSystemUtil.getJarFileSystem(inputJar)) {
-			final Manifest manifest = input.fromInputStream(Manifest::new, Constants.Manifest.PATH);
-
-			if (!Boolean.parseBoolean(manifest.getMainAttributes().getValue(Constants.Manifest.SPLIT_ENV))) {
-				// Jar was not built with splitting enabled.
-				return null;
-			}
+		try (RawZipFile input = RawZipFile.open(inputJar)) {
+			return analyseTarget(input);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to read jar", e);
+		}
+	}
 
-			final HashSet<String> clientEntries = new HashSet<>(readClientEntries(manifest));
+	/**
+	 * Splits the jar when its target is {@link Target#SPLIT}, the jar is only opened once for both steps.
+	 *
+	 * @return the target of the jar, the outputs are only written when it is {@link Target#SPLIT}
+	 */
+	@Nullable
+	public Target analyseAndSplit(Path commonOutputJar, Path clientOutputJar) throws IOException {
+		try (RawZipFile input = RawZipFile.open(inputJar)) {
+			final Target target = analyseTarget(input);
 
-			if (clientEntries.isEmpty()) {
-				// No client entries.
-				return Target.COMMON_ONLY;
+			if (target == Target.SPLIT) {
+				split(input, commonOutputJar, clientOutputJar);
 			}
 
-			final List<String> entries = new LinkedList<>();
-
-			// Must collect all the input entries to see if this might be a client only jar.
-			try (Stream<Path> walk = Files.walk(input.get().getPath("/"))) {
-				final Iterator<Path> iterator = walk.iterator();
-
-				while (iterator.hasNext()) {
-					final Path entry = iterator.next();
+			return target;
+		}
+	}
 
-					if (!Files.isRegularFile(entry)) {
-						continue;
-					}
+	@Nullable
+	private static Target analyseTarget(RawZipFile input) throws IOException {
+		final Manifest manifest = readManifest(input);
 
-					final Path relativePath = input.get().getPath("/").relativize(entry);
+		if (manifest == null || !Boolean.parseBoolean(manifest.getMainAttributes().getValue(Constants.Manifest.SPLIT_ENV))) {
+			// Jar was not built with splitting enabled.
+			return null;
+		}
 
-					if (relativePath.startsWith("META-INF")) {
-						if (isSignatureData(relativePath)) {
-							// Ignore any signature data
-							continue;
-						}
+		final HashSet<String> clientEntries = new HashSet<>(readClientEntries(manifest));
 
-						if (relativePath.endsWith("MANIFEST.MF")) {
-							// Ignore the manifest
-							continue;
-						}
-					}
+		if (clientEntries.isEmpty()) {
+			// No client entries.
+			return Target.COMMON_ONLY;
+		}
 
-					entries.add(relativePath.toString());
-				}
+		// Must check all the input entries to see if this might be a client only jar.
+		for (RawZipFile.Entry entry : input.getEntries()) {
+			if (entry.isDirectory() || isManifest(entry.name())) {
+				continue;
 			}
 
-			for (String entry : entries) {
-				if (!clientEntries.contains(entry)) {
-					// Found a common entry, we need to split,.
-					return Target.SPLIT;
-				}
+			if (isMetaInf(entry.name()) && isSignatureData(entry.name())) {
+				// Ignore any signature data
+				continue;
 			}
 
-			// All input entries are client only entries.
-			return Target.CLIENT_ONLY;
-		} catch (IOException e) {
-			throw new UncheckedIOException("Failed to read jar", e);
+			if (!clientEntries.contains(entry.name())) {
+				// Found a common entry, we need to split,.
+				return Target.SPLIT;
+			}
 		}
+
+		// All input entries are client only entries.
+		return Target.CLIENT_ONLY;
 	}
 
+	/**
+	 * Splits the jar in a single pass, the entries are copied to either output without being inflated.
+	 */
 	public boolean split(Path commonOutputJar, Path clientOutputJar) throws IOException {
+		try (RawZipFile input = RawZipFile.open(inputJar)) {
+			split(input, commonOutputJar, clientOutputJar);
+		}
+
+		return true;
+	}
+
+	private static void split(RawZipFile input, Path commonOutputJar, Path clientOutputJar) throws IOException {
 		Files.deleteIfExists(commonOutputJar);
 		Files.deleteIfExists(clientOutputJar);
 
-		try (FileSystemUtil.Delegate input = FileSystemUtil.getJarFileSystem(inputJar)) {
-			final Manifest manifest = input.fromInputStream(Manifest::new, Constants.Manifest.PATH);
+		try {
+			final Manifest manifest = readManifest(input);
 
-			if (!Boolean.parseBoolean(manifest.getMainAttributes().getValue(Constants.Manifest.SPLIT_ENV))) {
+			if (manifest == null || !Boolean.parseBoolean(manifest.getMainAttributes().getValue(Constants.Manifest.SPLIT_ENV))) {
 				throw new UnsupportedOperationException("Cannot split jar that has not been built with a split env");
 			}
 
-			final List<String> clientEntries = readClientEntries(manifest);
+			final Set<String> clientEntries = new HashSet<>(readClientEntries(manifest));
 
 			if (clientEntries.isEmpty()) {
 				throw new IllegalStateException("Expected to split jar with no client entries");
 			}
 
-			try (FileSystemUtil.Delegate commonOutput = FileSystemUtil.getJarFileSystem(commonOutputJar, true);
-					FileSystemUtil.Delegate clientOutput = FileSystemUtil.getJarFileSystem(clientOutputJar, true);
-					Stream<Path> walk = Files.walk(input.get().getPath("/"))) {
-				final Iterator<Path> iterator = walk.iterator();
-
-				while (iterator.hasNext()) {
-					final Path entry = iterator.next();
-
-					if (!Files.isRegularFile(entry)) {
-						continue;
-					}
-
-					final Path relativePath = input.get().getPath("/").relativize(entry);
-
-					if (relativePath.startsWith("META-INF")) {
-						if (isSignatureData(relativePath)) {
-							// Strip any signature data
-							continue;
-						}
-					}
-
-					final String entryPath = relativePath.toString();
-
-					if (entryPath.equals(Constants.Manifest.PATH)) {
-						continue;
-					}
-
-					final FileSystemUtil.Delegate target = clientEntries.contains(entryPath) ? clientOutput : commonOutput;
-					final Path outputEntry = target.getPath(entryPath);
-					final Path outputParent = outputEntry.getParent();
-
-					if (outputParent != null) {
-						Files.createDirectories(outputParent);
-					}
-
-					Files.copy(entry, outputEntry, StandardCopyOption.COPY_ATTRIBUTES);
-				}
-
+			try (RawZipWriter commonOutput = new RawZipWriter(commonOutputJar);
+					RawZipWriter clientOutput = new RawZipWriter(clientOutputJar)) {
 				/*
-				Write the manifest to both jars
+				Write the manifest to both jars first
 				- Remove signature data
 				- Remove split data as its already been split.
 				- Add env name.
@@ -187,15 +168,53 @@ public class JarSplitter {
 				Objects.requireNonNull(attributes.remove(MANIFEST_SPLIT_ENV_NAME));
 				Objects.requireNonNull(attributes.remove(MANIFEST_CLIENT_ENTRIES_NAME));
 
-				writeBytes(writeWithEnvironment(outManifest, "common"), commonOutput.getPath(Constants.Manifest.PATH));
-				writeBytes(writeWithEnvironment(outManifest, "client"), clientOutput.getPath(Constants.Manifest.PATH));
+				final int manifestTime = input.getEntry(Constants.Manifest.PATH).dosTime();
+				writeManifest(commonOutput, writeWithEnvironment(outManifest, "common"), manifestTime);
+				writeManifest(clientOutput, writeWithEnvironment(outManifest, "client"), manifestTime);
+
+				for (RawZipFile.Entry entry : input.getEntries()) {
+					final String entryPath = entry.name();
+
+					if (entry.isDirectory() || entryPath.equals(Constants.Manifest.PATH)) {
+						continue;
+					}
+
+					if (isMetaInf(entryPath) && isSignatureData(entryPath)) {
+						// Strip any signature data
+						continue;
+					}
+
+					final RawZipWriter target = clientEntries.contains(entryPath) ? clientOutput : commonOutput;
+					target.writeParentDirectories(entryPath, entry.dosTime());
+					target.copy(input, entry);
+				}
 			}
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(commonOutputJar);
+			Files.deleteIfExists(clientOutputJar);
+			throw e;
 		}
+	}
 
-		return true;
+	@Nullable
+	private static Manifest readManifest(RawZipFile input) throws IOException {
+		final RawZipFile.Entry entry = input.getEntry(Constants.Manifest.PATH);
+
+		if (entry == null) {
+			return null;
+		}
+
+		try (InputStream inputStream = input.getInputStream(entry)) {
+			return new Manifest(inputStream);
+		}
+	}
+
+	private static void writeManifest(RawZipWriter output, byte[] manifest, int dosTime) throws IOException {
+		output.writeParentDirectories(Constants.Manifest.PATH, dosTime);
+		output.write(Constants.Manifest.PATH, manifest, ZipEntry.DEFLATED, dosTime);
 	}
 
-	private byte[] writeWithEnvironment(Manifest in, String value) throws IOException {
+	private static byte[] writeWithEnvironment(Manifest in, String value) throws IOException {
 		final Manifest manifest = new Manifest(in);
 		final Attributes attributes = manifest.getMainAttributes();
 		attributes.putValue(Constants.Manifest.SPLIT_ENV_NAME, value);
@@ -205,7 +224,7 @@ public class JarSplitter {
 		return out.toByteArray();
 	}
 
-	private List<String> readClientEntries(Manifest manifest) {
+	private static List<String> readClientEntries(Manifest manifest) {
 		final Attributes attributes = manifest.getMainAttributes();
 		final String clientEntriesValue = attributes.getValue(Constants.Manifest.CLIENT_ENTRIES);
 
@@ -216,8 +235,16 @@ public class JarSplitter {
 		return Arrays.stream(clientEntriesValue.split(";")).toList();
 	}
 
-	private boolean isSignatureData(Path path) {
-		final String fileName = path.getFileName().toString();
+	private static boolean isMetaInf(String name) {
+		return name.startsWith("META-INF/");
+	}
+
+	private static boolean isManifest(String name) {
+		return name.startsWith("META-INF/") && name.endsWith("/MANIFEST.MF");
+	}
+
+	private static boolean isSignatureData(String name) {
+		final String fileName = name.substring(name.lastIndexOf('/') + 1);
 		return fileName.endsWith(".SF")
 				|| fileName.endsWith(".DSA")
 				|| fileName.endsWith(".RSA")
@@ -242,16 +269,6 @@ public class JarSplitter {
 		}
 	}
 
-	private static void writeBytes(byte[] bytes, Path path) throws IOException {
-		final Path parent = path.getParent();
-
-		if (parent != null) {
-			Files.createDirectories(parent);
-		}
-
-		Files.write(path, bytes);
-	}
-
 	public enum Target {
 		COMMON_ONLY(true, false),
 		CLIENT_ONLY(false, true),
@@ -32,9 +32,11 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Supplier;
 
 import com.google.common.collect.ImmutableMap;
@@ -60,13 +62,16 @@ import net.fabricmc.loom.LoomGradleExtension;
 import net.fabricmc.loom.LoomGradlePlugin;
 import net.fabricmc.loom.api.RemapConfigurationSettings;
 import net.fabricmc.loom.configuration.RemapConfigurations;
+import net.fabricmc.loom.configuration.ide.idea.IdeaUtils;
 import net.fabricmc.loom.configuration.mods.dependency.ModDependency;
 import net.fabricmc.loom.configuration.mods.dependency.ModDependencyFactory;
 import net.fabricmc.loom.configuration.providers.minecraft.MinecraftSourceSets;
+import net.fabricmc.loom.task.RemapModSourcesTask;
 import net.fabricmc.loom.util.Checksum;
 import net.fabricmc.loom.util.Constants;
 import net.fabricmc.loom.util.ExceptionUtil;
 import net.fabricmc.loom.util.SourceRemapper;
+import net.fabricmc.loom.util.gradle.GradleUtils;
 import net.fabricmc.loom.util.gradle.SourceSetHelper;
 import net.fabricmc.loom.util.service.SharedServiceManager;
 
@@ -138,6 +143,8 @@ public class ModConfigurationRemapper {
 		// any mods are remapped since remapping needs the dependencies provided by that data.
 		final Map<Configuration, List<ModDependency>> dependenciesBySourceConfig = new HashMap<>();
 		final Map<ArtifactRef, ArtifactMetadata> metaCache = new HashMap<>();
+		// Dependencies with sources left for the remapModSources task
+		final Set<String> lazySources = new HashSet<>();
 		configsToRemap.forEach((sourceConfig, remappedConfig) -> {
 			/*
 			sourceConfig - The source configuration where the intermediary named artifacts come from. i.e "modApi"
@@ -175,13 +182,22 @@ public class ModConfigurationRemapper {
 				}
 
 				final ModDependency modDependency = ModDependencyFactory.create(artifact, artifactMetadata, remappedConfig, clientRemappedConfig, mappingsSuffix, project);
-				scheduleSourcesRemapping(project, sourceRemapper, modDependency);
+
+				if (scheduleSourcesRemapping(project, sourceRemapper, modDependency)) {
+					lazySources.add(artifact.group() + ":" + artifact.name());
+				}
+
 				modDependencies.add(modDependency);
 			}
 
 			dependenciesBySourceConfig.put(sourceConfig, modDependencies);
 		});
 
+		// IDEA sync runs the task through ideaSyncTask
+		if (!lazySources.isEmpty() && !IdeaUtils.isIdeaSync()) {
+			project.getLogger().lifecycle("The sources of {} mod dependencies have not been remapped, run the {} task to use them in the IDE", lazySources.size(), Constants.Task.REMAP_MOD_SOURCES);
+		}
+
 		// Round 2: Remapping
 		// Remap all discovered artifacts.
 		configsToRemap.forEach((sourceConfig, remappedConfig) -> {
@@ -245,7 +261,8 @@ public class ModConfigurationRemapper {
 		final List<ArtifactRef> artifacts = new ArrayList<>();
 
 		for (ResolvedArtifact artifact : configuration.getResolvedConfiguration().getResolvedArtifacts()) {
-			final Path sources = findSources(project, artifact);
+			// Sources are found when they are remapped by the remapModSources task.
+			final Path sources = isLazyModSources(project) ? null : findSources(project, artifact);
 			artifacts.add(new ArtifactRef.ResolvedArtifactRef(artifact, sources));
 		}
 
@@ -294,28 +311,59 @@ public class ModConfigurationRemapper {
 		return null;
 	}
 
-	private static void scheduleSourcesRemapping(Project project, SourceRemapper sourceRemapper, ModDependency dependency) {
+	/**
+	 * @return whether the sources were left for the {@value Constants.Task#REMAP_MOD_SOURCES} task to remap
+	 */
+	private static boolean scheduleSourcesRemapping(Project project, SourceRemapper sourceRemapper, ModDependency dependency) {
 		if (isCIBuild()) {
-			return;
+			return false;
+		}
+
+		final Path output = dependency.getWorkingFile("sources");
+		final Runnable completionCallback = () -> {
+			try {
+				dependency.copyToCache(project, output, "sources");
+			} catch (IOException e) {
+				throw new UncheckedIOException("Failed to apply sources to local cache for: " + dependency, e);
+			}
+		};
+
+		if (isLazyModSources(project)) {
+			if (dependency.isCacheInvalid(project, "sources")) {
+				final ArtifactRef artifact = dependency.getInputArtifact();
+				project.getTasks().named(Constants.Task.REMAP_MOD_SOURCES, RemapModSourcesTask.class).configure(task -> {
+					task.schedule(artifact.group() + ":" + artifact.name(), () -> findLazySources(project, artifact), output, completionCallback);
+				});
+				return true;
+			}
+
+			return false;
 		}
 
 		final Path sourcesInput = dependency.getInputArtifact().sources();
 
 		if (sourcesInput == null || Files.notExists(sourcesInput)) {
-			return;
+			return false;
 		}
 
 		if (dependency.isCacheInvalid(project, "sources")) {
-			final Path output = dependency.getWorkingFile("sources");
+			sourceRemapper.scheduleRemapSources(sourcesInput.toFile(), output.toFile(), false, true, completionCallback);
+		}
 
-			sourceRemapper.scheduleRemapSources(sourcesInput.toFile(), output.toFile(), false, true, () -> {
-				try {
-					dependency.copyToCache(project, output, "sources");
-				} catch (IOException e) {
-					throw new UncheckedIOException("Failed to apply sources to local cache for: " + dependency, e);
-				}
-			});
+		return false;
+	}
+
+	@Nullable
+	private static Path findLazySources(Project project, ArtifactRef artifact) {
+		if (artifact instanceof ArtifactRef.ResolvedArtifactRef resolved) {
+			return findSources(project, resolved.artifact());
 		}
+
+		return artifact.sources();
+	}
+
+	private static boolean isLazyModSources(Project project) {
+		return GradleUtils.getBooleanProperty(project, Constants.Properties.LAZY_MOD_SOURCES);
 	}
 
 	public static String replaceIfNullOrEmpty(@Nullable String s, Supplier<String> fallback) {
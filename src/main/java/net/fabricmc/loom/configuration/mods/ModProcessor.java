@@ -60,6 +60,7 @@ import net.fabricmc.loom.util.Constants;
 import net.fabricmc.loom.util.LoggerFilter;
 import net.fabricmc.loom.util.ModPlatform;
 import net.fabricmc.loom.util.Pair;
+import net.fabricmc.loom.util.ThreadingUtils;
 import net.fabricmc.loom.util.TinyRemapperHelper;
 import net.fabricmc.loom.util.ZipUtils;
 import net.fabricmc.loom.util.kotlin.KotlinClasspathService;
@@ -248,9 +249,14 @@ public class ModProcessor {
 			// Apply this in a second loop as we need to ensure all the inputs are on the classpath before remapping.
 			for (ModDependency dependency : remapList) {
 				try {
-					OutputConsumerPath outputConsumer = new OutputConsumerPath.Builder(getRemappedOutput(dependency)).build();
-
-					outputConsumer.addNonClassFiles(dependency.getInputFile(), NonClassCopyMode.FIX_META_INF, remapper);
+					Files.deleteIfExists(getRemappedClassesOutput(dependency));
+					OutputConsumerPath outputConsumer = new OutputConsumerPath.Builder(getRemappedClassesOutput(dependency)).build();
+
+					// Only META-INF needs to be fixed by tiny remapper, all other non-class files are copied as is once remapped.
+					final Path metaInf = getMetaInfOutput(dependency);
+					ZipUtils.copyEntries(dependency.getInputFile(), metaInf, name -> name.startsWith("META-INF/"));
+					outputConsumer.addNonClassFiles(metaInf, NonClassCopyMode.FIX_META_INF, remapper);
+					Files.delete(metaInf);
 					outputConsumerMap.put(dependency, outputConsumer);
 
 					final ModPlatform platform = LoomGradleExtension.get(project).getPlatform().get();
@@ -281,6 +287,9 @@ public class ModProcessor {
 			outputConsumerMap.get(dependency).close();
 
 			final Path output = getRemappedOutput(dependency);
+			final Path classesOutput = getRemappedClassesOutput(dependency);
+			ZipUtils.copyWithNonClassFiles(classesOutput, dependency.getInputFile(), output, name -> name.startsWith("META-INF/"));
+			Files.delete(classesOutput);
 			final Pair<byte[], String> accessWidener = accessWidenerMap.get(dependency);
 
 			if (accessWidener != null) {
@@ -301,8 +310,15 @@ public class ModProcessor {
 
 				CoreModClassRemapper.remapJar(project, extension.getPlatform().get(), output, mappings);
 			}
+		}
 
-			dependency.copyToCache(project, output, null);
+		// Splitting the jars of split dependencies is independent for each dependency, copying them to the local maven repository is not.
+		final List<ModDependency.CacheCopy> cacheCopies = ThreadingUtils.get(remapList.stream()
+				.<ThreadingUtils.UnsafeCallable<ModDependency.CacheCopy>>map(dependency -> () -> dependency.prepareCopyToCache(getRemappedOutput(dependency), null))
+				.toList());
+
+		for (ModDependency.CacheCopy cacheCopy : cacheCopies) {
+			cacheCopy.copy();
 		}
 	}
 
@@ -310,6 +326,16 @@ public class ModProcessor {
 		return dependency.getWorkingFile(null);
 	}
 
+	private static Path getRemappedClassesOutput(ModDependency dependency) {
+		final Path output = getRemappedOutput(dependency);
+		return output.resolveSibling(output.getFileName() + ".classes");
+	}
+
+	private static Path getMetaInfOutput(ModDependency dependency) {
+		final Path output = getRemappedOutput(dependency);
+		return output.resolveSibling(output.getFileName() + ".meta-inf");
+	}
+
 	private void remapJarManifestEntries(Path jar) throws IOException {
 		ZipUtils.transform(jar, Map.of(Constants.Manifest.PATH, bytes -> {
 			var manifest = new Manifest(new ByteArrayInputStream(bytes));
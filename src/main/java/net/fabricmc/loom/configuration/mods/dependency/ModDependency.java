@@ -64,7 +64,15 @@ public abstract sealed class ModDependency permits SplitModDependency, SimpleMod
 	/**
 	 * Write an artifact to the local cache.
 	 */
-	public abstract void copyToCache(Project project, Path path, @Nullable String variant) throws IOException;
+	public void copyToCache(Project project, Path path, @Nullable String variant) throws IOException {
+		prepareCopyToCache(path, variant).copy();
+	}
+
+	/**
+	 * Does the work of writing an artifact to the local cache that only depends on this dependency, such as splitting the jar.
+	 * This can run concurrently for different dependencies, unlike the returned copy to the local maven repository which writes shared files.
+	 */
+	public abstract CacheCopy prepareCopyToCache(Path path, @Nullable String variant) throws IOException;
 
 	/**
 	 * Apply the dependency to the project.
@@ -109,4 +117,9 @@ public abstract sealed class ModDependency permits SplitModDependency, SimpleMod
 	public String toString() {
 		return "ModDependency{" + "group='" + group + '\'' + ", name='" + name + '\'' + ", version='" + version + '\'' + ", classifier='" + classifier + '\'' + '}';
 	}
+
+	@FunctionalInterface
+	public interface CacheCopy {
+		void copy() throws IOException;
+	}
 }
@@ -24,7 +24,6 @@
 
 package net.fabricmc.loom.configuration.mods.dependency;
 
-import java.io.IOException;
 import java.nio.file.Path;
 import java.util.Objects;
 
@@ -52,8 +51,8 @@ public final class SimpleModDependency extends ModDependency {
 	}
 
 	@Override
-	public void copyToCache(Project project, Path path, @Nullable String variant) throws IOException {
-		maven.copyToMaven(path, variant);
+	public CacheCopy prepareCopyToCache(Path path, @Nullable String variant) {
+		return () -> maven.copyToMaven(path, variant);
 	}
 
 	@Override
@@ -69,37 +69,37 @@ public final class SplitModDependency extends ModDependency {
 	}
 
 	@Override
-	public void copyToCache(Project project, Path path, @Nullable String variant) throws IOException {
-		// Split dependencies build with loom 0.12 do not contain the required data to split the sources
-		if (target == JarSplitter.Target.SPLIT && variant != null) {
-			final JarSplitter.Target artifactTarget = new JarSplitter(path).analyseTarget();
+	public CacheCopy prepareCopyToCache(Path path, @Nullable String variant) throws IOException {
+		return switch (target) {
+		case SPLIT -> split(path, variant);
+		// No splitting to be done, just copy the input jar to the respective location.
+		case CLIENT_ONLY -> () -> getClientMaven().copyToMaven(path, variant);
+		case COMMON_ONLY -> () -> getCommonMaven().copyToMaven(path, variant);
+		};
+	}
+
+	// Split the jar into 2
+	private CacheCopy split(Path path, @Nullable String variant) throws IOException {
+		final String suffix = variant == null ? "" : "-" + variant;
+		final Path commonTempJar = getWorkingFile("common" + suffix);
+		final Path clientTempJar = getWorkingFile("client" + suffix);
+		final JarSplitter splitter = new JarSplitter(path);
 
-			if (artifactTarget != target) {
-				// Found a broken artifact, copy it to both locations without splitting.
+		if (variant == null) {
+			splitter.split(commonTempJar, clientTempJar);
+		} else if (splitter.analyseAndSplit(commonTempJar, clientTempJar) != target) {
+			// Split dependencies build with loom 0.12 do not contain the required data to split the sources
+			// Found a broken artifact, copy it to both locations without splitting.
+			return () -> {
 				getCommonMaven().copyToMaven(path, variant);
 				getClientMaven().copyToMaven(path, variant);
-				return;
-			}
+			};
 		}
 
-		switch (target) {
-		// Split the jar into 2
-		case SPLIT -> {
-			final String suffix = variant == null ? "" : "-" + variant;
-			final Path commonTempJar = getWorkingFile("common" + suffix);
-			final Path clientTempJar = getWorkingFile("client" + suffix);
-
-			final JarSplitter splitter = new JarSplitter(path);
-			splitter.split(commonTempJar, clientTempJar);
-
+		return () -> {
 			getCommonMaven().copyToMaven(commonTempJar, variant);
 			getClientMaven().copyToMaven(clientTempJar, variant);
-		}
-
-		// No splitting to be done, just copy the input jar to the respective location.
-		case CLIENT_ONLY -> getClientMaven().copyToMaven(path, variant);
-		case COMMON_ONLY -> getCommonMaven().copyToMaven(path, variant);
-		}
+		};
 	}
 
 	@Override
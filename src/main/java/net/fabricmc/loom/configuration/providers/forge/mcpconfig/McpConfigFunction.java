@@ -35,6 +35,7 @@ import org.jetbrains.annotations.Nullable;
 
 import net.fabricmc.loom.configuration.providers.forge.ConfigValue;
 import net.fabricmc.loom.configuration.providers.forge.mcpconfig.steplogic.StepLogic;
+import net.fabricmc.loom.util.download.DownloadExecutor;
 import net.fabricmc.loom.util.function.CollectionUtil;
 
 /**
@@ -59,6 +60,13 @@ public record McpConfigFunction(String version, List<ConfigValue> args, List<Con
 		}
 	}
 
+	public void prefetch(StepLogic.ExecutionContext executionContext, DownloadExecutor executor) throws IOException {
+		// Dependencies are resolved by Gradle, only direct downloads are prefetched.
+		if (repo != null) {
+			executionContext.prefetchFile(getDownloadUrl(), executor);
+		}
+	}
+
 	private String getDownloadUrl() {
 		String[] parts = version.split(":");
 		StringBuilder builder = new StringBuilder();
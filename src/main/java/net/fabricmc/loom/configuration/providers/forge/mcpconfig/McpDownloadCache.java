@@ -0,0 +1,68 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2025 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.configuration.providers.forge.mcpconfig;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Function;
+
+import com.google.common.hash.Hashing;
+
+import net.fabricmc.loom.util.download.DownloadBuilder;
+import net.fabricmc.loom.util.download.DownloadExecutor;
+
+/**
+ * Stores the files downloaded by MCPConfig steps, named after the hash of their url.
+ */
+public final class McpDownloadCache {
+	private final Path directory;
+	private final Function<String, DownloadBuilder> downloadBuilder;
+
+	public McpDownloadCache(Path directory, Function<String, DownloadBuilder> downloadBuilder) {
+		this.directory = directory;
+		this.downloadBuilder = downloadBuilder;
+	}
+
+	public Path download(String url) throws IOException {
+		Path path = getPath(url);
+		downloadBuilder.apply(url).defaultCache().downloadPath(path);
+		return path;
+	}
+
+	/**
+	 * Starts downloading a file to the same location as {@link #download(String)},
+	 * which then finds it up to date.
+	 */
+	public void prefetch(String url, DownloadExecutor executor) throws IOException {
+		downloadBuilder.apply(url).defaultCache().downloadPathAsync(getPath(url), executor);
+	}
+
+	private Path getPath(String url) throws IOException {
+		Files.createDirectories(directory);
+		return directory.resolve(Hashing.sha256().hashString(url, StandardCharsets.UTF_8).toString().substring(0, 24));
+	}
+}
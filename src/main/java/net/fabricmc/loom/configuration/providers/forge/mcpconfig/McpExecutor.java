@@ -26,10 +26,8 @@ package net.fabricmc.loom.configuration.providers.forge.mcpconfig;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
+import java.net.URI;
+import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -41,7 +39,6 @@ import java.util.Set;
 import java.util.SortedSet;
 
 import com.google.common.base.Stopwatch;
-import com.google.common.hash.Hashing;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import org.gradle.api.Action;
@@ -69,11 +66,13 @@ import net.fabricmc.loom.configuration.providers.minecraft.MinecraftProvider;
 import net.fabricmc.loom.util.Constants;
 import net.fabricmc.loom.util.ForgeToolExecutor;
 import net.fabricmc.loom.util.download.DownloadBuilder;
+import net.fabricmc.loom.util.download.DownloadExecutor;
 import net.fabricmc.loom.util.function.CollectionUtil;
 import net.fabricmc.loom.util.gradle.GradleUtils;
 
 public final class McpExecutor {
 	private static final LogLevel STEP_LOG_LEVEL = LogLevel.LIFECYCLE;
+	private static final int PREFETCH_THREADS = 4;
 	private final Project project;
 	private final MinecraftProvider minecraftProvider;
 	private final Path cache;
@@ -155,12 +154,6 @@ public final class McpExecutor {
 		config.put(key, value);
 	}
 
-	private Path getDownloadCache() throws IOException {
-		Path downloadCache = cache.resolve("downloads");
-		Files.createDirectories(downloadCache);
-		return downloadCache;
-	}
-
 	private Path getStepCache(String step) {
 		return cache.resolve(step);
 	}
@@ -238,6 +231,7 @@ public final class McpExecutor {
 		int currentStepIndex = 0;
 
 		project.getLogger().log(STEP_LOG_LEVEL, ":executing {} MCP steps", totalSteps);
+		prefetch(steps);
 
 		for (McpConfigStep currentStep : steps) {
 			currentStepIndex++;
@@ -252,6 +246,14 @@ public final class McpExecutor {
 		return Path.of(extraConfig.get(ConfigValue.OUTPUT));
 	}
 
+	private void prefetch(List<McpConfigStep> steps) throws IOException {
+		try (DownloadExecutor executor = new DownloadExecutor(PREFETCH_THREADS)) {
+			for (McpConfigStep step : steps) {
+				getStepLogic(step.name(), step.type()).prefetch(new ExecutionContextImpl(step), executor);
+			}
+		}
+	}
+
 	/**
 	 * Sets the custom step logic provider of this executor.
 	 *
@@ -329,9 +331,16 @@ public final class McpExecutor {
 
 		@Override
 		public Path downloadFile(String url) throws IOException {
-			Path path = getDownloadCache().resolve(Hashing.sha256().hashString(url, StandardCharsets.UTF_8).toString().substring(0, 24));
-			redirectAwareDownload(url, path);
-			return path;
+			return getDownloadCache().download(upgradeToHttps(url));
+		}
+
+		@Override
+		public void prefetchFile(String url, DownloadExecutor executor) throws IOException {
+			getDownloadCache().prefetch(upgradeToHttps(url), executor);
+		}
+
+		private McpDownloadCache getDownloadCache() {
+			return new McpDownloadCache(cache.resolve("downloads"), this::downloadBuilder);
 		}
 
 		@Override
@@ -347,23 +356,18 @@ public final class McpExecutor {
 			return LoomGradleExtension.get(project).download(url);
 		}
 
-		// Some of these files linked to the old Forge maven, let's follow the redirects to the new one.
-		private static void redirectAwareDownload(String urlString, Path path) throws IOException {
-			URL url = new URL(urlString);
+		// Some of these files linked to the old Forge maven over http, redirects to the new one are followed by the downloader.
+		private static String upgradeToHttps(String url) {
+			final URI uri = URI.create(url);
 
-			if (url.getProtocol().equals("http")) {
-				url = new URL("https", url.getHost(), url.getPort(), url.getFile());
+			if (!"http".equals(uri.getScheme())) {
+				return url;
 			}
 
-			HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-			connection.connect();
-
-			if (connection.getResponseCode() == HttpURLConnection.HTTP_MOVED_PERM || connection.getResponseCode() == HttpURLConnection.HTTP_MOVED_TEMP) {
-				redirectAwareDownload(connection.getHeaderField("Location"), path);
-			} else {
-				try (InputStream in = connection.getInputStream()) {
-					Files.copy(in, path);
-				}
+			try {
+				return new URI("https", uri.getUserInfo(), uri.getHost(), uri.getPort(), uri.getPath(), uri.getQuery(), uri.getFragment()).toString();
+			} catch (URISyntaxException e) {
+				throw new IllegalArgumentException("Invalid url: " + url, e);
 			}
 		}
 
@@ -27,6 +27,7 @@ package net.fabricmc.loom.configuration.providers.forge.mcpconfig.steplogic;
 import java.io.IOException;
 
 import net.fabricmc.loom.configuration.providers.minecraft.MinecraftVersionMeta;
+import net.fabricmc.loom.util.download.DownloadExecutor;
 
 /**
  * Downloads a file from the Minecraft version metadata.
@@ -44,4 +45,12 @@ public final class DownloadManifestFileLogic implements StepLogic {
 				.sha1(download.sha1())
 				.downloadPath(context.setOutput("output"));
 	}
+
+	@Override
+	public void prefetch(ExecutionContext context, DownloadExecutor executor) throws IOException {
+		// Downloads to the same file as the output set by execute, the hash is then only checked again.
+		context.downloadBuilder(download.url())
+				.sha1(download.sha1())
+				.downloadPathAsync(context.cache().resolve("output"), executor);
+	}
 }
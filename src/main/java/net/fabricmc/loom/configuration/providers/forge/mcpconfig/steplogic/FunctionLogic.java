@@ -30,6 +30,7 @@ import java.util.jar.Attributes;
 import java.util.jar.JarFile;
 
 import net.fabricmc.loom.configuration.providers.forge.mcpconfig.McpConfigFunction;
+import net.fabricmc.loom.util.download.DownloadExecutor;
 
 /**
  * Runs a Forge tool configured by a {@linkplain McpConfigFunction function}.
@@ -64,6 +65,11 @@ public final class FunctionLogic implements StepLogic {
 		});
 	}
 
+	@Override
+	public void prefetch(ExecutionContext context, DownloadExecutor executor) throws IOException {
+		function.prefetch(context, executor);
+	}
+
 	@Override
 	public String getDisplayName(String stepName) {
 		return stepName + " with " + function.version();
@@ -37,6 +37,7 @@ import org.gradle.process.JavaExecSpec;
 
 import net.fabricmc.loom.configuration.providers.forge.ConfigValue;
 import net.fabricmc.loom.util.download.DownloadBuilder;
+import net.fabricmc.loom.util.download.DownloadExecutor;
 import net.fabricmc.loom.util.function.CollectionUtil;
 
 /**
@@ -53,6 +54,13 @@ public interface StepLogic {
 		return false;
 	}
 
+	/**
+	 * Starts the downloads needed by {@link #execute}, so that the files of all steps are downloaded concurrently
+	 * before any step is executed.
+	 */
+	default void prefetch(ExecutionContext context, DownloadExecutor executor) throws IOException {
+	}
+
 	interface ExecutionContext {
 		Logger logger();
 		Path setOutput(String fileName) throws IOException;
@@ -62,6 +70,12 @@ public interface StepLogic {
 		Path mappings();
 		String resolve(ConfigValue value);
 		Path downloadFile(String url) throws IOException;
+		/**
+		 * Starts downloading a file to the same location as {@link #downloadFile(String)}.
+		 * Contexts that cannot download ahead of time may do nothing, the file is then downloaded by {@link #downloadFile(String)}.
+		 */
+		default void prefetchFile(String url, DownloadExecutor executor) throws IOException {
+		}
 		Path downloadDependency(String notation);
 		DownloadBuilder downloadBuilder(String url);
 		void javaexec(Action<? super JavaExecSpec> configurator);
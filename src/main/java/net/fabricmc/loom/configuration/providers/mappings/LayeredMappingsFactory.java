@@ -48,6 +48,7 @@ import net.fabricmc.loom.configuration.ConfigContext;
 import net.fabricmc.loom.configuration.mods.dependency.LocalMavenHelper;
 import net.fabricmc.loom.configuration.providers.mappings.extras.unpick.UnpickLayer;
 import net.fabricmc.loom.configuration.providers.mappings.utils.AddConstructorMappingVisitor;
+import net.fabricmc.loom.util.DeletingFileVisitor;
 import net.fabricmc.loom.util.ZipUtils;
 import net.fabricmc.mappingio.adapter.MappingDstNsReorder;
 import net.fabricmc.mappingio.adapter.MappingSourceNsSwitch;
@@ -92,8 +93,14 @@ public record LayeredMappingsFactory(LayeredMappingSpec spec) {
 			return mappingsZip;
 		}
 
+		final Path layerCacheDir = mappingsDir.resolve("layers");
+
+		if (mappingContext.refreshDeps() && Files.exists(layerCacheDir)) {
+			Files.walkFileTree(layerCacheDir, new DeletingFileVisitor());
+		}
+
 		boolean noIntermediateMappings = extension.getIntermediateMappingsProvider() instanceof NoOpIntermediateMappingsProvider;
-		var processor = new LayeredMappingsProcessor(spec, noIntermediateMappings);
+		var processor = new LayeredMappingsProcessor(spec, noIntermediateMappings, layerCacheDir);
 		List<MappingLayer> layers = processor.resolveLayers(mappingContext);
 
 		Files.deleteIfExists(mappingsZip);
@@ -25,12 +25,24 @@
 package net.fabricmc.loom.configuration.providers.mappings;
 
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.stream.Stream;
 
 import org.jetbrains.annotations.Nullable;
 
@@ -40,17 +52,37 @@ import net.fabricmc.loom.api.mappings.layered.MappingsNamespace;
 import net.fabricmc.loom.api.mappings.layered.spec.MappingsSpec;
 import net.fabricmc.loom.configuration.providers.mappings.extras.signatures.SignatureFixesLayer;
 import net.fabricmc.loom.configuration.providers.mappings.extras.unpick.UnpickLayer;
+import net.fabricmc.loom.util.Checksum;
+import net.fabricmc.mappingio.MappingReader;
 import net.fabricmc.mappingio.adapter.MappingNsCompleter;
 import net.fabricmc.mappingio.adapter.MappingSourceNsSwitch;
+import net.fabricmc.mappingio.format.MappingFormat;
+import net.fabricmc.mappingio.format.tiny.Tiny2FileWriter;
 import net.fabricmc.mappingio.tree.MemoryMappingTree;
 
 public class LayeredMappingsProcessor {
+	// Bump when the layer processing changes in a way that invalidates the cached layer outputs
+	private static final int CACHE_VERSION = 1;
+	// Cached layer outputs not used by the current layers are kept up to this limit, so switching between a few specs stays fast.
+	private static final int MAX_UNUSED_CACHED_LAYERS = 4;
+
 	private final LayeredMappingSpec layeredMappingSpec;
 	private final boolean noIntermediateMappings;
+	@Nullable
+	private final Path layerCacheDirectory;
 
 	public LayeredMappingsProcessor(LayeredMappingSpec spec, boolean noIntermediateMappings) {
+		this(spec, noIntermediateMappings, null);
+	}
+
+	/**
+	 * @param layerCacheDirectory when not null, the output of each layer is cached in this directory so that only the
+	 * layers after the first changed layer have to be visited again.
+	 */
+	public LayeredMappingsProcessor(LayeredMappingSpec spec, boolean noIntermediateMappings, @Nullable Path layerCacheDirectory) {
 		this.layeredMappingSpec = spec;
 		this.noIntermediateMappings = noIntermediateMappings;
+		this.layerCacheDirectory = layerCacheDirectory;
 	}
 
 	public List<MappingLayer> resolveLayers(MappingContext context) {
@@ -75,36 +107,59 @@ public class LayeredMappingsProcessor {
 
 	public MemoryMappingTree getMappings(List<MappingLayer> layers) throws IOException {
 		MemoryMappingTree mappingTree = new MemoryMappingTree();
+		final List<String> layerCacheKeys = getLayerCacheKeys();
+		int startLayer = 0;
 
-		for (MappingLayer layer : layers) {
-			// We have to rebuild a new tree to work on when a layer doesnt merge into layered
-			boolean rebuild = layer.getSourceNamespace() != MappingsNamespace.NAMED;
-			MemoryMappingTree workingTree;
-
-			if (rebuild) {
-				var tempTree = new MemoryMappingTree();
+		if (layerCacheDirectory != null) {
+			// Find the last layer with a cached output, only the layers after it need to be visited again.
+			for (int i = layers.size() - 1; i >= 0; i--) {
+				final Path cachedLayer = getCachedLayerPath(layerCacheKeys.get(i));
 
-				// This can be null on the first layer
-				if (mappingTree.getSrcNamespace() != null) {
-					var sourceNsSwitch = new MappingSourceNsSwitch(tempTree, layer.getSourceNamespace().toString());
-					mappingTree.accept(sourceNsSwitch);
+				if (Files.exists(cachedLayer)) {
+					MappingReader.read(cachedLayer, MappingFormat.TINY_2_FILE, mappingTree);
+					// Marks the cached layer as recently used, the least recently used layers are pruned first.
+					Files.setLastModifiedTime(cachedLayer, FileTime.from(Instant.now()));
+					startLayer = i + 1;
+					break;
 				}
+			}
+		}
+
+		for (int i = startLayer; i < layers.size(); i++) {
+			final MappingLayer layer = layers.get(i);
+			final String sourceNamespace = layer.getSourceNamespace().toString();
 
-				workingTree = tempTree;
-			} else {
-				workingTree = mappingTree;
+			// We have to rebuild a new tree to work on when a layer doesnt merge into the current source namespace.
+			// This can be null on the first layer
+			if (mappingTree.getSrcNamespace() != null && !sourceNamespace.equals(mappingTree.getSrcNamespace())) {
+				mappingTree = switchSourceNamespace(mappingTree, sourceNamespace);
 			}
 
 			try {
-				layer.visit(workingTree);
+				layer.visit(mappingTree);
 			} catch (IOException e) {
 				throw new IOException("Failed to visit: " + layer.getClass(), e);
 			}
 
-			if (rebuild) {
-				mappingTree = new MemoryMappingTree();
-				workingTree.accept(new MappingSourceNsSwitch(mappingTree, MappingsNamespace.NAMED.toString()));
+			final boolean nextLayerSharesSource = i + 1 < layers.size() && layers.get(i + 1).getSourceNamespace() == layer.getSourceNamespace();
+
+			// Consecutive layers with the same source namespace are visited into the same tree,
+			// skipping a round trip through the named namespace between them. Such a layer is not cached on its own.
+			if (nextLayerSharesSource) {
+				continue;
+			}
+
+			if (!MappingsNamespace.NAMED.toString().equals(mappingTree.getSrcNamespace())) {
+				mappingTree = switchSourceNamespace(mappingTree, MappingsNamespace.NAMED.toString());
 			}
+
+			if (layerCacheDirectory != null) {
+				writeCachedLayer(mappingTree, getCachedLayerPath(layerCacheKeys.get(i)));
+			}
+		}
+
+		if (layerCacheDirectory != null) {
+			pruneLayerCache(layerCacheKeys);
 		}
 
 		if (noIntermediateMappings) {
@@ -117,6 +172,79 @@ public class LayeredMappingsProcessor {
 		return mappingTree;
 	}
 
+	private static MemoryMappingTree switchSourceNamespace(MemoryMappingTree mappingTree, String sourceNamespace) throws IOException {
+		final var switchedTree = new MemoryMappingTree();
+		mappingTree.accept(new MappingSourceNsSwitch(switchedTree, sourceNamespace));
+		return switchedTree;
+	}
+
+	/**
+	 * Each key identifies the output of a layer together with all of the layers before it.
+	 * The spec hash codes already include the inputs of the layer, such as the hash of a local file.
+	 */
+	private List<String> getLayerCacheKeys() {
+		final List<String> keys = new ArrayList<>();
+		final StringJoiner joiner = new StringJoiner(",", CACHE_VERSION + ":", "");
+
+		for (MappingsSpec<?> spec : layeredMappingSpec.layers()) {
+			joiner.add(spec.getClass().getName() + "@" + spec.hashCode());
+			keys.add(Checksum.sha1Hex(joiner.toString().getBytes(StandardCharsets.UTF_8)));
+		}
+
+		return keys;
+	}
+
+	private Path getCachedLayerPath(String key) {
+		return layerCacheDirectory.resolve(key + ".tiny");
+	}
+
+	private static void writeCachedLayer(MemoryMappingTree mappingTree, Path path) throws IOException {
+		Files.createDirectories(path.getParent());
+		final Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+
+		try (Writer writer = Files.newBufferedWriter(tempPath, StandardCharsets.UTF_8)) {
+			mappingTree.accept(new Tiny2FileWriter(writer, false));
+		}
+
+		Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Deletes the least recently used cached layer outputs that are not used by the current layers,
+	 * as every change to a spec adds another full tree to the cache.
+	 */
+	private void pruneLayerCache(List<String> layerCacheKeys) throws IOException {
+		final Set<Path> usedLayers = new HashSet<>();
+
+		for (String key : layerCacheKeys) {
+			usedLayers.add(getCachedLayerPath(key));
+		}
+
+		final List<Path> unusedLayers;
+
+		try (Stream<Path> stream = Files.list(layerCacheDirectory)) {
+			unusedLayers = stream.filter(path -> path.getFileName().toString().endsWith(".tiny") && !usedLayers.contains(path))
+					.sorted(Comparator.comparing(LayeredMappingsProcessor::getLastModifiedTime).reversed())
+					.toList();
+		}
+
+		for (Path path : unusedLayers.subList(Math.min(unusedLayers.size(), MAX_UNUSED_CACHED_LAYERS), unusedLayers.size())) {
+			try {
+				Files.deleteIfExists(path);
+			} catch (IOException e) {
+				// May be in use by another build, it will be pruned next time.
+			}
+		}
+	}
+
+	private static FileTime getLastModifiedTime(Path path) {
+		try {
+			return Files.getLastModifiedTime(path);
+		} catch (IOException e) {
+			return FileTime.fromMillis(0);
+		}
+	}
+
 	@Nullable
 	public Map<String, String> getSignatureFixes(List<MappingLayer> layers) {
 		Map<String, String> signatureFixes = new HashMap<>();
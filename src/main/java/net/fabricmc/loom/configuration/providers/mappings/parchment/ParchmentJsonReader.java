@@ -0,0 +1,223 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2024 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.configuration.providers.mappings.parchment;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import net.fabricmc.loom.LoomGradlePlugin;
+import net.fabricmc.mappingio.MappedElementKind;
+import net.fabricmc.mappingio.MappingVisitor;
+
+/**
+ * Reads a parchment export from the json token stream directly into a {@link MappingVisitor}.
+ *
+ * <p>Only a single field or method is deserialized at a time, so unlike reading a full {@link ParchmentTreeV1}
+ * the memory used does not scale with the size of the export.
+ */
+final class ParchmentJsonReader {
+	private final JsonReader reader;
+	private final MappingVisitor visitor;
+	private final boolean removePrefix;
+
+	private ParchmentJsonReader(Reader reader, MappingVisitor visitor, boolean removePrefix) {
+		this.reader = new JsonReader(reader);
+		this.visitor = visitor;
+		this.removePrefix = removePrefix;
+	}
+
+	/**
+	 * Reads a single pass of the parchment export.
+	 *
+	 * @return the result of {@link MappingVisitor#visitEnd()}, when false the caller must call this again with a new reader.
+	 */
+	static boolean read(Reader reader, MappingVisitor visitor, String srcNamespace, boolean removePrefix) throws IOException {
+		return new ParchmentJsonReader(reader, visitor, removePrefix).read(srcNamespace);
+	}
+
+	private boolean read(String srcNamespace) throws IOException {
+		if (visitor.visitHeader()) {
+			visitor.visitNamespaces(srcNamespace, Collections.emptyList());
+		}
+
+		if (visitor.visitContent()) {
+			reader.beginObject();
+
+			while (reader.hasNext()) {
+				if (reader.nextName().equals("classes") && reader.peek() != JsonToken.NULL) {
+					reader.beginArray();
+
+					while (reader.hasNext()) {
+						readClass();
+					}
+
+					reader.endArray();
+				} else {
+					reader.skipValue();
+				}
+			}
+
+			reader.endObject();
+		}
+
+		return visitor.visitEnd();
+	}
+
+	private void readClass() throws IOException {
+		String name = null;
+		List<String> javadoc = null;
+		Boolean visitContent = null;
+		// Only used in the unlikely case that the members come before the name of the class
+		final List<ParchmentTreeV1.Field> pendingFields = new ArrayList<>();
+		final List<ParchmentTreeV1.Method> pendingMethods = new ArrayList<>();
+
+		reader.beginObject();
+
+		while (reader.hasNext()) {
+			final String key = reader.nextName();
+
+			if (reader.peek() == JsonToken.NULL) {
+				reader.skipValue();
+				continue;
+			}
+
+			switch (key) {
+			case "name" -> name = reader.nextString();
+			case "javadoc" -> javadoc = readStringList();
+			case "fields", "methods" -> {
+				if (name != null && visitContent == null) {
+					visitContent = visitClass(name);
+				}
+
+				final boolean fields = key.equals("fields");
+
+				if (Boolean.FALSE.equals(visitContent)) {
+					reader.skipValue();
+					continue;
+				}
+
+				reader.beginArray();
+
+				while (reader.hasNext()) {
+					if (fields) {
+						final ParchmentTreeV1.Field field = LoomGradlePlugin.GSON.fromJson(reader, ParchmentTreeV1.Field.class);
+
+						if (visitContent == null) {
+							pendingFields.add(field);
+						} else {
+							field.visit(visitor);
+						}
+					} else {
+						final ParchmentTreeV1.Method method = readMethod();
+
+						if (visitContent == null) {
+							pendingMethods.add(method);
+						} else {
+							method.visit(visitor);
+						}
+					}
+				}
+
+				reader.endArray();
+			}
+			default -> reader.skipValue();
+			}
+		}
+
+		reader.endObject();
+
+		if (name == null) {
+			throw new IOException("Parchment class is missing a name at " + reader.getPath());
+		}
+
+		if (visitContent == null) {
+			visitContent = visitClass(name);
+		}
+
+		if (!visitContent) {
+			return;
+		}
+
+		for (ParchmentTreeV1.Field field : pendingFields) {
+			field.visit(visitor);
+		}
+
+		for (ParchmentTreeV1.Method method : pendingMethods) {
+			method.visit(visitor);
+		}
+
+		if (javadoc != null) {
+			visitor.visitComment(MappedElementKind.CLASS, String.join("\n", javadoc));
+		}
+	}
+
+	private boolean visitClass(String name) throws IOException {
+		return visitor.visitClass(name) && visitor.visitElementContent(MappedElementKind.CLASS);
+	}
+
+	private ParchmentTreeV1.Method readMethod() {
+		final ParchmentTreeV1.Method method = LoomGradlePlugin.GSON.fromJson(reader, ParchmentTreeV1.Method.class);
+
+		if (!removePrefix || method.parameters() == null) {
+			return method;
+		}
+
+		final List<ParchmentTreeV1.Parameter> parameters = new ArrayList<>(method.parameters().size());
+
+		for (ParchmentTreeV1.Parameter parameter : method.parameters()) {
+			parameters.add(new ParchmentTreeV1.Parameter(parameter.index(), stripMethodArg(parameter.name()), parameter.javadoc()));
+		}
+
+		return new ParchmentTreeV1.Method(method.name(), method.descriptor(), parameters, method.javadoc());
+	}
+
+	private static String stripMethodArg(String arg) {
+		if (arg.length() > 1 && arg.startsWith("p") && Character.isUpperCase(arg.charAt(1))) {
+			String a2 = arg.substring(1); // Remove p
+			return a2.substring(0, 1).toLowerCase(Locale.ROOT) + a2.substring(1); // Make first char lowercase
+		}
+
+		return arg;
+	}
+
+	private List<String> readStringList() throws IOException {
+		final List<String> list = new ArrayList<>();
+		reader.beginArray();
+
+		while (reader.hasNext()) {
+			list.add(reader.nextString());
+		}
+
+		reader.endArray();
+		return list;
+	}
+}
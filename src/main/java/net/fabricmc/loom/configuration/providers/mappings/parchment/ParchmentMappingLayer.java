@@ -24,12 +24,18 @@
 
 package net.fabricmc.loom.configuration.providers.mappings.parchment;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 import net.fabricmc.loom.api.mappings.layered.MappingLayer;
 import net.fabricmc.loom.api.mappings.layered.MappingsNamespace;
-import net.fabricmc.loom.util.ZipUtils;
 import net.fabricmc.mappingio.MappingVisitor;
 
 public record ParchmentMappingLayer(Path parchmentFile, boolean removePrefix) implements MappingLayer {
@@ -37,16 +43,20 @@ public record ParchmentMappingLayer(Path parchmentFile, boolean removePrefix) im
 
 	@Override
 	public void visit(MappingVisitor mappingVisitor) throws IOException {
-		ParchmentTreeV1 parchmentData = getParchmentData();
+		try (var zipFile = new ZipFile(parchmentFile.toFile())) {
+			final ZipEntry entry = zipFile.getEntry(PARCHMENT_DATA_FILE_NAME);
 
-		if (removePrefix()) {
-			mappingVisitor = new ParchmentPrefixStripingMappingVisitor(mappingVisitor);
-		}
+			if (entry == null) {
+				throw new NoSuchFileException(PARCHMENT_DATA_FILE_NAME);
+			}
 
-		parchmentData.visit(mappingVisitor, MappingsNamespace.NAMED.toString());
-	}
+			boolean finished;
 
-	private ParchmentTreeV1 getParchmentData() throws IOException {
-		return ZipUtils.unpackJson(parchmentFile, PARCHMENT_DATA_FILE_NAME, ParchmentTreeV1.class);
+			do {
+				try (Reader reader = new BufferedReader(new InputStreamReader(zipFile.getInputStream(entry), StandardCharsets.UTF_8))) {
+					finished = ParchmentJsonReader.read(reader, mappingVisitor, MappingsNamespace.NAMED.toString(), removePrefix());
+				}
+			} while (!finished);
+		}
 	}
 }
@@ -41,13 +41,18 @@ import net.fabricmc.loom.LoomGradleExtension;
 import net.fabricmc.loom.api.mappings.layered.MappingsNamespace;
 import net.fabricmc.loom.configuration.ConfigContext;
 import net.fabricmc.loom.configuration.providers.BundleMetadata;
+import net.fabricmc.loom.task.DownloadAssetsTask;
 import net.fabricmc.loom.util.Constants;
+import net.fabricmc.loom.util.download.DownloadException;
 import net.fabricmc.loom.util.download.DownloadExecutor;
 import net.fabricmc.loom.util.download.GradleDownloadProgressListener;
 import net.fabricmc.loom.util.gradle.ProgressGroup;
 
 public abstract class MinecraftProvider {
 	private static final Logger LOGGER = LoggerFactory.getLogger(MinecraftProvider.class);
+	// The Minecraft jars are large enough to benefit from being fetched over multiple connections
+	private static final int JAR_DOWNLOAD_SEGMENTS = 4;
+	private static final long SEGMENTED_DOWNLOAD_MIN_SIZE = 8 * 1024 * 1024;
 
 	private final MinecraftMetadataProvider metadataProvider;
 
@@ -93,7 +98,7 @@ public abstract class MinecraftProvider {
 			}
 		}
 
-		downloadJars();
+		downloadFiles();
 
 		if (provideServer()) {
 			serverBundleMetadata = BundleMetadata.fromJar(minecraftServerJar.toPath());
@@ -114,6 +119,25 @@ public abstract class MinecraftProvider {
 		}
 	}
 
+	// Downloads everything that is known from the version metadata at the same time, rather than as each is needed.
+	// Mappings are not prefetched, they come from the mappings configuration rather than the version metadata and
+	// are only downloaded when the processed mappings are not already cached.
+	private void downloadFiles() throws IOException {
+		final DownloadExecutor assetIndexExecutor = new DownloadExecutor(1);
+
+		try {
+			prefetchAssetIndex(assetIndexExecutor);
+			downloadJars();
+		} finally {
+			try {
+				assetIndexExecutor.close();
+			} catch (DownloadException e) {
+				// The asset index is only needed by the downloadAssets task, a failure here is left for that task to report.
+				LOGGER.debug("Failed to prefetch asset index", e);
+			}
+		}
+	}
+
 	private void downloadJars() throws IOException {
 		try (ProgressGroup progressGroup = new ProgressGroup(getProject(), "Download Minecraft jars");
 				DownloadExecutor executor = new DownloadExecutor(2)) {
@@ -121,6 +145,7 @@ public abstract class MinecraftProvider {
 				final MinecraftVersionMeta.Download client = getVersionInfo().download("client");
 				getExtension().download(client.url())
 						.sha1(client.sha1())
+						.segmented(JAR_DOWNLOAD_SEGMENTS, SEGMENTED_DOWNLOAD_MIN_SIZE)
 						.progress(new GradleDownloadProgressListener("Minecraft client", progressGroup::createProgressLogger))
 						.downloadPathAsync(minecraftClientJar.toPath(), executor);
 			}
@@ -129,12 +154,27 @@ public abstract class MinecraftProvider {
 				final MinecraftVersionMeta.Download server = getVersionInfo().download("server");
 				getExtension().download(server.url())
 						.sha1(server.sha1())
+						.segmented(JAR_DOWNLOAD_SEGMENTS, SEGMENTED_DOWNLOAD_MIN_SIZE)
 						.progress(new GradleDownloadProgressListener("Minecraft server", progressGroup::createProgressLogger))
 						.downloadPathAsync(minecraftServerJar.toPath(), executor);
 			}
 		}
 	}
 
+	private void prefetchAssetIndex(DownloadExecutor executor) {
+		final MinecraftVersionMeta.AssetIndex assetIndex = getVersionInfo().assetIndex();
+
+		if (!provideClient() || assetIndex == null) {
+			return;
+		}
+
+		// The location read by the downloadAssets task from the default assets directory, which will then find it up to date.
+		final File assetsDirectory = DownloadAssetsTask.getDefaultAssetsDirectory(getExtension());
+		getExtension().download(assetIndex.url())
+				.sha1(assetIndex.sha1())
+				.downloadPathAsync(DownloadAssetsTask.getAssetIndexPath(assetsDirectory, assetIndex, minecraftVersion()), executor);
+	}
+
 	public final void extractBundledServerJar() throws IOException {
 		Preconditions.checkArgument(provideServer(), "Not configured to provide server jar");
 		Objects.requireNonNull(getServerBundleMetadata(), "Cannot bundled mc jar from none bundled server jar");
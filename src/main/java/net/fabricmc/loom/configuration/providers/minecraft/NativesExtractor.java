@@ -0,0 +1,101 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2024 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.configuration.providers.minecraft;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.gradle.api.artifacts.dsl.DependencyHandler;
+import org.gradle.api.artifacts.transform.CacheableTransform;
+import org.gradle.api.artifacts.transform.InputArtifact;
+import org.gradle.api.artifacts.transform.TransformAction;
+import org.gradle.api.artifacts.transform.TransformOutputs;
+import org.gradle.api.artifacts.transform.TransformParameters;
+import org.gradle.api.artifacts.type.ArtifactTypeDefinition;
+import org.gradle.api.file.FileSystemLocation;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+
+/**
+ * Extracts a natives jar into a directory. As an artifact transform the result is cached by Gradle, keyed by the content of the jar.
+ * Identical natives used by different Minecraft versions or projects are only extracted once, and only changed jars are extracted again.
+ */
+@CacheableTransform
+public abstract class NativesExtractor implements TransformAction<TransformParameters.None> {
+	public static final String EXTRACTED_NATIVES_TYPE = "loom-extracted-natives";
+
+	@InputArtifact
+	@PathSensitive(PathSensitivity.NONE)
+	public abstract Provider<FileSystemLocation> getInputArtifact();
+
+	public static void register(DependencyHandler dependencies) {
+		dependencies.registerTransform(NativesExtractor.class, spec -> {
+			spec.getFrom().attribute(ArtifactTypeDefinition.ARTIFACT_TYPE_ATTRIBUTE, ArtifactTypeDefinition.JAR_TYPE);
+			spec.getTo().attribute(ArtifactTypeDefinition.ARTIFACT_TYPE_ATTRIBUTE, EXTRACTED_NATIVES_TYPE);
+		});
+	}
+
+	@Override
+	public void transform(TransformOutputs outputs) {
+		final Path jar = getInputArtifact().get().getAsFile().toPath();
+
+		try {
+			extractJar(jar, outputs.dir("natives").toPath());
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to extract natives from " + jar, e);
+		}
+	}
+
+	public static void extractJar(Path jar, Path outputDir) throws IOException {
+		Files.createDirectories(outputDir);
+
+		try (ZipInputStream zipInputStream = new ZipInputStream(Files.newInputStream(jar))) {
+			ZipEntry entry;
+
+			while ((entry = zipInputStream.getNextEntry()) != null) {
+				if (entry.isDirectory() || entry.getName().startsWith("META-INF/")) {
+					continue;
+				}
+
+				// Fix pre LWJGL 3 versions on Macos. See: https://github.com/FabricMC/fabric-loom/issues/955
+				final String name = entry.getName().replace(".jnilib", ".dylib");
+				final Path output = outputDir.resolve(name).normalize();
+
+				if (!output.startsWith(outputDir)) {
+					throw new IOException("Invalid natives entry %s in %s".formatted(entry.getName(), jar));
+				}
+
+				Files.createDirectories(output.getParent());
+				Files.copy(zipInputStream, output, StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+	}
+}
@@ -0,0 +1,119 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2024 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.configuration.providers.minecraft.assets;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.gson.JsonParseException;
+import org.jetbrains.annotations.Nullable;
+
+import net.fabricmc.loom.LoomGradlePlugin;
+
+/**
+ * Records the size, last modified time and sha1 of every asset object that has been downloaded and verified.
+ *
+ * <p>An object whose size and last modified time still match the manifest does not need to be hashed or have
+ * its attributes read again, so checking a complete set of assets only needs a single stat per file.
+ */
+public record AssetsVerificationManifest(Map<String, Entry> objects) {
+	public record Entry(String sha1, long size, long lastModified) {
+	}
+
+	public static AssetsVerificationManifest read(Path path) throws IOException {
+		final Map<String, Entry> objects = new ConcurrentHashMap<>();
+
+		try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+			final AssetsVerificationManifest manifest = LoomGradlePlugin.GSON.fromJson(reader, AssetsVerificationManifest.class);
+
+			if (manifest != null && manifest.objects() != null) {
+				objects.putAll(manifest.objects());
+			}
+		} catch (NoSuchFileException | JsonParseException e) {
+			// A missing or corrupt manifest means that everything is verified again by the downloader.
+		}
+
+		return new AssetsVerificationManifest(objects);
+	}
+
+	public void write(Path path) throws IOException {
+		Files.createDirectories(path.getParent());
+		final Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+
+		try (Writer writer = Files.newBufferedWriter(tempPath, StandardCharsets.UTF_8)) {
+			LoomGradlePlugin.GSON.toJson(new AssetsVerificationManifest(new TreeMap<>(objects)), writer);
+		}
+
+		Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * @return true when the file exists and has not changed since it was verified to have the given sha1.
+	 */
+	public boolean isVerified(Path file, String sha1) throws IOException {
+		final Entry entry = objects.get(file.toAbsolutePath().toString());
+
+		if (entry == null || !entry.sha1().equals(sha1)) {
+			return false;
+		}
+
+		final Entry current = stat(file, sha1);
+		return entry.equals(current);
+	}
+
+	/**
+	 * Records a file that has just been verified to have the given sha1.
+	 */
+	public void put(Path file, String sha1) throws IOException {
+		final Entry entry = stat(file, sha1);
+
+		if (entry != null) {
+			objects.put(file.toAbsolutePath().toString(), entry);
+		}
+	}
+
+	@Nullable
+	private static Entry stat(Path file, String sha1) throws IOException {
+		final BasicFileAttributes attributes;
+
+		try {
+			attributes = Files.readAttributes(file, BasicFileAttributes.class);
+		} catch (NoSuchFileException e) {
+			return null;
+		}
+
+		return new Entry(sha1, attributes.size(), attributes.lastModifiedTime().toMillis());
+	}
+}
@@ -28,6 +28,7 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
@@ -54,8 +55,11 @@ import net.fabricmc.loom.configuration.providers.minecraft.MinecraftSourceSets;
 import net.fabricmc.loom.configuration.providers.minecraft.MinecraftVersionMeta;
 import net.fabricmc.loom.configuration.providers.minecraft.SignatureFixerApplyVisitor;
 import net.fabricmc.loom.extension.LoomFiles;
+import net.fabricmc.loom.util.Pair;
 import net.fabricmc.loom.util.SidedClassVisitor;
+import net.fabricmc.loom.util.ThreadingUtils;
 import net.fabricmc.loom.util.TinyRemapperHelper;
+import net.fabricmc.loom.util.ZipUtils;
 import net.fabricmc.loom.util.service.ScopedSharedServiceManager;
 import net.fabricmc.loom.util.srg.InnerClassRemapper;
 import net.fabricmc.loom.util.srg.RemapObjectHolderVisitor;
@@ -193,44 +197,72 @@ public abstract class AbstractMappedMinecraftProvider<M extends MinecraftProvide
 	private void remapInputs(List<RemappedJars> remappedJars, ConfigContext configContext) throws IOException {
 		cleanOutputs(remappedJars);
 
+		final Map<String, String> remappedSignatures = SignatureFixerApplyVisitor.getRemappedSignatures(getTargetNamespace() == MappingsNamespace.INTERMEDIARY, extension.getMappingConfiguration(), getProject(), configContext.serviceManager(), getTargetNamespace().toString());
+		// Split the available threads between the jars, as they are remapped concurrently.
+		final int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / remappedJars.size());
+		final List<Pair<RemappedJars, TinyRemapper>> remappers = new ArrayList<>();
+
+		try {
+			// The remappers are created up front as this requires access to the project, the remapping itself does not.
+			for (RemappedJars remappedJar : remappedJars) {
+				remappers.add(new Pair<>(remappedJar, createRemapper(remappedJar, configContext, remappedSignatures, threads)));
+			}
+		} catch (Throwable t) {
+			remappers.forEach(pair -> pair.right().finish());
+			throw t;
+		}
+
+		ThreadingUtils.run(remappers, pair -> remapJar(pair.left(), pair.right()));
+
 		for (RemappedJars remappedJar : remappedJars) {
-			remapJar(remappedJar, configContext);
+			postRemapJar(remappedJar);
 		}
 	}
 
-	private void remapJar(RemappedJars remappedJars, ConfigContext configContext) throws IOException {
-		final MappingConfiguration mappingConfiguration = extension.getMappingConfiguration();
+	private TinyRemapper createRemapper(RemappedJars remappedJars, ConfigContext configContext, Map<String, String> remappedSignatures, int threads) throws IOException {
 		final String fromM = remappedJars.sourceNamespace().toString();
 		final String toM = getTargetNamespace().toString();
 
-		Files.deleteIfExists(remappedJars.outputJarPath());
-
 		final Set<String> classNames = extension.isForgeLike() ? InnerClassRemapper.readClassNames(remappedJars.inputJar()) : Set.of();
-		final Map<String, String> remappedSignatures = SignatureFixerApplyVisitor.getRemappedSignatures(getTargetNamespace() == MappingsNamespace.INTERMEDIARY, mappingConfiguration, getProject(), configContext.serviceManager(), toM);
 		final MinecraftVersionMeta.JavaVersion javaVersion = minecraftProvider.getVersionInfo().javaVersion();
 		final boolean fixRecords = javaVersion != null && javaVersion.majorVersion() >= 16;
 
-		TinyRemapper remapper = TinyRemapperHelper.getTinyRemapper(getProject(), configContext.serviceManager(), fromM, toM, fixRecords, (builder) -> {
+		return TinyRemapperHelper.getTinyRemapper(getProject(), configContext.serviceManager(), fromM, toM, fixRecords, (builder) -> {
+			builder.threads(threads);
 			builder.extraPostApplyVisitor(new SignatureFixerApplyVisitor(remappedSignatures));
 			if (extension.isNeoForge()) builder.extension(new MixinExtension(inputTag -> true));
 			configureRemapper(remappedJars, builder);
 		}, classNames);
+	}
+
+	private void remapJar(RemappedJars remappedJars, TinyRemapper remapper) throws IOException {
+		final MappingConfiguration mappingConfiguration = extension.getMappingConfiguration();
 
-		try (OutputConsumerPath outputConsumer = new OutputConsumerPath.Builder(remappedJars.outputJarPath()).build()) {
-			outputConsumer.addNonClassFiles(remappedJars.inputJar());
+		final Path classesJar = remappedJars.outputJarPath().resolveSibling(remappedJars.outputJarPath().getFileName() + ".classes");
+		Files.deleteIfExists(remappedJars.outputJarPath());
+		Files.deleteIfExists(classesJar);
 
-			for (Path path : remappedJars.remapClasspath()) {
-				remapper.readClassPath(path);
+		try {
+			try (OutputConsumerPath outputConsumer = new OutputConsumerPath.Builder(classesJar).build()) {
+				for (Path path : remappedJars.remapClasspath()) {
+					remapper.readClassPath(path);
+				}
+
+				remapper.readInputs(remappedJars.inputJar());
+				remapper.apply(outputConsumer);
 			}
 
-			remapper.readInputs(remappedJars.inputJar());
-			remapper.apply(outputConsumer);
+			// The non-class files make up most of the jar, copy them over as is rather than recompressing them.
+			ZipUtils.copyWithNonClassFiles(classesJar, remappedJars.inputJar(), remappedJars.outputJarPath(), name -> false);
 		} catch (Exception e) {
 			throw new RuntimeException("Failed to remap JAR " + remappedJars.inputJar() + " with mappings from " + mappingConfiguration.tinyMappings, e);
 		} finally {
 			remapper.finish();
+			Files.deleteIfExists(classesJar);
 		}
+	}
 
+	private void postRemapJar(RemappedJars remappedJars) throws IOException {
 		getMavenHelper(remappedJars.type()).savePom();
 
 		if (extension.isForgeLikeAndOfficial()) {
@@ -26,20 +26,27 @@ package net.fabricmc.loom.configuration.sources;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintStream;
 import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 import dev.architectury.loom.util.MappingOption;
 import org.apache.commons.io.output.NullOutputStream;
@@ -47,27 +54,34 @@ import org.cadixdev.lorenz.MappingSet;
 import org.cadixdev.mercury.Mercury;
 import org.cadixdev.mercury.remapper.MercuryRemapper;
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
 import org.gradle.api.Project;
 
 import net.fabricmc.loom.LoomGradleExtension;
 import net.fabricmc.loom.api.mappings.layered.MappingsNamespace;
 import net.fabricmc.loom.build.IntermediaryNamespaces;
+import net.fabricmc.loom.configuration.providers.mappings.MappingConfiguration;
 import net.fabricmc.loom.configuration.providers.mappings.TinyMappingsService;
 import net.fabricmc.loom.task.GenerateSourcesTask;
+import net.fabricmc.loom.util.CacheFiles;
+import net.fabricmc.loom.util.Checksum;
 import net.fabricmc.loom.util.DeletingFileVisitor;
 import net.fabricmc.loom.util.DependencyDownloader;
 import net.fabricmc.loom.util.FileSystemUtil;
 import net.fabricmc.loom.util.ForgeToolExecutor;
 import net.fabricmc.loom.util.LoomVersions;
+import net.fabricmc.loom.util.MercuryPool;
 import net.fabricmc.loom.util.SourceRemapper;
 import net.fabricmc.loom.util.ThreadingUtils;
 import net.fabricmc.loom.util.TinyRemapperHelper;
-import net.fabricmc.loom.util.ZipUtils;
 import net.fabricmc.loom.util.service.ScopedSharedServiceManager;
 import net.fabricmc.loom.util.service.SharedServiceManager;
 import net.fabricmc.lorenztiny.TinyMappingsReader;
 
 public class ForgeSourcesRemapper {
+	private static final int SHARD_SIZE = 500;
+	private static final String CACHE_VERSION = "1";
+
 	public static void addBaseForgeSources(Project project) throws IOException {
 		List<Path> minecraftJars = LoomGradleExtension.get(project).getMinecraftJars(MappingsNamespace.NAMED);
 		Path minecraftJar;
@@ -137,39 +151,51 @@ public class ForgeSourcesRemapper {
 		}
 
 		project.getLogger().lifecycle(":found {} forge source jars", forgeInstallerSources.size());
-		Map<String, byte[]> forgeSources = extractSources(forgeInstallerSources);
-		forgeSources.keySet().removeIf(classFilter.negate());
-		project.getLogger().lifecycle(":extracted {} forge source classes", forgeSources.size());
-		remapSources(project, serviceManager, forgeSources);
-		forgeSources.forEach(consumer);
-	}
-
-	private static void remapSources(Project project, SharedServiceManager serviceManager, Map<String, byte[]> sources) throws IOException {
-		File tmpInput = File.createTempFile("tmpInputForgeSources", null);
-		tmpInput.delete();
-		tmpInput.deleteOnExit();
-		File tmpOutput = File.createTempFile("tmpOutputForgeSources", null);
-		tmpOutput.delete();
-		tmpOutput.deleteOnExit();
-
-		try (FileSystemUtil.Delegate delegate = FileSystemUtil.getJarFileSystem(tmpInput, true)) {
-			ThreadingUtils.TaskCompleter taskCompleter = ThreadingUtils.taskCompleter();
 
-			for (Map.Entry<String, byte[]> entry : sources.entrySet()) {
-				Path path = delegate.get().getPath(entry.getKey());
+		final List<ZipFile> zipFiles = new ArrayList<>();
 
-				if (path.getParent() != null) {
-					Files.createDirectories(path.getParent());
-				}
+		try {
+			for (Path path : forgeInstallerSources) {
+				zipFiles.add(new ZipFile(path.toFile()));
+			}
 
-				taskCompleter.add(() -> {
-					Files.write(path, entry.getValue(), StandardOpenOption.CREATE);
-				});
+			final Map<String, SourceFile> forgeSources = indexSources(zipFiles);
+			forgeSources.keySet().removeIf(classFilter.negate());
+			project.getLogger().lifecycle(":extracted {} forge source classes", forgeSources.size());
+			remapSources(project, serviceManager, forgeSources, consumer);
+		} finally {
+			for (ZipFile zipFile : zipFiles) {
+				zipFile.close();
 			}
+		}
+	}
 
-			taskCompleter.complete();
+	private static void remapSources(Project project, SharedServiceManager serviceManager, Map<String, SourceFile> sources, BiConsumer<String, byte[]> consumer) throws IOException {
+		final List<List<String>> shards = createShards(sources.keySet(), SHARD_SIZE);
+
+		if (shards.isEmpty()) {
+			return;
 		}
 
+		final LoomGradleExtension extension = LoomGradleExtension.get(project);
+		final MappingOption mappingOption = MappingOption.forPlatform(extension);
+		final String sourceNamespace = IntermediaryNamespaces.intermediary(project);
+		final TinyMappingsService mappingsService = extension.getMappingConfiguration().getMappingsService(serviceManager, mappingOption);
+		final Path cacheDir = extension.getFiles().getUserCache().toPath().resolve("remapped_forge_sources");
+		// The forge version is included as the other sources are resolved from the classpath while remapping.
+		final MappingConfiguration mappingConfiguration = extension.getMappingConfiguration();
+		final String cacheContext = createCacheContext(sourceNamespace, mappingOption, extension.getForgeUserdevProvider().getConfig().sources(), mappingConfiguration.mappingsIdentifier(), mappingConfiguration.tinyMappings);
+
+		final List<Path> classPath = getClassPath(project);
+		final AtomicInteger failedToRemap = new AtomicInteger();
+		final AtomicInteger cached = new AtomicInteger();
+		final Object consumerLock = new Object();
+		final BiConsumer<String, byte[]> output = (path, bytes) -> {
+			synchronized (consumerLock) {
+				consumer.accept(path, bytes);
+			}
+		};
+
 		PrintStream out = System.out;
 		PrintStream err = System.err;
 
@@ -178,56 +204,132 @@ public class ForgeSourcesRemapper {
 			System.setErr(new PrintStream(NullOutputStream.NULL_OUTPUT_STREAM));
 		}
 
-		remapForgeSourcesInner(project, serviceManager, tmpInput.toPath(), tmpOutput.toPath());
+		try {
+			MercuryPool.run(shards, () -> createMercury(classPath, mappingsService, sourceNamespace),
+					(mercury, shard) -> remapShard(project, mercury, shard, sources, cacheDir, cacheContext, output, failedToRemap, cached));
+		} finally {
+			if (!ForgeToolExecutor.shouldShowVerboseStderr(project)) {
+				System.setOut(out);
+				System.setErr(err);
+			}
+		}
 
-		if (!ForgeToolExecutor.shouldShowVerboseStderr(project)) {
-			System.setOut(out);
-			System.setErr(err);
+		project.getLogger().info(":remapped forge sources in {} shards, {} files were cached", shards.size(), cached.get());
+
+		if (failedToRemap.get() > 0) {
+			project.getLogger().error("Failed to remap {} forge sources", failedToRemap.get());
 		}
+	}
 
-		tmpInput.delete();
-		int[] failedToRemap = {0};
+	/**
+	 * Remaps a shard of the sources, only the files of a single shard are held in memory or written to disk at once.
+	 * The source files of the other shards are not needed as Mercury resolves them from the forge jars on the classpath.
+	 */
+	private static void remapShard(Project project, Mercury mercury, List<String> shard, Map<String, SourceFile> sources, Path cacheDir, String cacheContext, BiConsumer<String, byte[]> consumer, AtomicInteger failedToRemap, AtomicInteger cached) throws IOException {
+		final Path inputDir = Files.createTempDirectory("loom-forge-sources-input");
+		final Path outputDir = Files.createTempDirectory("loom-forge-sources-output");
+		final Map<String, Path> cachePaths = new HashMap<>();
+
+		try {
+			for (String name : shard) {
+				final byte[] bytes = sources.get(name).read();
+				final Path cachePath = getCachePath(cacheDir, cacheContext, bytes);
+
+				if (Files.isRegularFile(cachePath)) {
+					consumer.accept(name, Files.readAllBytes(cachePath));
+					cached.incrementAndGet();
+					continue;
+				}
 
-		try (FileSystemUtil.Delegate delegate = FileSystemUtil.getJarFileSystem(tmpOutput, false)) {
-			ThreadingUtils.TaskCompleter taskCompleter = ThreadingUtils.taskCompleter();
+				final Path inputPath = resolve(inputDir, name);
+				Files.createDirectories(inputPath.getParent());
+				Files.write(inputPath, bytes);
+				cachePaths.put(name, cachePath);
+			}
 
-			for (Map.Entry<String, byte[]> entry : new HashSet<>(sources.entrySet())) {
-				taskCompleter.add(() -> {
-					Path path = delegate.get().getPath(entry.getKey());
-
-					if (Files.exists(path)) {
-						sources.put(entry.getKey(), Files.readAllBytes(path));
-					} else {
-						sources.remove(entry.getKey());
-						project.getLogger().error("Failed to remap sources for " + entry.getKey());
-						failedToRemap[0]++;
-					}
-				});
+			if (cachePaths.isEmpty()) {
+				return;
 			}
 
-			taskCompleter.complete();
-		}
+			try {
+				mercury.rewrite(inputDir, outputDir);
+			} catch (Exception e) {
+				project.getLogger().warn("Could not remap forge sources fully!", e);
+			}
 
-		tmpOutput.delete();
+			for (Map.Entry<String, Path> entry : cachePaths.entrySet()) {
+				final Path outputPath = resolve(outputDir, entry.getKey());
 
-		if (failedToRemap[0] > 0) {
-			project.getLogger().error("Failed to remap {} forge sources", failedToRemap[0]);
+				if (Files.notExists(outputPath)) {
+					project.getLogger().error("Failed to remap sources for " + entry.getKey());
+					failedToRemap.incrementAndGet();
+					continue;
+				}
+
+				final byte[] bytes = Files.readAllBytes(outputPath);
+				CacheFiles.store(bytes, entry.getValue());
+				consumer.accept(entry.getKey(), bytes);
+			}
+		} finally {
+			Files.walkFileTree(inputDir, new DeletingFileVisitor());
+			Files.walkFileTree(outputDir, new DeletingFileVisitor());
 		}
 	}
 
-	private static void remapForgeSourcesInner(Project project, SharedServiceManager serviceManager, Path tmpInput, Path tmpOutput) throws IOException {
-		LoomGradleExtension extension = LoomGradleExtension.get(project);
-		Mercury mercury = SourceRemapper.createMercuryWithClassPath(project, false);
+	/**
+	 * Creates the part of the cache key shared by all source files, any change to the mappings invalidates the cached sources.
+	 */
+	@VisibleForTesting
+	public static String createCacheContext(String sourceNamespace, MappingOption mappingOption, String forgeSources, String mappingsIdentifier, Path tinyMappings) throws IOException {
+		return String.join(":", CACHE_VERSION, sourceNamespace, mappingOption.name(), forgeSources, mappingsIdentifier, Checksum.sha1Hex(tinyMappings));
+	}
 
-		final MappingOption mappingOption = MappingOption.forPlatform(extension);
-		final String sourceNamespace = IntermediaryNamespaces.intermediary(project);
-		TinyMappingsService mappingsService = extension.getMappingConfiguration().getMappingsService(serviceManager, mappingOption);
-		MappingSet mappings = new TinyMappingsReader(mappingsService.getMappingTree(), sourceNamespace, "named").read();
+	@VisibleForTesting
+	public static Path getCachePath(Path cacheDir, String cacheContext, byte[] source) {
+		final String hash = Checksum.sha1Hex((cacheContext + ":" + Checksum.sha1Hex(source)).getBytes(StandardCharsets.UTF_8));
+		return cacheDir.resolve(hash.substring(0, 2)).resolve(hash + ".java");
+	}
 
-		for (Map.Entry<String, String> entry : TinyRemapperHelper.JSR_TO_JETBRAINS.entrySet()) {
-			mappings.getOrCreateClassMapping(entry.getKey()).setDeobfuscatedName(entry.getValue());
+	private static Path resolve(Path dir, String name) {
+		return dir.resolve(name.startsWith("/") ? name.substring(1) : name);
+	}
+
+	/**
+	 * Groups the sources by package into shards of roughly {@code shardSize} files, a package is never split.
+	 * Shards only exceed the size when they contain a single package larger than it.
+	 */
+	@VisibleForTesting
+	public static List<List<String>> createShards(Collection<String> names, int shardSize) {
+		final Map<String, List<String>> packages = new TreeMap<>();
+
+		for (String name : names) {
+			final int i = name.lastIndexOf('/');
+			packages.computeIfAbsent(i < 0 ? "" : name.substring(0, i), s -> new ArrayList<>()).add(name);
 		}
 
+		final List<List<String>> shards = new ArrayList<>();
+		List<String> shard = new ArrayList<>();
+
+		for (List<String> files : packages.values()) {
+			if (!shard.isEmpty() && shard.size() + files.size() > shardSize) {
+				shards.add(shard);
+				shard = new ArrayList<>();
+			}
+
+			shard.addAll(files);
+		}
+
+		if (!shard.isEmpty()) {
+			shards.add(shard);
+		}
+
+		return shards;
+	}
+
+	private static List<Path> getClassPath(Project project) {
+		LoomGradleExtension extension = LoomGradleExtension.get(project);
+		Mercury mercury = SourceRemapper.createMercuryWithClassPath(project, false);
+
 		Set<File> files = project.getConfigurations()
 				.detachedConfiguration(project.getDependencies().create(LoomVersions.JETBRAINS_ANNOTATIONS.mavenNotation()))
 				.resolve();
@@ -240,52 +342,50 @@ public class ForgeSourcesRemapper {
 		MappingsNamespace sourceNs = extension.isNeoForge() ? MappingsNamespace.MOJANG : MappingsNamespace.SRG;
 		mercury.getClassPath().addAll(0, extension.getMinecraftJars(sourceNs));
 
-		List<Path> newClassPath = mercury.getClassPath().stream()
+		return mercury.getClassPath().stream()
 				.distinct()
 				.filter(Files::isRegularFile)
 				.collect(Collectors.toList());
-		mercury.getClassPath().clear();
-		mercury.getClassPath().addAll(newClassPath);
+	}
 
-		mercury.getProcessors().add(MercuryRemapper.create(mappings));
-		boolean isSrcTmp = false;
-
-		if (!Files.isDirectory(tmpInput)) {
-			Path tmpInput1 = tmpInput;
-			// create tmp directory
-			isSrcTmp = true;
-			tmpInput = Files.createTempDirectory("fabric-loom-src");
-			ZipUtils.unpackAll(tmpInput1, tmpInput);
-		}
+	private static Mercury createMercury(List<Path> classPath, TinyMappingsService mappingsService, String sourceNamespace) throws IOException {
+		MappingSet mappings = new TinyMappingsReader(mappingsService.getMappingTree(), sourceNamespace, "named").read();
 
-		try (FileSystemUtil.Delegate outputFs = FileSystemUtil.getJarFileSystem(tmpOutput, true)) {
-			Path outputFsRoot = outputFs.get().getPath("/");
-			mercury.rewrite(tmpInput, outputFsRoot);
-		} catch (Exception e) {
-			project.getLogger().warn("Could not remap " + tmpInput + " fully!", e);
+		for (Map.Entry<String, String> entry : TinyRemapperHelper.JSR_TO_JETBRAINS.entrySet()) {
+			mappings.getOrCreateClassMapping(entry.getKey()).setDeobfuscatedName(entry.getValue());
 		}
 
-		if (isSrcTmp) {
-			Files.walkFileTree(tmpInput, new DeletingFileVisitor());
-		}
+		Mercury mercury = new Mercury();
+		mercury.setGracefulClasspathChecks(true);
+		mercury.getClassPath().addAll(classPath);
+		mercury.getProcessors().add(MercuryRemapper.create(mappings));
+		return mercury;
 	}
 
-	private static Map<String, byte[]> extractSources(List<Path> forgeInstallerSources) throws IOException {
-		Map<String, byte[]> sources = new ConcurrentHashMap<>();
-		ThreadingUtils.TaskCompleter taskCompleter = ThreadingUtils.taskCompleter();
+	private static Map<String, SourceFile> indexSources(List<ZipFile> forgeInstallerSources) {
+		Map<String, SourceFile> sources = new HashMap<>();
+
+		for (ZipFile zipFile : forgeInstallerSources) {
+			final Enumeration<? extends ZipEntry> entries = zipFile.entries();
 
-		for (Path path : forgeInstallerSources) {
-			FileSystemUtil.Delegate system = FileSystemUtil.getJarFileSystem(path, false);
-			taskCompleter.onComplete(stopwatch -> system.close());
+			while (entries.hasMoreElements()) {
+				final ZipEntry entry = entries.nextElement();
 
-			for (Path filePath : (Iterable<? extends Path>) Files.walk(system.get().getPath("/"))::iterator) {
-				if (Files.isRegularFile(filePath) && filePath.getFileName().toString().endsWith(".java")) {
-					taskCompleter.add(() -> sources.put(filePath.toString(), Files.readAllBytes(filePath)));
+				if (!entry.isDirectory() && entry.getName().endsWith(".java")) {
+					sources.put("/" + entry.getName(), new SourceFile(zipFile, entry));
 				}
 			}
 		}
 
-		taskCompleter.complete();
 		return sources;
 	}
+
+	// Read on demand, so that only the sources of the shards being remapped are held in memory.
+	private record SourceFile(ZipFile zipFile, ZipEntry entry) {
+		byte[] read() throws IOException {
+			try (InputStream inputStream = zipFile.getInputStream(entry)) {
+				return inputStream.readAllBytes();
+			}
+		}
+	}
 }
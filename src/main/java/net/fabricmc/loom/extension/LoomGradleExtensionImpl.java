@@ -67,6 +67,7 @@ import net.fabricmc.loom.util.Constants;
 import net.fabricmc.loom.util.ModPlatform;
 import net.fabricmc.loom.util.download.Download;
 import net.fabricmc.loom.util.download.DownloadBuilder;
+import net.fabricmc.loom.util.download.DownloadCache;
 import net.fabricmc.loom.util.gradle.GradleUtils;
 
 public abstract class LoomGradleExtensionImpl extends LoomGradleExtensionApiImpl implements LoomGradleExtension {
@@ -298,6 +299,16 @@ public abstract class LoomGradleExtensionImpl extends LoomGradleExtensionApiImpl
 			builder.forceDownload();
 		}
 
+		final String downloadCache = project.getProviders().gradleProperty(Constants.Properties.DOWNLOAD_CACHE).getOrNull();
+
+		if (downloadCache != null) {
+			builder.cache(DownloadCache.create(downloadCache));
+		}
+
+		if (GradleUtils.getBooleanProperty(project, Constants.Properties.STALE_WHILE_REVALIDATE)) {
+			builder.staleWhileRevalidate();
+		}
+
 		return builder;
 	}
 
@@ -36,18 +36,26 @@ import java.util.List;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import org.gradle.api.JavaVersion;
 import org.gradle.api.Project;
 import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.provider.Property;
 import org.gradle.api.provider.Provider;
 import org.gradle.api.services.ServiceReference;
 import org.gradle.api.specs.Spec;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.JavaExec;
+import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 
+import net.fabricmc.loom.LoomGradleExtension;
 import net.fabricmc.loom.configuration.ide.RunConfig;
+import net.fabricmc.loom.util.AppCdsArchive;
 import net.fabricmc.loom.util.Constants;
+import net.fabricmc.loom.util.gradle.GradleUtils;
 import net.fabricmc.loom.util.gradle.SyncTaskBuildService;
 
 public abstract class AbstractRunTask extends JavaExec {
@@ -61,6 +69,20 @@ public abstract class AbstractRunTask extends JavaExec {
 	@ServiceReference(SyncTaskBuildService.NAME)
 	abstract Property<SyncTaskBuildService> getSyncTask();
 
+	/**
+	 * When enabled a dynamic AppCDS archive of the loaded classes is created when the game exits, and used to speed up
+	 * the following launches. The archive is recreated whenever the classpath or java runtime changes.
+	 *
+	 * <p>Requires Java 13 or later, older versions ignore this option. The JVM only archives classes from jars,
+	 * so the option is ignored with a warning when the classpath contains a non-empty directory such as a source set output.
+	 */
+	@Input
+	@ApiStatus.Experimental
+	public abstract Property<Boolean> getAppCds();
+
+	@Internal
+	public abstract DirectoryProperty getAppCdsDirectory();
+
 	public AbstractRunTask(Function<Project, RunConfig> configProvider) {
 		super();
 		setGroup(Constants.TaskGroup.FABRIC);
@@ -71,6 +93,8 @@ public abstract class AbstractRunTask extends JavaExec {
 		getArgumentProviders().add(() -> config.get().programArgs);
 		getMainClass().set(config.map(runConfig -> runConfig.mainClass));
 		getJvmArguments().addAll(getProject().provider(this::getGameJvmArgs));
+		getAppCds().convention(GradleUtils.getBooleanPropertyProvider(getProject(), Constants.Properties.APP_CDS)).finalizeValueOnRead();
+		getAppCdsDirectory().convention(getProject().getLayout().dir(getProject().provider(() -> new File(LoomGradleExtension.get(getProject()).getFiles().getProjectPersistentCache(), "cds"))));
 	}
 
 	private boolean canUseArgFile() {
@@ -133,10 +157,42 @@ public abstract class AbstractRunTask extends JavaExec {
 			}
 		}
 
+		if (getAppCds().get() && getJavaVersion().isCompatibleWith(JavaVersion.VERSION_13)) {
+			args.addAll(getAppCdsArgs());
+		}
+
 		args.addAll(config.get().vmArgs);
 		return args;
 	}
 
+	private List<String> getAppCdsArgs() {
+		final String javaRuntime = getJavaLauncher()
+				.map(launcher -> launcher.getMetadata().getJavaRuntimeVersion() + " " + launcher.getMetadata().getInstallationPath())
+				.getOrElse(getJavaVersion().toString());
+		final List<File> files = List.copyOf(classpath.getFiles());
+
+		try {
+			final File directory = AppCdsArchive.findNonEmptyDirectory(files);
+
+			if (directory != null) {
+				getProject().getLogger().warn("AppCDS is disabled for {}, the classpath contains the non-empty directory {} and the JVM can only archive classes from jars", getName(), directory);
+				return List.of();
+			}
+
+			final AppCdsArchive archive = AppCdsArchive.create(getAppCdsDirectory().get().getAsFile().toPath(), getName(), javaRuntime, files);
+
+			if (archive.exists()) {
+				getProject().getLogger().info("Using AppCDS archive {} for {}", archive.path(), getName());
+			} else {
+				getProject().getLogger().lifecycle("Creating AppCDS archive for {}, it will be used from the next launch", getName());
+			}
+
+			return archive.getJvmArgs();
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to prepare AppCDS archive", e);
+		}
+	}
+
 	// Based off https://github.com/JetBrains/intellij-community/blob/295dd68385a458bdfde638152e36d19bed18b666/platform/util/src/com/intellij/execution/CommandLineWrapperUtil.java#L87
 	private static String quoteArg(String arg) {
 		final String specials = " #'\"\n\r\t\f";
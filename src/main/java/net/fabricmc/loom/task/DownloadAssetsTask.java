@@ -27,6 +27,10 @@ package net.fabricmc.loom.task;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.inject.Inject;
 
@@ -38,18 +42,25 @@ import org.gradle.api.tasks.OutputDirectory;
 import org.gradle.api.tasks.TaskAction;
 import org.gradle.internal.logging.progress.ProgressLoggerFactory;
 
+import net.fabricmc.loom.LoomGradleExtension;
 import net.fabricmc.loom.LoomGradlePlugin;
 import net.fabricmc.loom.configuration.ide.RunConfigSettings;
 import net.fabricmc.loom.configuration.providers.minecraft.MinecraftVersionMeta;
 import net.fabricmc.loom.configuration.providers.minecraft.assets.AssetIndex;
+import net.fabricmc.loom.configuration.providers.minecraft.assets.AssetsVerificationManifest;
 import net.fabricmc.loom.util.MirrorUtil;
-import net.fabricmc.loom.util.download.DownloadExecutor;
+import net.fabricmc.loom.util.Pair;
+import net.fabricmc.loom.util.ThreadingUtils;
+import net.fabricmc.loom.util.download.AsyncDownloadExecutor;
 import net.fabricmc.loom.util.download.DownloadFactory;
 import net.fabricmc.loom.util.download.GradleDownloadProgressListener;
 import net.fabricmc.loom.util.gradle.ProgressGroup;
 
 // TODO: Reintroduce the progress bar.
 public abstract class DownloadAssetsTask extends AbstractLoomTask {
+	// Upper bound for the adaptive number of concurrent requests, the download threads property is used as the starting point.
+	private static final int MAX_CONCURRENT_DOWNLOADS = 64;
+
 	@Input
 	public abstract Property<String> getAssetsHash();
 
@@ -80,7 +91,7 @@ public abstract class DownloadAssetsTask extends AbstractLoomTask {
 	@Inject
 	public DownloadAssetsTask() {
 		final MinecraftVersionMeta versionInfo = getExtension().getMinecraftProvider().getVersionInfo();
-		final File assetsDir = new File(getExtension().getFiles().getUserCache(), "assets");
+		final File assetsDir = getDefaultAssetsDirectory(getExtension());
 
 		getAssetsDirectory().set(assetsDir);
 		getAssetsHash().set(versionInfo.assetIndex().sha1());
@@ -110,10 +121,35 @@ public abstract class DownloadAssetsTask extends AbstractLoomTask {
 	@TaskAction
 	public void downloadAssets() throws IOException {
 		final AssetIndex assetIndex = getAssetIndex();
+		final Path manifestPath = getVerificationManifestPath();
+		final AssetsVerificationManifest manifest = getDownloadFactory().refreshDependencies()
+				? new AssetsVerificationManifest(new ConcurrentHashMap<>())
+				: AssetsVerificationManifest.read(manifestPath);
+
+		final List<Pair<AssetIndex.Object, Path>> objects = new ArrayList<>();
+
+		for (AssetIndex.Object object : assetIndex.getObjects()) {
+			objects.add(new Pair<>(object, getAssetsPath(object, assetIndex)));
+		}
+
+		// A single parallel stat pass over all objects, only the ones that have changed since they were last verified are passed to the downloader.
+		final Set<Pair<AssetIndex.Object, Path>> verified = ConcurrentHashMap.newKeySet();
+		ThreadingUtils.run(objects, object -> {
+			if (manifest.isVerified(object.right(), object.left().hash())) {
+				verified.add(object);
+			}
+		});
+
+		final List<Pair<AssetIndex.Object, Path>> pending = objects.stream().filter(object -> !verified.contains(object)).toList();
+
+		if (pending.isEmpty()) {
+			return;
+		}
 
 		try (ProgressGroup progressGroup = new ProgressGroup("Download Assets", getProgressLoggerFactory());
-				DownloadExecutor executor = new DownloadExecutor(getDownloadThreads().get())) {
-			for (AssetIndex.Object object : assetIndex.getObjects()) {
+				AsyncDownloadExecutor executor = new AsyncDownloadExecutor(getDownloadThreads().get(), MAX_CONCURRENT_DOWNLOADS)) {
+			for (Pair<AssetIndex.Object, Path> pair : pending) {
+				final AssetIndex.Object object = pair.left();
 				final String sha1 = object.hash();
 				final String url = getResourcesBaseUrl().get() + sha1.substring(0, 2) + "/" + sha1;
 
@@ -121,22 +157,41 @@ public abstract class DownloadAssetsTask extends AbstractLoomTask {
 						.download(url)
 						.sha1(sha1)
 						.progress(new GradleDownloadProgressListener(object.name(), progressGroup::createProgressLogger))
-						.downloadPathAsync(getAssetsPath(object, assetIndex), executor);
+						.downloadPathAsync(pair.right(), executor);
 			}
 		}
+
+		ThreadingUtils.run(pending, pair -> manifest.put(pair.right(), pair.left().hash()));
+		manifest.write(manifestPath);
+	}
+
+	private Path getVerificationManifestPath() {
+		final MinecraftVersionMeta.AssetIndex assetIndex = LoomGradlePlugin.GSON.fromJson(getAssetsIndexJson().get(), MinecraftVersionMeta.AssetIndex.class);
+		return getAssetsDirectory().get().getAsFile().toPath().resolve("indexes").resolve(assetIndex.fabricId(getMinecraftVersion().get()) + ".verified.json");
 	}
 
 	private AssetIndex getAssetIndex() throws IOException {
 		final MinecraftVersionMeta.AssetIndex assetIndex = LoomGradlePlugin.GSON.fromJson(getAssetsIndexJson().get(), MinecraftVersionMeta.AssetIndex.class);
-		final File indexFile = new File(getAssetsDirectory().get().getAsFile(), "indexes" + File.separator + assetIndex.fabricId(getMinecraftVersion().get()) + ".json");
+		final Path indexFile = getAssetIndexPath(getAssetsDirectory().get().getAsFile(), assetIndex, getMinecraftVersion().get());
 
 		final String json = getDownloadFactory().download(assetIndex.url())
 				.sha1(assetIndex.sha1())
-				.downloadString(indexFile.toPath());
+				.downloadString(indexFile);
 
 		return LoomGradlePlugin.GSON.fromJson(json, AssetIndex.class);
 	}
 
+	public static File getDefaultAssetsDirectory(LoomGradleExtension extension) {
+		return new File(extension.getFiles().getUserCache(), "assets");
+	}
+
+	/**
+	 * @return the location of the asset index in the assets directory, also used by {@link net.fabricmc.loom.configuration.providers.minecraft.MinecraftProvider} to prefetch it.
+	 */
+	public static Path getAssetIndexPath(File assetsDirectory, MinecraftVersionMeta.AssetIndex assetIndex, String minecraftVersion) {
+		return assetsDirectory.toPath().resolve("indexes").resolve(assetIndex.fabricId(minecraftVersion) + ".json");
+	}
+
 	private Path getAssetsPath(AssetIndex.Object object, AssetIndex index) {
 		if (index.mapToResources() || index.virtual()) {
 			return new File(getLegacyResourcesDirectory().get().getAsFile(), object.path()).toPath();
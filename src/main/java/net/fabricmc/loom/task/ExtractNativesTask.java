@@ -25,28 +25,58 @@
 package net.fabricmc.loom.task;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.inject.Inject;
 
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.type.ArtifactTypeDefinition;
+import org.gradle.api.file.FileCopyDetails;
 import org.gradle.api.tasks.Sync;
 
 import net.fabricmc.loom.LoomGradleExtension;
+import net.fabricmc.loom.configuration.providers.minecraft.NativesExtractor;
 import net.fabricmc.loom.util.Constants;
 
 public abstract class ExtractNativesTask extends Sync {
+	// Natives that are already in the natives directory, these are not copied again and are kept by the sync.
+	private final Set<String> unchangedNatives = ConcurrentHashMap.newKeySet();
+
 	@Inject
 	public ExtractNativesTask() {
-		// Is there a lazy way to do this for many files? - Doesnt seem there is...
-		for (File nativeFile : getProject().getConfigurations().getByName(Constants.Configurations.MINECRAFT_NATIVES).getFiles()) {
-			from(getProject().zipTree(nativeFile), copySpec -> {
-				copySpec.exclude("META-INF/**");
-				// Fix pre LWJGL 3 versions on Macos. See: https://github.com/FabricMC/fabric-loom/issues/955
-				copySpec.rename(s -> s.replace(".jnilib", ".dylib"));
-			});
-		}
+		final Configuration natives = getProject().getConfigurations().getByName(Constants.Configurations.MINECRAFT_NATIVES);
 
+		// Each jar is extracted by the NativesExtractor transform, which Gradle caches by the content of the jar.
+		from(natives.getIncoming().artifactView(view -> view.getAttributes().attribute(ArtifactTypeDefinition.ARTIFACT_TYPE_ATTRIBUTE, NativesExtractor.EXTRACTED_NATIVES_TYPE)).getFiles());
 		into(LoomGradleExtension.get(getProject()).getFiles().getNativesDirectory(getProject()));
 
+		doFirst(task -> unchangedNatives.clear());
+		eachFile(details -> {
+			if (isUnchanged(details)) {
+				unchangedNatives.add(details.getPath());
+				details.exclude();
+			}
+		});
+		preserve(filter -> filter.include(element -> unchangedNatives.contains(element.getPath())));
+
 		setDescription("Downloads and extracts the minecraft natives");
 	}
+
+	private boolean isUnchanged(FileCopyDetails details) {
+		final File target = new File(getDestinationDir(), details.getPath());
+
+		if (!target.isFile() || target.length() != details.getSize()) {
+			return false;
+		}
+
+		try {
+			return Files.mismatch(details.getFile().toPath(), target.toPath()) == -1;
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to compare " + target, e);
+		}
+	}
 }
@@ -0,0 +1,253 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2024 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.task;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import com.google.gson.JsonParseException;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Type;
+
+import net.fabricmc.loom.LoomGradlePlugin;
+import net.fabricmc.loom.util.Checksum;
+import net.fabricmc.loom.util.Constants;
+
+/**
+ * A per-entry hash index of a jar that has been remapped by {@link RemapJarTask}, used to determine the minimal set of
+ * classes that must be remapped again when only part of the input jar has changed.
+ *
+ * <p>A class must be remapped when its own bytes changed, or when any of its supertypes or mixin targets within the
+ * same jar must be remapped. Adding or removing classes, or any change to the remapping context (mappings, classpath,
+ * namespaces) requires a full remap.
+ */
+public record IncrementalRemapIndex(String context, Map<String, ClassEntry> classes, Map<String, String> resources) {
+	private static final String MIXIN_DESCRIPTOR = "Lorg/spongepowered/asm/mixin/Mixin;";
+
+	public record ClassEntry(String hash, List<String> dependencies) {
+	}
+
+	public static IncrementalRemapIndex create(Path jar, String context) throws IOException {
+		final Map<String, ClassEntry> classes = new TreeMap<>();
+		final Map<String, String> resources = new TreeMap<>();
+
+		try (var zipFile = new ZipFile(jar.toFile())) {
+			final var entries = zipFile.entries();
+
+			while (entries.hasMoreElements()) {
+				final ZipEntry entry = entries.nextElement();
+
+				if (entry.isDirectory()) {
+					continue;
+				}
+
+				final byte[] bytes;
+
+				try (var inputStream = zipFile.getInputStream(entry)) {
+					bytes = inputStream.readAllBytes();
+				}
+
+				final String hash = Checksum.sha1Hex(bytes);
+
+				if (entry.getName().endsWith(".class")) {
+					classes.put(entry.getName(), new ClassEntry(hash, readDependencies(bytes)));
+				} else {
+					resources.put(entry.getName(), hash);
+				}
+			}
+		}
+
+		return new IncrementalRemapIndex(context, classes, resources);
+	}
+
+	@Nullable
+	public static IncrementalRemapIndex read(Path path) throws IOException {
+		if (Files.notExists(path)) {
+			return null;
+		}
+
+		try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+			return LoomGradlePlugin.GSON.fromJson(reader, IncrementalRemapIndex.class);
+		} catch (JsonParseException e) {
+			// A corrupt index is treated the same as a missing one, a full remap will replace it.
+			return null;
+		}
+	}
+
+	public void write(Path path) throws IOException {
+		try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+			LoomGradlePlugin.GSON.toJson(this, writer);
+		}
+	}
+
+	/**
+	 * Computes the changes between a previous index and this one.
+	 *
+	 * @return the changes, or {@code null} when a full remap is required.
+	 */
+	@Nullable
+	public Changes diff(@Nullable IncrementalRemapIndex previous) {
+		if (previous == null || previous.classes() == null || previous.resources() == null) {
+			return null;
+		}
+
+		if (!context.equals(previous.context()) || !classes.keySet().equals(previous.classes().keySet())) {
+			return null;
+		}
+
+		final Set<String> changed = new HashSet<>();
+
+		for (Map.Entry<String, ClassEntry> entry : classes.entrySet()) {
+			final ClassEntry previousEntry = previous.classes().get(entry.getKey());
+
+			if (!entry.getValue().equals(previousEntry)) {
+				changed.add(entry.getKey());
+			}
+		}
+
+		final Map<String, String> changedResources = new HashMap<>();
+
+		for (Map.Entry<String, String> entry : resources.entrySet()) {
+			if (!entry.getValue().equals(previous.resources().get(entry.getKey()))) {
+				changedResources.put(entry.getKey(), entry.getValue());
+			}
+		}
+
+		final List<String> removedResources = new ArrayList<>();
+
+		for (String resource : previous.resources().keySet()) {
+			if (!resources.containsKey(resource)) {
+				removedResources.add(resource);
+			}
+		}
+
+		return new Changes(Collections.unmodifiableSet(propagate(changed)), changedResources.keySet(), removedResources);
+	}
+
+	// Walks the reverse dependency graph so that subtypes and mixins of a changed class are also remapped.
+	private Set<String> propagate(Set<String> changed) {
+		final Map<String, List<String>> dependents = new HashMap<>();
+
+		for (Map.Entry<String, ClassEntry> entry : classes.entrySet()) {
+			for (String dependency : entry.getValue().dependencies()) {
+				final String dependencyEntry = dependency + ".class";
+
+				if (classes.containsKey(dependencyEntry)) {
+					dependents.computeIfAbsent(dependencyEntry, s -> new ArrayList<>()).add(entry.getKey());
+				}
+			}
+		}
+
+		final Set<String> dirty = new HashSet<>(changed);
+		final Deque<String> queue = new ArrayDeque<>(changed);
+
+		while (!queue.isEmpty()) {
+			for (String dependent : dependents.getOrDefault(queue.pop(), List.of())) {
+				if (dirty.add(dependent)) {
+					queue.add(dependent);
+				}
+			}
+		}
+
+		return dirty;
+	}
+
+	/**
+	 * @param classes the class entries to be remapped again, including any affected by hierarchy or mixin target changes
+	 * @param resources the non-class entries that were added or modified
+	 * @param removedResources the non-class entries that no longer exist in the input
+	 */
+	public record Changes(Set<String> classes, Set<String> resources, List<String> removedResources) {
+		public boolean isEmpty() {
+			return classes.isEmpty() && resources.isEmpty() && removedResources.isEmpty();
+		}
+	}
+
+	@VisibleForTesting
+	public static List<String> readDependencies(byte[] classBytes) {
+		final Set<String> dependencies = new HashSet<>();
+		final var reader = new ClassReader(classBytes);
+
+		reader.accept(new ClassVisitor(Constants.ASM_VERSION) {
+			@Override
+			public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+				if (superName != null) {
+					dependencies.add(superName);
+				}
+
+				if (interfaces != null) {
+					Collections.addAll(dependencies, interfaces);
+				}
+			}
+
+			@Override
+			public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+				if (!MIXIN_DESCRIPTOR.equals(descriptor)) {
+					return null;
+				}
+
+				return new AnnotationVisitor(Constants.ASM_VERSION) {
+					@Override
+					public AnnotationVisitor visitArray(String name) {
+						return new AnnotationVisitor(Constants.ASM_VERSION) {
+							@Override
+							public void visit(String arrayName, Object value) {
+								if ("value".equals(name) && value instanceof Type type) {
+									dependencies.add(type.getInternalName());
+								} else if ("targets".equals(name) && value instanceof String target) {
+									dependencies.add(target.replace('.', '/'));
+								}
+							}
+						};
+					}
+				};
+			}
+		}, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+
+		final List<String> sorted = new ArrayList<>(dependencies);
+		Collections.sort(sorted);
+		return sorted;
+	}
+}
@@ -136,6 +136,8 @@ public abstract class LoomTasks implements Runnable {
 			t.dependsOn(getIDELaunchConfigureTaskName(getProject()));
 			t.setGroup(Constants.TaskGroup.IDE);
 		});
+
+		getTasks().register(Constants.Task.REMAP_MOD_SOURCES, RemapModSourcesTask.class);
 	}
 
 	private static String getRunConfigTaskName(RunConfigSettings config) {
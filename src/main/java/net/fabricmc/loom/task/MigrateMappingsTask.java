@@ -26,14 +26,29 @@ package net.fabricmc.loom.task;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.Reader;
 import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.gson.JsonParseException;
 import org.cadixdev.lorenz.MappingSet;
 import org.cadixdev.mercury.Mercury;
 import org.cadixdev.mercury.remapper.MercuryRemapper;
@@ -43,27 +58,40 @@ import org.gradle.api.JavaVersion;
 import org.gradle.api.Project;
 import org.gradle.api.artifacts.Dependency;
 import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.plugins.JavaPlugin;
 import org.gradle.api.plugins.JavaPluginExtension;
 import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.TaskAction;
 import org.gradle.api.tasks.options.Option;
 import org.gradle.work.DisableCachingByDefault;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
 
 import net.fabricmc.loom.LoomGradleExtension;
+import net.fabricmc.loom.LoomGradlePlugin;
 import net.fabricmc.loom.api.mappings.layered.MappingsNamespace;
 import net.fabricmc.loom.configuration.providers.mappings.LayeredMappingSpecBuilderImpl;
 import net.fabricmc.loom.configuration.providers.mappings.LayeredMappingsFactory;
 import net.fabricmc.loom.configuration.providers.mappings.MappingConfiguration;
+import net.fabricmc.loom.util.Checksum;
+import net.fabricmc.loom.util.DeletingFileVisitor;
 import net.fabricmc.loom.util.FileSystemUtil;
+import net.fabricmc.loom.util.MercuryPool;
 import net.fabricmc.loom.util.SourceRemapper;
 import net.fabricmc.loom.util.service.ScopedSharedServiceManager;
 import net.fabricmc.lorenztiny.TinyMappingsJoiner;
 import net.fabricmc.mappingio.MappingReader;
+import net.fabricmc.mappingio.tree.MappingTreeView;
 import net.fabricmc.mappingio.tree.MemoryMappingTree;
 
 @DisableCachingByDefault(because = "Always rerun this task.")
 public abstract class MigrateMappingsTask extends AbstractLoomTask {
+	private static final String PROGRESS_VERSION = "1";
+	private static final Pattern IDENTIFIER_PATTERN = Pattern.compile("[\\p{javaJavaIdentifierStart}][\\p{javaJavaIdentifierPart}]*");
+	private static final int FILES_PER_SHARD = 250;
+
 	private Path inputDir;
 	private Path outputDir;
 	private String mappings;
@@ -74,6 +102,7 @@ public abstract class MigrateMappingsTask extends AbstractLoomTask {
 
 		// Ensure we resolve the classpath inputs before running the task.
 		getCompileClasspath().from(getProject().getConfigurations().getByName(JavaPlugin.COMPILE_CLASSPATH_CONFIGURATION_NAME));
+		getProgressFile().convention(getProject().getLayout().getBuildDirectory().file("loom-cache/" + getName() + "-progress.json"));
 	}
 
 	@Option(option = "input", description = "Java source file directory")
@@ -94,6 +123,10 @@ public abstract class MigrateMappingsTask extends AbstractLoomTask {
 	@InputFiles
 	public abstract ConfigurableFileCollection getCompileClasspath();
 
+	// Records the migrated files, so that a migration can be resumed or run again after fixing some input files.
+	@Internal
+	public abstract RegularFileProperty getProgressFile();
+
 	@TaskAction
 	public void doTask() throws Throwable {
 		Project project = getProject();
@@ -113,7 +146,8 @@ public abstract class MigrateMappingsTask extends AbstractLoomTask {
 		try (var serviceManager = new ScopedSharedServiceManager()) {
 			MemoryMappingTree currentMappings = mappingConfiguration.getMappingsService(serviceManager).getMappingTree();
 			MemoryMappingTree targetMappings = getMappings(mappings);
-			migrateMappings(project, extension, inputDir, outputDir, currentMappings, targetMappings);
+			String mappingsContext = mappingConfiguration.mappingsIdentifier() + ":" + Checksum.sha1Hex(mappings.toPath());
+			migrateMappings(project, extension, inputDir, outputDir, getProgressFile().get().getAsFile().toPath(), mappingsContext, currentMappings, targetMappings);
 			project.getLogger().lifecycle(":remapped project written to " + outputDir.toAbsolutePath());
 		} catch (IOException e) {
 			throw new IllegalArgumentException("Error while loading mappings", e);
@@ -172,17 +206,103 @@ public abstract class MigrateMappingsTask extends AbstractLoomTask {
 	}
 
 	private static void migrateMappings(Project project, LoomGradleExtension extension,
-										Path inputDir, Path outputDir, MemoryMappingTree currentMappings, MemoryMappingTree targetMappings
+										Path inputDir, Path outputDir, Path progressFile, String mappingsContext, MemoryMappingTree currentMappings, MemoryMappingTree targetMappings
 	) throws IOException {
+		project.getLogger().info(":diffing mappings");
+		final Set<String> changedNames = getChangedNames(currentMappings, targetMappings);
+		final String context = String.join(":", PROGRESS_VERSION, inputDir.toAbsolutePath().toString(), outputDir.toAbsolutePath().toString(), mappingsContext);
+		final Progress progress = Progress.read(progressFile, context);
+
+		final List<String> pending = new ArrayList<>();
+		int skipped = 0;
+		int completed = 0;
+
+		try (Stream<Path> walk = Files.walk(inputDir)) {
+			for (Path path : (Iterable<Path>) walk.filter(p -> Files.isRegularFile(p) && p.toString().endsWith(".java"))::iterator) {
+				final String name = inputDir.relativize(path).toString().replace('\\', '/');
+				final Path output = outputDir.resolve(name);
+				final String hash = Checksum.sha1Hex(path);
+
+				if (hash.equals(progress.completed().get(name)) && Files.exists(output)) {
+					completed++;
+				} else if (!touchesChangedNames(Files.readString(path), changedNames)) {
+					Files.createDirectories(output.getParent());
+					Files.copy(path, output, StandardCopyOption.REPLACE_EXISTING);
+					progress.complete(name, hash);
+					skipped++;
+				} else {
+					pending.add(name);
+				}
+			}
+		}
+
+		progress.write(progressFile);
+		project.getLogger().lifecycle(":remapping {} files, {} files do not use any changed mappings, {} files were already migrated", pending.size(), skipped, completed);
+
+		if (pending.isEmpty()) {
+			return;
+		}
+
+		final List<List<String>> shards = Lists.partition(pending, FILES_PER_SHARD);
+
 		project.getLogger().info(":joining mappings");
+		MercuryPool.run(shards, () -> createMercury(project, extension, inputDir, currentMappings, targetMappings),
+				(mercury, shard) -> migrateShard(project, mercury, shard, inputDir, outputDir, progressFile, progress));
+
+		project.getLogger().info(":cleaning file descriptors");
+		System.gc();
+	}
+
+	/**
+	 * Remaps a shard of the input files, the remaining input files are only used to resolve types.
+	 * The files in the shard are recorded as complete once they have been written to the output.
+	 */
+	private static void migrateShard(Project project, Mercury mercury, List<String> shard, Path inputDir, Path outputDir, Path progressFile, Progress progress) throws IOException {
+		final Path shardInputDir = Files.createTempDirectory("loom-migrate-mappings-input");
+		final Path shardOutputDir = Files.createTempDirectory("loom-migrate-mappings-output");
 
+		try {
+			for (String name : shard) {
+				final Path path = shardInputDir.resolve(name);
+				Files.createDirectories(path.getParent());
+				Files.copy(inputDir.resolve(name), path);
+			}
+
+			try {
+				mercury.rewrite(shardInputDir, shardOutputDir);
+			} catch (Exception e) {
+				project.getLogger().warn("Could not remap fully!", e);
+				return;
+			}
+
+			for (String name : shard) {
+				final Path remapped = shardOutputDir.resolve(name);
+
+				if (Files.notExists(remapped)) {
+					project.getLogger().error("Failed to remap {}", name);
+					continue;
+				}
+
+				final Path output = outputDir.resolve(name);
+				Files.createDirectories(output.getParent());
+				Files.copy(remapped, output, StandardCopyOption.REPLACE_EXISTING);
+				progress.complete(name, Checksum.sha1Hex(inputDir.resolve(name)));
+			}
+
+			progress.write(progressFile);
+		} finally {
+			Files.walkFileTree(shardInputDir, new DeletingFileVisitor());
+			Files.walkFileTree(shardOutputDir, new DeletingFileVisitor());
+		}
+	}
+
+	private static Mercury createMercury(Project project, LoomGradleExtension extension, Path inputDir, MemoryMappingTree currentMappings, MemoryMappingTree targetMappings) {
 		MappingSet mappingSet = new TinyMappingsJoiner(
 				currentMappings, MappingsNamespace.NAMED.toString(),
 				targetMappings, MappingsNamespace.NAMED.toString(),
 				MappingsNamespace.INTERMEDIARY.toString()
 		).read();
 
-		project.getLogger().lifecycle(":remapping");
 		Mercury mercury = SourceRemapper.createMercuryWithClassPath(project, false);
 
 		final JavaVersion javaVersion = project.getExtensions().getByType(JavaPluginExtension.class).getSourceCompatibility();
@@ -206,15 +326,111 @@ public abstract class MigrateMappingsTask extends AbstractLoomTask {
 			}
 		}
 
+		// The whole input is on the source path, so that types from outside the shard being remapped can be resolved.
+		mercury.getSourcePath().add(inputDir);
 		mercury.getProcessors().add(MercuryRemapper.create(mappingSet));
+		return mercury;
+	}
 
-		try {
-			mercury.rewrite(inputDir, outputDir);
-		} catch (Exception e) {
-			project.getLogger().warn("Could not remap fully!", e);
+	/**
+	 * Collects the simple names of the classes, fields and methods whose named mapping differs between the two trees.
+	 * A source file that does not contain any of these names as an identifier is not changed by the migration.
+	 */
+	@VisibleForTesting
+	public static Set<String> getChangedNames(MappingTreeView currentMappings, MappingTreeView targetMappings) {
+		final int currentNamed = currentMappings.getNamespaceId(MappingsNamespace.NAMED.toString());
+		final int currentIntermediary = currentMappings.getNamespaceId(MappingsNamespace.INTERMEDIARY.toString());
+		final int targetNamed = targetMappings.getNamespaceId(MappingsNamespace.NAMED.toString());
+		final int targetIntermediary = targetMappings.getNamespaceId(MappingsNamespace.INTERMEDIARY.toString());
+		final Set<String> changedNames = new HashSet<>();
+
+		for (MappingTreeView.ClassMappingView currentClass : currentMappings.getClasses()) {
+			final String intermediaryName = currentClass.getName(currentIntermediary);
+			final MappingTreeView.ClassMappingView targetClass = intermediaryName == null ? null : targetMappings.getClass(intermediaryName, targetIntermediary);
+
+			if (isChanged(currentClass.getName(currentNamed), targetClass == null ? null : targetClass.getName(targetNamed))) {
+				changedNames.add(getSimpleName(currentClass.getName(currentNamed)));
+			}
+
+			for (MappingTreeView.FieldMappingView currentField : currentClass.getFields()) {
+				final MappingTreeView.FieldMappingView targetField = targetClass == null ? null : targetClass.getField(currentField.getName(currentIntermediary), currentField.getDesc(currentIntermediary), targetIntermediary);
+
+				if (isChanged(currentField.getName(currentNamed), targetField == null ? null : targetField.getName(targetNamed))) {
+					changedNames.add(currentField.getName(currentNamed));
+				}
+			}
+
+			for (MappingTreeView.MethodMappingView currentMethod : currentClass.getMethods()) {
+				final MappingTreeView.MethodMappingView targetMethod = targetClass == null ? null : targetClass.getMethod(currentMethod.getName(currentIntermediary), currentMethod.getDesc(currentIntermediary), targetIntermediary);
+
+				if (isChanged(currentMethod.getName(currentNamed), targetMethod == null ? null : targetMethod.getName(targetNamed))) {
+					changedNames.add(currentMethod.getName(currentNamed));
+				}
+			}
 		}
 
-		project.getLogger().info(":cleaning file descriptors");
-		System.gc();
+		changedNames.remove(null);
+		return changedNames;
+	}
+
+	// A missing target mapping is treated as a change, as the joined mappings may still rename it
+	private static boolean isChanged(@Nullable String currentName, @Nullable String targetName) {
+		return currentName != null && !currentName.equals(targetName);
+	}
+
+	@Nullable
+	private static String getSimpleName(@Nullable String internalName) {
+		if (internalName == null) {
+			return null;
+		}
+
+		return internalName.substring(Math.max(internalName.lastIndexOf('/'), internalName.lastIndexOf('$')) + 1);
+	}
+
+	@VisibleForTesting
+	public static boolean touchesChangedNames(String source, Set<String> changedNames) {
+		final Matcher matcher = IDENTIFIER_PATTERN.matcher(source);
+
+		while (matcher.find()) {
+			if (changedNames.contains(matcher.group())) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Records the input files that have been migrated along with their hashes, so that an interrupted or partially fixed
+	 * migration can be resumed. The progress is discarded when the directories or either of the mappings change.
+	 */
+	private record Progress(String context, Map<String, String> completed) {
+		static Progress read(Path path, String context) throws IOException {
+			if (Files.exists(path)) {
+				try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+					final Progress progress = LoomGradlePlugin.GSON.fromJson(reader, Progress.class);
+
+					if (progress != null && context.equals(progress.context()) && progress.completed() != null) {
+						return new Progress(context, new ConcurrentHashMap<>(progress.completed()));
+					}
+				} catch (JsonParseException e) {
+					// Start again when the progress file is corrupt
+				}
+			}
+
+			return new Progress(context, new ConcurrentHashMap<>());
+		}
+
+		void complete(String name, String hash) {
+			completed.put(name, hash);
+		}
+
+		synchronized void write(Path path) throws IOException {
+			Files.createDirectories(path.getParent());
+
+			try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+				LoomGradlePlugin.GSON.toJson(new Progress(context, new TreeMap<>(completed)), writer);
+			}
+		}
 	}
 }
@@ -24,8 +24,10 @@
 
 package net.fabricmc.loom.task;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
@@ -36,8 +38,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.ZipFile;
 
 import javax.inject.Inject;
 
@@ -45,6 +50,7 @@ import com.google.gson.JsonObject;
 import dev.architectury.loom.extensions.ModBuildExtensions;
 import org.gradle.api.artifacts.ConfigurationContainer;
 import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.plugins.JavaPlugin;
@@ -67,6 +73,7 @@ import net.fabricmc.accesswidener.AccessWidenerReader;
 import net.fabricmc.accesswidener.AccessWidenerRemapper;
 import net.fabricmc.accesswidener.AccessWidenerWriter;
 import net.fabricmc.loom.LoomGradleExtension;
+import net.fabricmc.loom.LoomGradlePlugin;
 import net.fabricmc.loom.build.nesting.JarNester;
 import net.fabricmc.loom.build.nesting.NestableJarGenerationTask;
 import net.fabricmc.loom.configuration.accesswidener.AccessWidenerFile;
@@ -74,8 +81,11 @@ import net.fabricmc.loom.configuration.mods.ArtifactMetadata;
 import net.fabricmc.loom.extension.MixinExtension;
 import net.fabricmc.loom.task.service.MappingsService;
 import net.fabricmc.loom.task.service.TinyRemapperService;
+import net.fabricmc.loom.util.Checksum;
 import net.fabricmc.loom.util.Constants;
+import net.fabricmc.loom.util.DeletingFileVisitor;
 import net.fabricmc.loom.util.ExceptionUtil;
+import net.fabricmc.loom.util.FileSystemUtil;
 import net.fabricmc.loom.util.ModPlatform;
 import net.fabricmc.loom.util.Pair;
 import net.fabricmc.loom.util.SidedClassVisitor;
@@ -83,6 +93,7 @@ import net.fabricmc.loom.util.ZipUtils;
 import net.fabricmc.loom.util.fmj.FabricModJson;
 import net.fabricmc.loom.util.fmj.FabricModJsonFactory;
 import net.fabricmc.loom.util.fmj.FabricModJsonUtils;
+import net.fabricmc.loom.util.gradle.GradleUtils;
 import net.fabricmc.loom.util.service.BuildSharedServiceManager;
 import net.fabricmc.loom.util.service.UnsafeWorkQueueHelper;
 import net.fabricmc.tinyremapper.OutputConsumerPath;
@@ -138,6 +149,16 @@ public abstract class RemapJarTask extends AbstractRemapJarTask {
 	@ApiStatus.Internal
 	public abstract Property<Boolean> getUseMixinAP();
 
+	/**
+	 * Whether to keep the previous remapped output and only remap the classes that changed since the last run.
+	 * By default, this is controlled by the {@value Constants.Properties#INCREMENTAL_REMAP_JAR} gradle property.
+	 *
+	 * <p>This has no effect when multi project optimisation is enabled, or when the classpath contains directories.
+	 */
+	@Input
+	@ApiStatus.Experimental
+	public abstract Property<Boolean> getIncrementalRemap();
+
 	private final Provider<BuildSharedServiceManager> serviceManagerProvider;
 
 	@Inject
@@ -150,6 +171,7 @@ public abstract class RemapJarTask extends AbstractRemapJarTask {
 		getOptimizeFabricModJson().convention(false).finalizeValueOnRead();
 		getReadMixinConfigsFromManifest().convention(LoomGradleExtension.get(getProject()).isForgeLike()).finalizeValueOnRead();
 		getInjectAccessWidener().convention(false);
+		getIncrementalRemap().convention(GradleUtils.getBooleanPropertyProvider(getProject(), Constants.Properties.INCREMENTAL_REMAP_JAR)).finalizeValueOnRead();
 
 		TaskProvider<NestableJarGenerationTask> processIncludeJars = getProject().getTasks().named(Constants.Task.PROCESS_INCLUDE_JARS, NestableJarGenerationTask.class);
 		getNestedJars().from(getProject().fileTree(processIncludeJars.get().getOutputDirectory()));
@@ -196,6 +218,15 @@ public abstract class RemapJarTask extends AbstractRemapJarTask {
 
 				params.getMultiProjectOptimisation().set(getLoomExtension().multiProjectOptimisation());
 
+				if (getIncrementalRemap().get() && !getLoomExtension().multiProjectOptimisation()) {
+					final String context = createIncrementalContext();
+
+					if (context != null) {
+						params.getIncrementalContext().set(context);
+						params.getIncrementalCacheDirectory().set(new File(getTemporaryDir(), "incremental"));
+					}
+				}
+
 				final boolean mixinAp = getUseMixinAP().get();
 				params.getUseMixinExtension().set(!mixinAp);
 
@@ -229,6 +260,30 @@ public abstract class RemapJarTask extends AbstractRemapJarTask {
 		});
 	}
 
+	// Everything other than the input jar that can affect the remapped output, a change to any of these requires a full remap.
+	@Nullable
+	private String createIncrementalContext() {
+		final var joiner = new StringJoiner("\n");
+		joiner.add(LoomGradlePlugin.LOOM_VERSION);
+		joiner.add(getSourceNamespace().get());
+		joiner.add(getTargetNamespace().get());
+		joiner.add(getLoomExtension().getMappingConfiguration().mappingsIdentifier);
+		joiner.add(getLoomExtension().getPlatform().get().id());
+		joiner.add(String.valueOf(getUseMixinAP().get()));
+		getLoomExtension().getKnownIndyBsms().get().stream().sorted().forEach(joiner::add);
+
+		for (File file : getClasspath().getFiles()) {
+			if (file.isDirectory()) {
+				// Cannot cheaply tell if the contents of a directory have changed.
+				return null;
+			}
+
+			joiner.add(file.getAbsolutePath() + ":" + file.length() + ":" + file.lastModified());
+		}
+
+		return Checksum.sha1Hex(joiner.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
 	private void setupLegacyMixinRefmapRemapping(RemapParams params) {
 		final LoomGradleExtension extension = LoomGradleExtension.get(getProject());
 		final MixinExtension mixinExtension = extension.getMixin();
@@ -288,6 +343,9 @@ public abstract class RemapJarTask extends AbstractRemapJarTask {
 
 		Property<String> getTinyRemapperBuildServiceUuid();
 		Property<String> getMappingBuildServiceUuid();
+
+		Property<String> getIncrementalContext();
+		DirectoryProperty getIncrementalCacheDirectory();
 	}
 
 	public abstract static class RemapAction extends AbstractRemapAction<RemapParams> {
@@ -307,14 +365,31 @@ public abstract class RemapJarTask extends AbstractRemapJarTask {
 			try {
 				LOGGER.info("Remapping {} to {}", inputFile, outputFile);
 
+				final IncrementalRemapIndex incrementalIndex = getParameters().getIncrementalContext().isPresent()
+						? IncrementalRemapIndex.create(inputFile, getParameters().getIncrementalContext().get())
+						: null;
+				final IncrementalRemapIndex.Changes changes = getIncrementalChanges(incrementalIndex);
+
 				if (!getParameters().getMultiProjectOptimisation().getOrElse(false)) {
-					prepare();
+					if (changes != null) {
+						prepareIncremental(changes);
+					} else {
+						prepare();
+					}
 				}
 
 				if (tinyRemapperService != null) {
 					tinyRemapper = tinyRemapperService.getTinyRemapperForRemapping();
 
-					remap();
+					if (changes != null) {
+						remapIncremental(changes);
+					} else {
+						remap();
+					}
+
+					if (incrementalIndex != null) {
+						saveIncrementalSnapshot(incrementalIndex);
+					}
 				} else {
 					Files.copy(inputFile, outputFile, StandardCopyOption.REPLACE_EXISTING);
 				}
@@ -375,6 +450,110 @@ public abstract class RemapJarTask extends AbstractRemapJarTask {
 			}
 		}
 
+		@Nullable
+		private IncrementalRemapIndex.Changes getIncrementalChanges(@Nullable IncrementalRemapIndex index) throws IOException {
+			if (index == null || tinyRemapperService == null || Files.notExists(getIncrementalSnapshot())) {
+				return null;
+			}
+
+			final IncrementalRemapIndex.Changes changes = index.diff(IncrementalRemapIndex.read(getIncrementalIndexFile()));
+
+			if (changes == null) {
+				LOGGER.info("Unable to incrementally remap {}, performing a full remap", inputFile);
+			}
+
+			return changes;
+		}
+
+		// Only the changed classes are read as inputs, the rest of the jar is only needed on the classpath for the class hierarchy.
+		private void prepareIncremental(IncrementalRemapIndex.Changes changes) throws IOException {
+			Objects.requireNonNull(tinyRemapperService, "tinyRemapperService");
+
+			final Path changedClasses = getIncrementalCacheDirectory().resolve("changed");
+
+			if (Files.exists(changedClasses)) {
+				Files.walkFileTree(changedClasses, new DeletingFileVisitor());
+			}
+
+			Files.createDirectories(changedClasses);
+
+			try (var zipFile = new ZipFile(inputFile.toFile())) {
+				for (String name : changes.classes()) {
+					final Path path = changedClasses.resolve(name);
+					Files.createDirectories(path.getParent());
+
+					try (var inputStream = zipFile.getInputStream(zipFile.getEntry(name))) {
+						Files.copy(inputStream, path);
+					}
+				}
+			}
+
+			final TinyRemapper remapper = tinyRemapperService.getTinyRemapperForInputs();
+			remapper.readClassPathAsync(inputFile);
+			remapper.readInputsAsync(tinyRemapperService.getOrCreateTag(inputFile), changedClasses);
+		}
+
+		private void remapIncremental(IncrementalRemapIndex.Changes changes) throws IOException {
+			Objects.requireNonNull(tinyRemapperService, "tinyRemapperService");
+			Objects.requireNonNull(tinyRemapper, "tinyRemapper");
+
+			final Map<String, byte[]> remapped = new ConcurrentHashMap<>();
+			tinyRemapper.apply((name, bytes) -> remapped.put(name + ".class", bytes), tinyRemapperService.getOrCreateTag(inputFile));
+
+			Files.copy(getIncrementalSnapshot(), outputFile, StandardCopyOption.REPLACE_EXISTING);
+
+			try (FileSystemUtil.Delegate outputFs = FileSystemUtil.getJarFileSystem(outputFile, false);
+					FileSystemUtil.Delegate inputFs = FileSystemUtil.getJarFileSystem(inputFile, false)) {
+				for (Map.Entry<String, byte[]> entry : remapped.entrySet()) {
+					final Path path = outputFs.getPath(entry.getKey());
+					createParentDirectories(path);
+					Files.write(path, entry.getValue());
+				}
+
+				for (String resource : changes.resources()) {
+					final Path path = outputFs.getPath(resource);
+					createParentDirectories(path);
+					Files.copy(inputFs.getPath(resource), path, StandardCopyOption.REPLACE_EXISTING);
+				}
+
+				for (String resource : changes.removedResources()) {
+					Files.deleteIfExists(outputFs.getPath(resource));
+				}
+			}
+
+			LOGGER.info("Incrementally remapped {} classes and {} resources", remapped.size(), changes.resources().size() + changes.removedResources().size());
+		}
+
+		private static void createParentDirectories(Path path) throws IOException {
+			final Path parent = path.getParent();
+
+			if (parent != null) {
+				Files.createDirectories(parent);
+			}
+		}
+
+		private void saveIncrementalSnapshot(IncrementalRemapIndex index) throws IOException {
+			final Path indexFile = getIncrementalIndexFile();
+
+			// Remove the index first, so that a partially written snapshot is never trusted.
+			Files.deleteIfExists(indexFile);
+			Files.createDirectories(getIncrementalCacheDirectory());
+			Files.copy(outputFile, getIncrementalSnapshot(), StandardCopyOption.REPLACE_EXISTING);
+			index.write(indexFile);
+		}
+
+		private Path getIncrementalCacheDirectory() {
+			return getParameters().getIncrementalCacheDirectory().get().getAsFile().toPath();
+		}
+
+		private Path getIncrementalIndexFile() {
+			return getIncrementalCacheDirectory().resolve("index.json");
+		}
+
+		private Path getIncrementalSnapshot() {
+			return getIncrementalCacheDirectory().resolve("remapped.jar");
+		}
+
 		private void markClientOnlyClasses() throws IOException {
 			final Stream<Pair<String, ZipUtils.UnsafeUnaryOperator<byte[]>>> tranformers = getParameters().getClientOnlyEntries().get().stream()
 					.map(s -> new Pair<>(s,
@@ -0,0 +1,106 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2025 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.task;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import javax.inject.Inject;
+
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.api.tasks.options.Option;
+import org.jetbrains.annotations.Nullable;
+
+import net.fabricmc.loom.util.Constants;
+import net.fabricmc.loom.util.SourceRemapper;
+import net.fabricmc.loom.util.service.ScopedSharedServiceManager;
+
+/**
+ * Remaps the sources of mod dependencies on demand, when {@value Constants.Properties#LAZY_MOD_SOURCES} is enabled
+ * the sources are no longer remapped while configuring the project.
+ */
+public abstract class RemapModSourcesTask extends AbstractLoomTask {
+	private final List<PendingSources> pendingSources = new ArrayList<>();
+
+	/**
+	 * Only remap the sources of the dependencies with a {@code group:name} containing this value.
+	 */
+	@Input
+	@Optional
+	@Option(option = "dependency", description = "Only remap the sources of dependencies with a group:name containing this value")
+	public abstract Property<String> getDependency();
+
+	@Inject
+	public RemapModSourcesTask() {
+		setDescription("Remaps the sources of mod dependencies, for use by the IDE.");
+		setGroup(Constants.TaskGroup.IDE);
+		getOutputs().upToDateWhen(task -> false);
+		notCompatibleWithConfigurationCache("Remaps the mod dependencies found while configuring the project");
+	}
+
+	/**
+	 * Schedules the sources of a mod dependency to be remapped when this task runs.
+	 *
+	 * @param notation the {@code group:name} of the dependency
+	 * @param sources finds the sources jar of the dependency, only called when the dependency is being remapped
+	 * @param completionCallback called once the remapped sources have been written to the output
+	 */
+	public void schedule(String notation, Supplier<@Nullable Path> sources, Path output, Runnable completionCallback) {
+		pendingSources.add(new PendingSources(notation, sources, output, completionCallback));
+	}
+
+	@TaskAction
+	public void run() {
+		try (var serviceManager = new ScopedSharedServiceManager()) {
+			final SourceRemapper sourceRemapper = new SourceRemapper(getProject(), serviceManager, true);
+
+			for (PendingSources pending : pendingSources) {
+				if (getDependency().isPresent() && !pending.notation().contains(getDependency().get())) {
+					continue;
+				}
+
+				final @Nullable Path sources = pending.sources().get();
+
+				if (sources == null || Files.notExists(sources)) {
+					getLogger().info("No sources found for {}", pending.notation());
+					continue;
+				}
+
+				sourceRemapper.scheduleRemapSources(sources.toFile(), pending.output().toFile(), false, true, pending.completionCallback());
+			}
+
+			sourceRemapper.remapAll();
+		}
+	}
+
+	private record PendingSources(String notation, Supplier<@Nullable Path> sources, Path output, Runnable completionCallback) {
+	}
+}
@@ -25,24 +25,44 @@
 package net.fabricmc.loom.task;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
 import java.io.UncheckedIOException;
-import java.util.LinkedList;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.TreeMap;
 
 import javax.inject.Inject;
 
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
 import org.gradle.api.GradleException;
 import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.FileTree;
+import org.gradle.api.file.FileType;
+import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.IgnoreEmptyDirectories;
 import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.SkipWhenEmpty;
 import org.gradle.api.tasks.SourceTask;
 import org.gradle.api.tasks.TaskAction;
+import org.gradle.work.ChangeType;
+import org.gradle.work.FileChange;
+import org.gradle.work.Incremental;
+import org.gradle.work.InputChanges;
 import org.gradle.workers.WorkAction;
 import org.gradle.workers.WorkParameters;
 import org.gradle.workers.WorkQueue;
@@ -55,9 +75,8 @@ import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
+import net.fabricmc.loom.LoomGradlePlugin;
 import net.fabricmc.loom.util.Constants;
 import net.fabricmc.tinyremapper.extension.mixin.common.data.Constant;
 
@@ -72,9 +91,18 @@ import net.fabricmc.tinyremapper.extension.mixin.common.data.Constant;
  * }</pre>
  */
 public abstract class ValidateMixinNameTask extends SourceTask {
+	private static final String MIXIN_DESCRIPTOR = "Lorg/spongepowered/asm/mixin/Mixin;";
+	private static final byte[] MIXIN_DESCRIPTOR_BYTES = MIXIN_DESCRIPTOR.getBytes(StandardCharsets.UTF_8);
+	private static final int CLASSES_PER_WORKER = 500;
+	private static final int CONSTANT_UTF8 = 1;
+
 	@Input
 	abstract Property<Boolean> getSoftFailures();
 
+	// The validation errors of all classes, used to only validate changed classes on the next run.
+	@OutputFile
+	protected abstract RegularFileProperty getResultsFile();
+
 	@Inject
 	protected abstract WorkerExecutor getWorkerExecutor();
 
@@ -83,32 +111,121 @@ public abstract class ValidateMixinNameTask extends SourceTask {
 		setGroup("verification");
 		getProject().getTasks().getByName("check").dependsOn(this);
 		getSoftFailures().convention(false);
+		getResultsFile().convention(getProject().getLayout().getBuildDirectory().file("loom-cache/" + getName() + ".json"));
+	}
+
+	@Override
+	@InputFiles
+	@SkipWhenEmpty
+	@IgnoreEmptyDirectories
+	@PathSensitive(PathSensitivity.ABSOLUTE)
+	@Incremental
+	public FileTree getSource() {
+		return super.getSource();
 	}
 
 	@TaskAction
-	public void run() {
+	public void run(InputChanges inputChanges) throws IOException {
+		final Path resultsFile = getResultsFile().get().getAsFile().toPath();
+		final Map<String, String> previousErrors = inputChanges.isIncremental() ? readErrors(resultsFile) : null;
+		final Map<String, String> errors = new TreeMap<>();
+		final List<File> files = new ArrayList<>();
+
+		if (previousErrors != null) {
+			errors.putAll(previousErrors);
+
+			for (FileChange change : inputChanges.getFileChanges(getSource())) {
+				if (change.getFileType() != FileType.FILE || !change.getFile().getName().endsWith(".class")) {
+					continue;
+				}
+
+				errors.remove(change.getFile().getAbsolutePath());
+
+				if (change.getChangeType() != ChangeType.REMOVED) {
+					files.add(change.getFile());
+				}
+			}
+		} else {
+			files.addAll(getSource().matching(pattern -> pattern.include("**/*.class")).getFiles());
+		}
+
+		errors.putAll(validate(files));
+		writeErrors(resultsFile, errors);
+
+		if (errors.isEmpty()) {
+			return;
+		}
+
+		final String message = "Mixin name validation failed: " + String.join(System.lineSeparator(), errors.values());
+
+		if (getSoftFailures().get()) {
+			getLogger().warn(message);
+			return;
+		}
+
+		throw new GradleException(message);
+	}
+
+	// Splits the classes between workers, each worker writes the errors it finds to its own file.
+	private Map<String, String> validate(List<File> files) throws IOException {
 		final WorkQueue workQueue = getWorkerExecutor().noIsolation();
+		final List<Path> workerResults = new ArrayList<>();
+
+		for (int i = 0; i < files.size(); i += CLASSES_PER_WORKER) {
+			final List<File> batch = files.subList(i, Math.min(files.size(), i + CLASSES_PER_WORKER));
+			final File workerResultsFile = new File(getTemporaryDir(), "errors-%d.json".formatted(workerResults.size()));
+			workerResults.add(workerResultsFile.toPath());
+
+			workQueue.submit(ValidateMixinAction.class, params -> {
+				params.getInputClasses().from(batch);
+				params.getResultsFile().set(workerResultsFile);
+			});
+		}
+
+		workQueue.await();
+
+		final Map<String, String> errors = new HashMap<>();
+
+		for (Path path : workerResults) {
+			errors.putAll(Objects.requireNonNull(readErrors(path), "Missing results from worker"));
+			Files.delete(path);
+		}
+
+		return errors;
+	}
+
+	@Nullable
+	private static Map<String, String> readErrors(Path path) throws IOException {
+		if (Files.notExists(path)) {
+			return null;
+		}
+
+		try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+			return LoomGradlePlugin.GSON.fromJson(reader, new TypeToken<Map<String, String>>() { }.getType());
+		} catch (JsonParseException e) {
+			return null;
+		}
+	}
+
+	private static void writeErrors(Path path, Map<String, String> errors) throws IOException {
+		Files.createDirectories(path.getParent());
 
-		workQueue.submit(ValidateMixinAction.class, params -> {
-			params.getInputClasses().from(getSource().matching(pattern -> pattern.include("**/*.class")));
-			params.getSoftFailures().set(getSoftFailures());
-		});
+		try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+			LoomGradlePlugin.GSON.toJson(errors, writer);
+		}
 	}
 
 	public interface ValidateMixinsParams extends WorkParameters {
 		ConfigurableFileCollection getInputClasses();
-		Property<Boolean> getSoftFailures();
+		RegularFileProperty getResultsFile();
 	}
 
 	public abstract static class ValidateMixinAction implements WorkAction<ValidateMixinsParams> {
-		public static final Logger LOGGER = LoggerFactory.getLogger(ValidateMixinAction.class);
-
 		@Override
 		public void execute() {
-			final Set<File> files = getParameters().getInputClasses().getAsFileTree().getFiles();
-			final List<String> errors = new LinkedList<>();
+			final Map<String, String> errors = new HashMap<>();
 
-			for (File file : files) {
+			for (File file : getParameters().getInputClasses().getFiles()) {
 				final Mixin mixin = getMixin(file);
 
 				if (mixin == null) {
@@ -124,22 +241,15 @@ public abstract class ValidateMixinNameTask extends SourceTask {
 				}
 
 				if (!expectedMixinClassName.equals(mixinClassName)) {
-					errors.add("%s -> %s".formatted(mixin.className, expectedMixinClassName));
+					errors.put(file.getAbsolutePath(), "%s -> %s".formatted(mixin.className, expectedMixinClassName));
 				}
 			}
 
-			if (errors.isEmpty()) {
-				return;
+			try {
+				writeErrors(getParameters().getResultsFile().get().getAsFile().toPath(), errors);
+			} catch (IOException e) {
+				throw new UncheckedIOException("Failed to write mixin name validation results", e);
 			}
-
-			final String message = "Mixin name validation failed: " + errors.stream().collect(Collectors.joining(System.lineSeparator()));
-
-			if (getParameters().getSoftFailures().get()) {
-				LOGGER.warn(message);
-				return;
-			}
-
-			throw new GradleException("Mixin name validation failed: " + errors.stream().collect(Collectors.joining(System.lineSeparator())));
 		}
 	}
 
@@ -156,8 +266,8 @@ public abstract class ValidateMixinNameTask extends SourceTask {
 
 	@Nullable
 	private static Mixin getMixin(File file) {
-		try (InputStream is = new FileInputStream(file)) {
-			return getMixin(is);
+		try {
+			return getMixin(Files.readAllBytes(file.toPath()));
 		} catch (IOException e) {
 			throw new UncheckedIOException("Failed to read input file: " + file, e);
 		}
@@ -166,7 +276,16 @@ public abstract class ValidateMixinNameTask extends SourceTask {
 	@Nullable
 	@VisibleForTesting
 	public static Mixin getMixin(InputStream is) throws IOException {
-		final ClassReader reader = new ClassReader(is);
+		return getMixin(is.readAllBytes());
+	}
+
+	@Nullable
+	private static Mixin getMixin(byte[] classBytes) {
+		final ClassReader reader = new ClassReader(classBytes);
+
+		if (!containsMixinDescriptor(reader)) {
+			return null;
+		}
 
 		var classVisitor = new MixinTargetClassVisitor();
 		reader.accept(classVisitor, ClassReader.SKIP_CODE);
@@ -178,6 +297,41 @@ public abstract class ValidateMixinNameTask extends SourceTask {
 		return null;
 	}
 
+	/**
+	 * Checks the constant pool for the {@code @Mixin} descriptor, a class without it cannot be a mixin.
+	 * This is much cheaper than visiting the class, as most classes are not mixins.
+	 */
+	@VisibleForTesting
+	public static boolean containsMixinDescriptor(ClassReader reader) {
+		for (int i = 1; i < reader.getItemCount(); i++) {
+			final int offset = reader.getItem(i);
+
+			// Index 0, and the second index used by long and double constants have no item
+			if (offset == 0 || reader.readByte(offset - 1) != CONSTANT_UTF8) {
+				continue;
+			}
+
+			if (reader.readUnsignedShort(offset) != MIXIN_DESCRIPTOR_BYTES.length) {
+				continue;
+			}
+
+			boolean matches = true;
+
+			for (int j = 0; j < MIXIN_DESCRIPTOR_BYTES.length; j++) {
+				if (reader.readByte(offset + 2 + j) != MIXIN_DESCRIPTOR_BYTES[j]) {
+					matches = false;
+					break;
+				}
+			}
+
+			if (matches) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
 	private static class MixinTargetClassVisitor extends ClassVisitor {
 		Type mixinTarget;
 		String className;
@@ -201,7 +355,7 @@ public abstract class ValidateMixinNameTask extends SourceTask {
 		public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
 			AnnotationVisitor av = super.visitAnnotation(descriptor, visible);
 
-			if ("Lorg/spongepowered/asm/mixin/Mixin;".equals(descriptor)) {
+			if (MIXIN_DESCRIPTOR.equals(descriptor)) {
 				av = new MixinAnnotationVisitor(av);
 			}
 
@@ -0,0 +1,157 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2025 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.task.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.gradle.api.invocation.Gradle;
+import org.gradle.api.tasks.SourceSet;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+
+import net.fabricmc.loom.LoomGradleExtension;
+import net.fabricmc.loom.build.IntermediaryNamespaces;
+import net.fabricmc.loom.build.mixin.AnnotationProcessorInvoker;
+import net.fabricmc.loom.util.ThreadingUtils;
+import net.fabricmc.loom.util.TinyRemapperHelper;
+import net.fabricmc.loom.util.gradle.GradleUtils;
+import net.fabricmc.loom.util.gradle.SourceSetHelper;
+import net.fabricmc.loom.util.service.SharedService;
+import net.fabricmc.loom.util.service.SharedServiceManager;
+import net.fabricmc.tinyremapper.IMappingProvider;
+
+/**
+ * Provides the mixin mappings generated by the legacy mixin annotation processor for all Loom projects in the build.
+ *
+ * <p>The mixin mappings files are found once per build, and each file is only read again when it has changed.
+ * Changed files are read in parallel before the mappings are provided.
+ */
+public final class MixinMappingsService implements SharedService {
+	private final List<Source> sources;
+	private final Map<Path, LoadedMappings> loadedMappings = new ConcurrentHashMap<>();
+
+	@VisibleForTesting
+	public MixinMappingsService(List<Source> sources) {
+		this.sources = sources;
+	}
+
+	public static synchronized MixinMappingsService getOrCreate(SharedServiceManager serviceManager, Gradle gradle, String mappingId, String from, String to) {
+		final String id = "mixinMappings:%s:%s:%s".formatted(mappingId, from, to);
+		return serviceManager.getOrCreateService(id, () -> new MixinMappingsService(findSources(gradle, mappingId, from, to)));
+	}
+
+	private static List<Source> findSources(Gradle gradle, String mappingId, String from, String to) {
+		final List<Source> sources = new ArrayList<>();
+
+		GradleUtils.allLoomProjects(gradle, project -> {
+			final LoomGradleExtension extension = LoomGradleExtension.get(project);
+
+			if (!mappingId.equals(extension.getMappingConfiguration().mappingsIdentifier)) {
+				// Only find mixin mappings that are from other projects with the same mapping id.
+				return;
+			}
+
+			final String newTo = IntermediaryNamespaces.replaceMixinIntermediaryNamespace(project, to);
+
+			for (SourceSet sourceSet : SourceSetHelper.getSourceSets(project)) {
+				final File mixinMappings = AnnotationProcessorInvoker.getMixinMappingsForSourceSet(project, sourceSet);
+				sources.add(new Source(mixinMappings.toPath(), from, newTo));
+			}
+		});
+
+		return sources;
+	}
+
+	public IMappingProvider getMappingsProvider() {
+		return out -> {
+			try {
+				refresh();
+			} catch (IOException e) {
+				throw new UncheckedIOException("Failed to read mixin mappings", e);
+			}
+
+			// Loaded in the order the projects were found, so that the result does not depend on which files were read first
+			for (Source source : sources) {
+				final LoadedMappings mappings = loadedMappings.get(source.mappingsFile());
+
+				if (mappings != null) {
+					mappings.provider().load(out);
+				}
+			}
+		};
+	}
+
+	// The mixin mappings are generated by the compile tasks, so they may have been created or changed since the last time they were read.
+	private synchronized void refresh() throws IOException {
+		final List<Source> changed = new ArrayList<>();
+
+		for (Source source : sources) {
+			final String stamp = getStamp(source.mappingsFile());
+			final LoadedMappings mappings = loadedMappings.get(source.mappingsFile());
+
+			if (stamp == null) {
+				loadedMappings.remove(source.mappingsFile());
+			} else if (mappings == null || !mappings.stamp().equals(stamp)) {
+				changed.add(source);
+			}
+		}
+
+		ThreadingUtils.run(changed, source -> {
+			final String stamp = getStamp(source.mappingsFile());
+			final IMappingProvider provider = TinyRemapperHelper.create(source.mappingsFile(), source.from(), source.to(), false);
+			loadedMappings.put(source.mappingsFile(), new LoadedMappings(stamp, provider));
+		});
+	}
+
+	@Nullable
+	private static String getStamp(Path path) throws IOException {
+		if (Files.notExists(path)) {
+			return null;
+		}
+
+		final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+		return attributes.size() + ":" + attributes.lastModifiedTime().toMillis();
+	}
+
+	@Override
+	public void close() {
+		loadedMappings.clear();
+	}
+
+	public record Source(Path mappingsFile, String from, String to) {
+	}
+
+	private record LoadedMappings(String stamp, IMappingProvider provider) {
+	}
+}
@@ -0,0 +1,158 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2025 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A dynamic AppCDS archive for a run config. The archive is created when the game exits and is used by the following
+ * launches, it is keyed by the java runtime and the classpath so that it is regenerated whenever either of them changes.
+ *
+ * @param name the name of the run config
+ * @param path the path of the archive for the current java runtime and classpath
+ */
+public record AppCdsArchive(String name, Path path) {
+	private static final String EXTENSION = ".jsa";
+	private static final int HASH_LENGTH = 16;
+
+	public static AppCdsArchive create(Path directory, String name, String javaRuntime, List<File> classpath) {
+		final StringBuilder key = new StringBuilder(javaRuntime).append('\n');
+
+		for (File file : classpath) {
+			key.append(file.getAbsolutePath());
+
+			// The JVM refuses an archive when a jar has been modified since it was created.
+			if (file.isFile()) {
+				key.append(':').append(file.length()).append(':').append(file.lastModified());
+			}
+
+			key.append('\n');
+		}
+
+		final String hash = Checksum.sha1Hex(key.toString().getBytes(StandardCharsets.UTF_8)).substring(0, HASH_LENGTH);
+		return new AppCdsArchive(name, directory.resolve(name + "-" + hash + EXTENSION));
+	}
+
+	/**
+	 * The JVM fails to start when asked to create an archive with a non-empty directory on the classpath,
+	 * such as the output of a source set, so no archive can be used for such a classpath.
+	 *
+	 * @return the first non-empty directory on the classpath, or null when the classpath can be archived
+	 */
+	public static @Nullable File findNonEmptyDirectory(List<File> classpath) throws IOException {
+		for (File file : classpath) {
+			if (!file.isDirectory()) {
+				continue;
+			}
+
+			try (Stream<Path> stream = Files.list(file.toPath())) {
+				if (stream.findAny().isPresent()) {
+					return file;
+				}
+			}
+		}
+
+		return null;
+	}
+
+	public boolean exists() {
+		return Files.isRegularFile(path);
+	}
+
+	/**
+	 * @return the jvm arguments to either use the existing archive or to create it when the game exits.
+	 */
+	public List<String> getJvmArgs() throws IOException {
+		if (exists()) {
+			return List.of("-XX:SharedArchiveFile=" + path.toAbsolutePath());
+		}
+
+		Files.createDirectories(path.getParent());
+		deleteStaleArchives();
+		return List.of("-XX:ArchiveClassesAtExit=" + path.toAbsolutePath());
+	}
+
+	/**
+	 * @return a unique file for a process to dump the archive to, processes may run concurrently with the same classpath.
+	 */
+	public Path createPendingPath() {
+		return path.resolveSibling(path.getFileName() + "." + UUID.randomUUID() + ".tmp");
+	}
+
+	/**
+	 * Stores the archive dumped to the pending file when the process succeeded, otherwise the archive may be incomplete and is deleted.
+	 */
+	public void finish(Path pending, boolean success) throws IOException {
+		if (!success) {
+			Files.deleteIfExists(pending);
+			return;
+		}
+
+		if (Files.notExists(pending)) {
+			// The JVM was unable to create the archive, the process will run without one next time.
+			return;
+		}
+
+		try {
+			Files.move(pending, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			Files.deleteIfExists(pending);
+			throw e;
+		}
+
+		deleteStaleArchives();
+	}
+
+	/**
+	 * Deletes the archives of the same name that were created for a different java runtime or classpath.
+	 */
+	public void deleteStaleArchives() throws IOException {
+		final List<Path> stale;
+
+		try (Stream<Path> stream = Files.list(path.getParent())) {
+			stale = stream.filter(p -> {
+				final String fileName = p.getFileName().toString();
+				return fileName.length() == name.length() + 1 + HASH_LENGTH + EXTENSION.length()
+						&& fileName.startsWith(name + "-")
+						&& fileName.endsWith(EXTENSION)
+						&& !p.equals(path);
+			}).toList();
+		}
+
+		for (Path p : stale) {
+			Files.deleteIfExists(p);
+		}
+	}
+}
@@ -0,0 +1,60 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2025 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+
+/**
+ * Stores files in caches that are shared between builds. Each file is written to a unique temporary file first
+ * and then moved into place, so that other builds never see a partially written file.
+ */
+public final class CacheFiles {
+	private CacheFiles() {
+	}
+
+	public static void store(Path file, Path cachePath) throws IOException {
+		store(cachePath, tempPath -> Files.copy(file, tempPath));
+	}
+
+	public static void store(byte[] bytes, Path cachePath) throws IOException {
+		store(cachePath, tempPath -> Files.write(tempPath, bytes));
+	}
+
+	private static void store(Path cachePath, IOFunction<Path, ?> writer) throws IOException {
+		Files.createDirectories(cachePath.getParent());
+		final Path tempPath = cachePath.resolveSibling(cachePath.getFileName() + "." + UUID.randomUUID() + ".tmp");
+
+		try {
+			writer.apply(tempPath);
+			Files.move(tempPath, cachePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(tempPath);
+		}
+	}
+}
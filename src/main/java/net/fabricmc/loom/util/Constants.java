@@ -144,6 +144,7 @@ public class Constants {
 
 	public static final class Task {
 		public static final String PROCESS_INCLUDE_JARS = "processIncludeJars";
+		public static final String REMAP_MOD_SOURCES = "remapModSources";
 
 		private Task() {
 		}
@@ -160,8 +161,29 @@ public class Constants {
 		public static final String DISABLE_REMAPPED_VARIANTS = "fabric.loom.disableRemappedVariants";
 		public static final String DISABLE_PROJECT_DEPENDENT_MODS = "fabric.loom.disableProjectDependentMods";
 		public static final String LIBRARY_PROCESSORS = "fabric.loom.libraryProcessors";
+		/**
+		 * A shared directory or the url of a read-through mirror, used as a content addressed cache for downloads with a known hash.
+		 */
+		public static final String DOWNLOAD_CACHE = "fabric.loom.downloadCache";
+		/**
+		 * Use outdated version manifests and metadata while they are revalidated in the background, rather than waiting for the network.
+		 */
+		@ApiStatus.Experimental
+		public static final String STALE_WHILE_REVALIDATE = "fabric.loom.experimental.staleWhileRevalidate";
+		/**
+		 * Only remap the sources of mod dependencies when the {@code remapModSources} task is run, rather than while configuring the project.
+		 * The task is run by IntelliJ IDEA syncs.
+		 */
+		@ApiStatus.Experimental
+		public static final String LAZY_MOD_SOURCES = "fabric.loom.experimental.lazyModSources";
 		@ApiStatus.Experimental
 		public static final String SANDBOX = "fabric.loom.experimental.sandbox";
+		@ApiStatus.Experimental
+		public static final String INCREMENTAL_REMAP_JAR = "fabric.loom.experimental.incrementalRemapJar";
+		@ApiStatus.Experimental
+		public static final String APP_CDS = "fabric.loom.experimental.appCds";
+		@ApiStatus.Experimental
+		public static final String FORGE_TOOL_CDS = "fabric.loom.experimental.forgeToolCds";
 		public static final String ALLOW_MISMATCHED_PLATFORM_VERSION = "loom.allowMismatchedPlatformVersion";
 		public static final String IGNORE_DEPENDENCY_LOOM_VERSION_VALIDATION = "loom.ignoreDependencyLoomVersionValidation";
 	}
@@ -24,10 +24,18 @@
 
 package net.fabricmc.loom.util;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
 import javax.inject.Inject;
 
 import org.apache.commons.io.output.NullOutputStream;
 import org.gradle.api.Action;
+import org.gradle.api.JavaVersion;
 import org.gradle.api.Project;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.api.logging.configuration.ShowStacktrace;
@@ -39,9 +47,15 @@ import org.gradle.process.ExecResult;
 import org.gradle.process.JavaExecSpec;
 import org.jetbrains.annotations.Nullable;
 
+import net.fabricmc.loom.LoomGradleExtension;
+import net.fabricmc.loom.util.gradle.GradleUtils;
+
 /**
  * Contains helpers for executing Forge's command line tools
  * with suppressed output streams to prevent annoying log spam.
+ *
+ * <p>When {@value Constants.Properties#FORGE_TOOL_CDS} is enabled, a dynamic AppCDS archive is created
+ * for each tool classpath the first time it is run, and used to speed up the JVM startup of later invocations.
  */
 public abstract class ForgeToolExecutor {
 	@Inject
@@ -74,7 +88,11 @@ public abstract class ForgeToolExecutor {
 
 	private ExecResult exec(Action<? super JavaExecSpec> configurator) {
 		final Project project = getProject();
-		return project.javaexec(spec -> {
+		final @Nullable JavaLauncher launcher = findJavaToolchainLauncher(project);
+		final AtomicReference<AppCdsArchive> archive = new AtomicReference<>();
+		final AtomicReference<Path> pendingArchive = new AtomicReference<>();
+
+		final Action<JavaExecSpec> action = spec -> {
 			configurator.execute(spec);
 
 			if (shouldShowVerboseStdout(project)) {
@@ -94,15 +112,79 @@ public abstract class ForgeToolExecutor {
 			//  - Gradle disables native services in test kit environments.
 			//  - The only resolver plugin I could find, foojay-resolver,
 			//    requires the services for finding the OS architecture.
-			final @Nullable String executable = findJavaToolchainExecutable(project);
+			if (launcher != null) {
+				spec.setExecutable(launcher.getExecutablePath().getAsFile().getAbsolutePath());
+			}
+
+			final @Nullable AppCdsArchive toolArchive = getAppCdsArchive(project, launcher, spec);
+
+			if (toolArchive != null) {
+				archive.set(toolArchive);
+
+				if (toolArchive.exists()) {
+					spec.jvmArgs("-XX:SharedArchiveFile=" + toolArchive.path().toAbsolutePath());
+				} else {
+					final Path pending = toolArchive.createPendingPath();
+					pendingArchive.set(pending);
+					spec.jvmArgs("-XX:ArchiveClassesAtExit=" + pending.toAbsolutePath());
+				}
+			}
+		};
+
+		ExecResult result = null;
+
+		try {
+			result = project.javaexec(action);
+		} finally {
+			final Path pending = pendingArchive.get();
+
+			if (pending != null) {
+				try {
+					archive.get().finish(pending, result != null && result.getExitValue() == 0);
+				} catch (IOException e) {
+					project.getLogger().debug("Failed to store tool CDS archive {}", archive.get().path(), e);
+				}
+			}
+		}
 
-			if (executable != null) {
-				spec.setExecutable(executable);
+		return result;
+	}
+
+	private @Nullable AppCdsArchive getAppCdsArchive(Project project, @Nullable JavaLauncher launcher, JavaExecSpec spec) {
+		if (!GradleUtils.getBooleanProperty(project, Constants.Properties.FORGE_TOOL_CDS)) {
+			return null;
+		}
+
+		final boolean supported = launcher != null
+				? launcher.getMetadata().getLanguageVersion().canCompileOrRun(13)
+				: JavaVersion.current().isCompatibleWith(JavaVersion.VERSION_13);
+		final @Nullable String mainClass = spec.getMainClass().getOrNull();
+
+		if (!supported || mainClass == null || spec.getClasspath().isEmpty()) {
+			return null;
+		}
+
+		final String javaRuntime = launcher != null
+				? launcher.getMetadata().getJavaRuntimeVersion() + " " + launcher.getMetadata().getInstallationPath()
+				: System.getProperty("java.runtime.version") + " " + System.getProperty("java.home");
+		final Path directory = new File(LoomGradleExtension.get(project).getFiles().getProjectPersistentCache(), "cds/tools").toPath();
+		final List<File> classpath = List.copyOf(spec.getClasspath().getFiles());
+
+		try {
+			if (AppCdsArchive.findNonEmptyDirectory(classpath) != null) {
+				return null;
 			}
-		});
+
+			Files.createDirectories(directory);
+		} catch (IOException e) {
+			project.getLogger().debug("Failed to create tool CDS directory", e);
+			return null;
+		}
+
+		return AppCdsArchive.create(directory, mainClass, javaRuntime, classpath);
 	}
 
-	private @Nullable String findJavaToolchainExecutable(Project project) {
+	private @Nullable JavaLauncher findJavaToolchainLauncher(Project project) {
 		final JavaPluginExtension java = project.getExtensions().getByType(JavaPluginExtension.class);
 		final JavaToolchainSpec toolchain = java.getToolchain();
 
@@ -111,7 +193,6 @@ public abstract class ForgeToolExecutor {
 			return null;
 		}
 
-		final JavaLauncher launcher = getToolchainService().launcherFor(toolchain).get();
-		return launcher.getExecutablePath().getAsFile().getAbsolutePath();
+		return getToolchainService().launcherFor(toolchain).get();
 	}
 }
@@ -0,0 +1,125 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2025 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.cadixdev.mercury.Mercury;
+
+/**
+ * Runs source remapping jobs in parallel over a small pool of {@link Mercury} instances.
+ * Mercury instances are not thread safe, so each instance is only used by one job at a time.
+ */
+public final class MercuryPool {
+	// Each instance holds its own mapping set and JDT environment, so the number used at once is limited to bound memory usage.
+	private static final int MAX_THREADS = 4;
+
+	private MercuryPool() {
+	}
+
+	/**
+	 * Runs the job for each of the values, creating at most one Mercury instance per thread.
+	 * The factory must return a new instance with its own mapping set each time, as Lorenz mutates mapping sets while remapping.
+	 */
+	public static <T> void run(Collection<T> values, Factory factory, Job<T> job) throws IOException {
+		final int threads = Math.min(values.size(), Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors()));
+
+		if (threads == 0) {
+			return;
+		}
+
+		if (threads == 1) {
+			final Mercury mercury = factory.create();
+
+			for (T value : values) {
+				job.run(mercury, value);
+			}
+
+			return;
+		}
+
+		final BlockingQueue<Mercury> pool = new ArrayBlockingQueue<>(threads);
+
+		for (int i = 0; i < threads; i++) {
+			pool.add(factory.create());
+		}
+
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+		try {
+			final List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+			for (T value : values) {
+				futures.add(CompletableFuture.runAsync(() -> {
+					final Mercury mercury;
+
+					try {
+						mercury = pool.take();
+					} catch (InterruptedException e) {
+						throw new RuntimeException(e);
+					}
+
+					try {
+						job.run(mercury, value);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					} finally {
+						pool.add(mercury);
+					}
+				}, executor));
+			}
+
+			CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof UncheckedIOException uncheckedIOException) {
+				throw uncheckedIOException.getCause();
+			}
+
+			throw e.getCause() instanceof RuntimeException runtimeException ? runtimeException : e;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@FunctionalInterface
+	public interface Factory {
+		Mercury create() throws IOException;
+	}
+
+	@FunctionalInterface
+	public interface Job<T> {
+		void run(Mercury mercury, T value) throws IOException;
+	}
+}
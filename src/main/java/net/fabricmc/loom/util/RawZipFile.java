@@ -0,0 +1,402 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2024 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A minimal zip reader that exposes the raw (still compressed) data of each entry, so that it can be copied into
+ * another zip with {@link RawZipWriter} without being inflated and deflated again.
+ *
+ * <p>Only the central directory is read up front, entry data is read on demand. Zip64 archives are supported,
+ * encrypted entries are not.
+ */
+public final class RawZipFile implements Closeable {
+	static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+	static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+	static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+	static final int ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06064b50;
+	static final int ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_SIGNATURE = 0x07064b50;
+	static final int ZIP64_EXTRA_ID = 0x0001;
+	static final int LOCAL_HEADER_SIZE = 30;
+	static final int CENTRAL_HEADER_SIZE = 46;
+	static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+
+	private final Path path;
+	private final FileChannel channel;
+	private final Map<String, Entry> entries;
+	private long centralDirectoryOffset;
+
+	private RawZipFile(Path path, FileChannel channel) throws IOException {
+		this.path = path;
+		this.channel = channel;
+		this.entries = Collections.unmodifiableMap(readCentralDirectory());
+	}
+
+	public static RawZipFile open(Path path) throws IOException {
+		final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+
+		try {
+			return new RawZipFile(path, channel);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	public Path getPath() {
+		return path;
+	}
+
+	/**
+	 * @return the entries in the order they appear in the central directory
+	 */
+	public List<Entry> getEntries() {
+		return new ArrayList<>(entries.values());
+	}
+
+	@Nullable
+	public Entry getEntry(String name) {
+		return entries.get(name);
+	}
+
+	/**
+	 * @return a stream of the uncompressed data of the entry
+	 */
+	public InputStream getInputStream(Entry entry) throws IOException {
+		final InputStream raw = Channels.newInputStream(new BoundedChannel(getDataOffset(entry), entry.compressedSize()));
+
+		return switch (entry.method()) {
+		case ZipEntry.STORED -> raw;
+		// A trailing dummy byte is required by the inflater when reading raw deflate data, see ZipFile.
+		case ZipEntry.DEFLATED -> new InflaterInputStream(new SequenceInputStream(raw, new ByteArrayInputStream(new byte[1])), new Inflater(true), 8192) {
+			@Override
+			public void close() throws IOException {
+				super.close();
+				inf.end();
+			}
+		};
+		default -> throw new ZipException("Unsupported compression method %d for %s in %s".formatted(entry.method(), entry.name(), path));
+		};
+	}
+
+	public byte[] readAllBytes(Entry entry) throws IOException {
+		try (InputStream inputStream = getInputStream(entry)) {
+			return inputStream.readAllBytes();
+		}
+	}
+
+	/**
+	 * Transfers the raw compressed data of the entry to the given channel.
+	 */
+	void transferRawData(Entry entry, FileChannel target) throws IOException {
+		long position = getDataOffset(entry);
+		long remaining = entry.compressedSize();
+
+		while (remaining > 0) {
+			final long transferred = channel.transferTo(position, remaining, target);
+
+			if (transferred <= 0) {
+				throw new EOFException("Unexpected end of " + path);
+			}
+
+			position += transferred;
+			remaining -= transferred;
+		}
+	}
+
+	/**
+	 * @return the offset of the central directory, this is also the end of the last entry's data
+	 */
+	long getCentralDirectoryOffset() {
+		return centralDirectoryOffset;
+	}
+
+	/**
+	 * @return the extra field of the entry's local header, this can differ from the central directory extra field.
+	 */
+	byte[] readLocalExtra(Entry entry) throws IOException {
+		final ByteBuffer header = read(entry.localHeaderOffset(), LOCAL_HEADER_SIZE);
+		checkSignature(header, LOCAL_HEADER_SIGNATURE, "local file header");
+
+		final int nameLength = Short.toUnsignedInt(header.getShort(26));
+		final int extraLength = Short.toUnsignedInt(header.getShort(28));
+		final ByteBuffer extra = read(entry.localHeaderOffset() + LOCAL_HEADER_SIZE + nameLength, extraLength);
+		final byte[] bytes = new byte[extraLength];
+		extra.get(bytes);
+		return bytes;
+	}
+
+	private long getDataOffset(Entry entry) throws IOException {
+		final ByteBuffer header = read(entry.localHeaderOffset(), LOCAL_HEADER_SIZE);
+		checkSignature(header, LOCAL_HEADER_SIGNATURE, "local file header");
+
+		final int nameLength = Short.toUnsignedInt(header.getShort(26));
+		final int extraLength = Short.toUnsignedInt(header.getShort(28));
+		return entry.localHeaderOffset() + LOCAL_HEADER_SIZE + nameLength + extraLength;
+	}
+
+	private Map<String, Entry> readCentralDirectory() throws IOException {
+		final long size = channel.size();
+		// The end of central directory record is followed by a comment of up to 65535 bytes.
+		final int searchLength = (int) Math.min(size, END_OF_CENTRAL_DIRECTORY_SIZE + 0xFFFF);
+		final ByteBuffer tail = read(size - searchLength, searchLength);
+		int eocdPosition = -1;
+
+		for (int i = searchLength - END_OF_CENTRAL_DIRECTORY_SIZE; i >= 0; i--) {
+			if (tail.getInt(i) == END_OF_CENTRAL_DIRECTORY_SIGNATURE) {
+				eocdPosition = i;
+				break;
+			}
+		}
+
+		if (eocdPosition < 0) {
+			throw new ZipException("Could not find end of central directory in " + path);
+		}
+
+		long entryCount = Short.toUnsignedInt(tail.getShort(eocdPosition + 10));
+		long centralDirectorySize = Integer.toUnsignedLong(tail.getInt(eocdPosition + 12));
+		long centralDirectoryOffset = Integer.toUnsignedLong(tail.getInt(eocdPosition + 16));
+
+		if (entryCount == 0xFFFF || centralDirectorySize == 0xFFFFFFFFL || centralDirectoryOffset == 0xFFFFFFFFL) {
+			final long locatorPosition = size - searchLength + eocdPosition - 20;
+
+			if (locatorPosition >= 0) {
+				final ByteBuffer locator = read(locatorPosition, 20);
+
+				if (locator.getInt(0) == ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_SIGNATURE) {
+					final ByteBuffer zip64 = read(locator.getLong(8), 56);
+					checkSignature(zip64, ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE, "zip64 end of central directory");
+					entryCount = zip64.getLong(32);
+					centralDirectorySize = zip64.getLong(40);
+					centralDirectoryOffset = zip64.getLong(48);
+				}
+			}
+		}
+
+		this.centralDirectoryOffset = centralDirectoryOffset;
+		final ByteBuffer centralDirectory = read(centralDirectoryOffset, Math.toIntExact(centralDirectorySize));
+		final Map<String, Entry> entries = new LinkedHashMap<>();
+
+		for (long i = 0; i < entryCount; i++) {
+			checkSignature(centralDirectory, CENTRAL_HEADER_SIGNATURE, "central directory file header");
+
+			final int start = centralDirectory.position();
+			final int versionMadeBy = Short.toUnsignedInt(centralDirectory.getShort(start + 4));
+			final int flags = Short.toUnsignedInt(centralDirectory.getShort(start + 8));
+			final int method = Short.toUnsignedInt(centralDirectory.getShort(start + 10));
+			final int dosTime = centralDirectory.getInt(start + 12);
+			final long crc = Integer.toUnsignedLong(centralDirectory.getInt(start + 16));
+			long compressedSize = Integer.toUnsignedLong(centralDirectory.getInt(start + 20));
+			long uncompressedSize = Integer.toUnsignedLong(centralDirectory.getInt(start + 24));
+			final int nameLength = Short.toUnsignedInt(centralDirectory.getShort(start + 28));
+			final int extraLength = Short.toUnsignedInt(centralDirectory.getShort(start + 30));
+			final int commentLength = Short.toUnsignedInt(centralDirectory.getShort(start + 32));
+			final int externalAttributes = centralDirectory.getInt(start + 38);
+			long localHeaderOffset = Integer.toUnsignedLong(centralDirectory.getInt(start + 42));
+
+			if ((flags & 1) != 0) {
+				throw new ZipException("Encrypted entries are not supported in " + path);
+			}
+
+			final byte[] name = new byte[nameLength];
+			final byte[] extra = new byte[extraLength];
+			final byte[] comment = new byte[commentLength];
+			centralDirectory.position(start + CENTRAL_HEADER_SIZE);
+			centralDirectory.get(name);
+			centralDirectory.get(extra);
+			centralDirectory.get(comment);
+
+			// Values that did not fit are stored in the zip64 extra field, in this fixed order.
+			final ByteBuffer zip64 = findExtra(extra, ZIP64_EXTRA_ID);
+
+			if (zip64 != null) {
+				if (uncompressedSize == 0xFFFFFFFFL) uncompressedSize = zip64.getLong();
+				if (compressedSize == 0xFFFFFFFFL) compressedSize = zip64.getLong();
+				if (localHeaderOffset == 0xFFFFFFFFL) localHeaderOffset = zip64.getLong();
+			}
+
+			final var entry = new Entry(new String(name, StandardCharsets.UTF_8), versionMadeBy, flags, method, dosTime, crc, compressedSize, uncompressedSize, removeExtra(extra, ZIP64_EXTRA_ID), comment, externalAttributes, localHeaderOffset);
+			entries.putIfAbsent(entry.name(), entry);
+		}
+
+		return entries;
+	}
+
+	private ByteBuffer read(long position, int length) throws IOException {
+		final ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				throw new EOFException("Unexpected end of " + path);
+			}
+		}
+
+		return buffer.flip();
+	}
+
+	private void checkSignature(ByteBuffer buffer, int signature, String what) throws ZipException {
+		if (buffer.getInt(buffer.position()) != signature) {
+			throw new ZipException("Invalid %s in %s".formatted(what, path));
+		}
+	}
+
+	@Nullable
+	static ByteBuffer findExtra(byte[] extra, int id) {
+		final ByteBuffer buffer = ByteBuffer.wrap(extra).order(ByteOrder.LITTLE_ENDIAN);
+
+		while (buffer.remaining() >= 4) {
+			final int headerId = Short.toUnsignedInt(buffer.getShort());
+			final int length = Short.toUnsignedInt(buffer.getShort());
+
+			if (length > buffer.remaining()) {
+				break;
+			}
+
+			if (headerId == id) {
+				return buffer.slice(buffer.position(), length).order(ByteOrder.LITTLE_ENDIAN);
+			}
+
+			buffer.position(buffer.position() + length);
+		}
+
+		return null;
+	}
+
+	static byte[] removeExtra(byte[] extra, int... ids) {
+		final ByteBuffer buffer = ByteBuffer.wrap(extra).order(ByteOrder.LITTLE_ENDIAN);
+		final ByteBuffer result = ByteBuffer.allocate(extra.length);
+
+		outer:
+		while (buffer.remaining() >= 4) {
+			final int start = buffer.position();
+			final int headerId = Short.toUnsignedInt(buffer.getShort());
+			final int length = Short.toUnsignedInt(buffer.getShort());
+
+			if (length > buffer.remaining()) {
+				break;
+			}
+
+			buffer.position(buffer.position() + length);
+
+			for (int id : ids) {
+				if (headerId == id) {
+					continue outer;
+				}
+			}
+
+			result.put(extra, start, 4 + length);
+		}
+
+		final byte[] bytes = new byte[result.position()];
+		result.flip().get(bytes);
+		return bytes;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * An entry as described by the central directory.
+	 *
+	 * @param dosTime the MS-DOS time (low 16 bits) and date (high 16 bits) of the entry
+	 * @param extra the central directory extra field, without any zip64 data
+	 */
+	public record Entry(String name, int versionMadeBy, int flags, int method, int dosTime, long crc, long compressedSize, long size, byte[] extra, byte[] comment, int externalAttributes, long localHeaderOffset) {
+		public boolean isDirectory() {
+			return name.endsWith("/");
+		}
+	}
+
+	// Reads a fixed region of the file, without changing the position of the shared channel.
+	private final class BoundedChannel implements ReadableByteChannel {
+		private long position;
+		private long remaining;
+
+		private BoundedChannel(long position, long length) {
+			this.position = position;
+			this.remaining = length;
+		}
+
+		@Override
+		public int read(ByteBuffer dst) throws IOException {
+			if (remaining <= 0) {
+				return -1;
+			}
+
+			final ByteBuffer limited = dst.slice();
+
+			if (limited.remaining() > remaining) {
+				limited.limit((int) remaining);
+			}
+
+			final int read = channel.read(limited, position);
+
+			if (read < 0) {
+				throw new EOFException("Unexpected end of " + path);
+			}
+
+			dst.position(dst.position() + read);
+			position += read;
+			remaining -= read;
+			return read;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return channel.isOpen();
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
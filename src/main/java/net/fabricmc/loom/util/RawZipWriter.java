@@ -0,0 +1,402 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2024 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+/**
+ * A minimal zip writer that can copy entries from a {@link RawZipFile} without recompressing them,
+ * alongside new entries that are compressed as they are written.
+ *
+ * <p>Entries are written in the order they are added, data descriptors are never used.
+ */
+public final class RawZipWriter implements Closeable {
+	/**
+	 * The MS-DOS time used for entries when file timestamps are not preserved, 1980-01-01 00:00.
+	 */
+	public static final int CONSTANT_DOS_TIME = toDosTime(LocalDateTime.of(1980, 1, 1, 0, 0, 0));
+
+	private static final int VERSION_NEEDED = 20;
+	private static final int VERSION_NEEDED_ZIP64 = 45;
+	private static final int UTF8_FLAG = 1 << 11;
+	private static final int DATA_DESCRIPTOR_FLAG = 1 << 3;
+
+	private final FileChannel channel;
+	private final List<CentralEntry> centralEntries = new ArrayList<>();
+	private final Set<String> names = new HashSet<>();
+	private long position;
+
+	public RawZipWriter(Path path) throws IOException {
+		this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+	}
+
+	private RawZipWriter(FileChannel channel, long position) {
+		this.channel = channel;
+		this.position = position;
+	}
+
+	/**
+	 * Opens an existing zip to add entries to the end of it. The data of the existing entries is left in place,
+	 * only the central directory is rewritten when the writer is closed.
+	 *
+	 * <p>The zip is left incomplete until the writer is closed, the caller should discard it if an exception is thrown.
+	 */
+	public static RawZipWriter append(Path path) throws IOException {
+		try (RawZipFile zipFile = RawZipFile.open(path)) {
+			final long centralDirectoryOffset = zipFile.getCentralDirectoryOffset();
+			final FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE);
+
+			try {
+				channel.truncate(centralDirectoryOffset);
+				channel.position(centralDirectoryOffset);
+			} catch (IOException e) {
+				channel.close();
+				throw e;
+			}
+
+			final var writer = new RawZipWriter(channel, centralDirectoryOffset);
+
+			for (RawZipFile.Entry entry : zipFile.getEntries()) {
+				writer.names.add(entry.name());
+				writer.centralEntries.add(new CentralEntry(entry.name(), entry.versionMadeBy(), entry.flags(), entry.method(), entry.dosTime(), entry.crc(), entry.compressedSize(), entry.size(), entry.extra(), entry.comment(), entry.externalAttributes(), entry.localHeaderOffset()));
+			}
+
+			return writer;
+		}
+	}
+
+	public boolean contains(String name) {
+		return names.contains(name);
+	}
+
+	/**
+	 * Copies an entry as is, without inflating it.
+	 */
+	public void copy(RawZipFile source, RawZipFile.Entry entry) throws IOException {
+		copy(source, entry, entry.name(), true);
+	}
+
+	/**
+	 * Copies an entry without inflating it.
+	 *
+	 * @param name the name of the entry in this zip
+	 * @param preserveTimestamp when false the entry is normalized like a newly written entry. It uses {@link #CONSTANT_DOS_TIME},
+	 * and the extra fields, comment, file attributes and version made by of the source entry are not copied,
+	 * as these depend on the machine and tool that created the source zip.
+	 */
+	public void copy(RawZipFile source, RawZipFile.Entry entry, String name, boolean preserveTimestamp) throws IOException {
+		final CentralEntry central;
+		final byte[] localExtra;
+
+		if (preserveTimestamp) {
+			final int flags = (entry.flags() & ~DATA_DESCRIPTOR_FLAG) | nameFlags(name);
+			central = new CentralEntry(name, entry.versionMadeBy(), flags, entry.method(), entry.dosTime(), entry.crc(), entry.compressedSize(), entry.size(), entry.extra(), entry.comment(), entry.externalAttributes(), position);
+			localExtra = RawZipFile.removeExtra(source.readLocalExtra(entry), RawZipFile.ZIP64_EXTRA_ID);
+		} else {
+			central = new CentralEntry(name, VERSION_NEEDED, nameFlags(name), entry.method(), CONSTANT_DOS_TIME, entry.crc(), entry.compressedSize(), entry.size(), new byte[0], new byte[0], 0, position);
+			localExtra = new byte[0];
+		}
+
+		writeLocalHeader(central, localExtra);
+		source.transferRawData(entry, channel);
+		position += entry.compressedSize();
+		centralEntries.add(central);
+	}
+
+	/**
+	 * Writes a new entry.
+	 *
+	 * @param method either {@link ZipEntry#DEFLATED} or {@link ZipEntry#STORED}
+	 * @param dosTime the MS-DOS time of the entry, see {@link #toDosTime(LocalDateTime)}
+	 */
+	public void write(String name, byte[] data, int method, int dosTime) throws IOException {
+		final var crc = new CRC32();
+		crc.update(data);
+
+		final byte[] compressed = switch (method) {
+		case ZipEntry.STORED -> data;
+		case ZipEntry.DEFLATED -> deflate(data);
+		default -> throw new ZipException("Unsupported compression method " + method);
+		};
+
+		final var central = new CentralEntry(name, VERSION_NEEDED, nameFlags(name), method, dosTime, crc.getValue(), compressed.length, data.length, new byte[0], new byte[0], 0, position);
+		writeLocalHeader(central, new byte[0]);
+		writeFully(ByteBuffer.wrap(compressed));
+		position += compressed.length;
+		centralEntries.add(central);
+	}
+
+	/**
+	 * Writes a new uncompressed entry with the contents of a file, the file is streamed rather than read into memory.
+	 *
+	 * @param dosTime the MS-DOS time of the entry, see {@link #toDosTime(LocalDateTime)}
+	 */
+	public void writeStored(String name, Path file, int dosTime) throws IOException {
+		final long size = Files.size(file);
+		final var crc = new CRC32();
+
+		try (InputStream inputStream = Files.newInputStream(file)) {
+			final byte[] buffer = new byte[8192];
+			int length;
+
+			while ((length = inputStream.read(buffer)) > 0) {
+				crc.update(buffer, 0, length);
+			}
+		}
+
+		final var central = new CentralEntry(name, VERSION_NEEDED, nameFlags(name), ZipEntry.STORED, dosTime, crc.getValue(), size, size, new byte[0], new byte[0], 0, position);
+		writeLocalHeader(central, new byte[0]);
+
+		try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ)) {
+			long transferred = 0;
+
+			while (transferred < size) {
+				final long count = source.transferTo(transferred, size - transferred, channel);
+
+				if (count <= 0) {
+					throw new ZipException("Unexpected end of " + file);
+				}
+
+				transferred += count;
+			}
+		}
+
+		position += size;
+		centralEntries.add(central);
+	}
+
+	/**
+	 * Writes a directory entry, the name must end with a {@code /}.
+	 */
+	public void writeDirectory(String name, int dosTime) throws IOException {
+		if (!name.endsWith("/")) {
+			throw new IllegalArgumentException("Directory name must end with '/': " + name);
+		}
+
+		write(name, new byte[0], ZipEntry.STORED, dosTime);
+	}
+
+	/**
+	 * Writes directory entries for any parent directories of the given entry name that have not been written yet.
+	 */
+	public void writeParentDirectories(String name, int dosTime) throws IOException {
+		int index = name.indexOf('/');
+
+		while (index > 0 && index < name.length() - 1) {
+			final String directory = name.substring(0, index + 1);
+
+			if (!contains(directory)) {
+				writeDirectory(directory, dosTime);
+			}
+
+			index = name.indexOf('/', index + 1);
+		}
+	}
+
+	private void writeLocalHeader(CentralEntry entry, byte[] extra) throws IOException {
+		if (!names.add(entry.name())) {
+			throw new ZipException("Duplicate zip entry: " + entry.name());
+		}
+
+		if (entry.compressedSize() >= 0xFFFFFFFFL || entry.size() >= 0xFFFFFFFFL) {
+			throw new ZipException("Entry is too large: " + entry.name());
+		}
+
+		final byte[] name = entry.name().getBytes(StandardCharsets.UTF_8);
+		final ByteBuffer header = ByteBuffer.allocate(RawZipFile.LOCAL_HEADER_SIZE + name.length + extra.length).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(RawZipFile.LOCAL_HEADER_SIGNATURE);
+		header.putShort((short) VERSION_NEEDED);
+		header.putShort((short) entry.flags());
+		header.putShort((short) entry.method());
+		header.putInt(entry.dosTime());
+		header.putInt((int) entry.crc());
+		header.putInt((int) entry.compressedSize());
+		header.putInt((int) entry.size());
+		header.putShort((short) name.length);
+		header.putShort((short) extra.length);
+		header.put(name);
+		header.put(extra);
+		writeFully(header.flip());
+		position += header.limit();
+	}
+
+	@Override
+	public void close() throws IOException {
+		try (channel) {
+			final long centralDirectoryOffset = position;
+
+			for (CentralEntry entry : centralEntries) {
+				writeCentralHeader(entry);
+			}
+
+			final long centralDirectorySize = position - centralDirectoryOffset;
+			final boolean zip64 = centralEntries.size() >= 0xFFFF || centralDirectoryOffset >= 0xFFFFFFFFL || centralDirectorySize >= 0xFFFFFFFFL;
+
+			if (zip64) {
+				final long zip64Offset = position;
+				final ByteBuffer record = ByteBuffer.allocate(56 + 20).order(ByteOrder.LITTLE_ENDIAN);
+				record.putInt(RawZipFile.ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE);
+				record.putLong(44);
+				record.putShort((short) VERSION_NEEDED_ZIP64);
+				record.putShort((short) VERSION_NEEDED_ZIP64);
+				record.putInt(0);
+				record.putInt(0);
+				record.putLong(centralEntries.size());
+				record.putLong(centralEntries.size());
+				record.putLong(centralDirectorySize);
+				record.putLong(centralDirectoryOffset);
+				record.putInt(RawZipFile.ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_SIGNATURE);
+				record.putInt(0);
+				record.putLong(zip64Offset);
+				record.putInt(1);
+				writeFully(record.flip());
+				position += record.limit();
+			}
+
+			final ByteBuffer end = ByteBuffer.allocate(RawZipFile.END_OF_CENTRAL_DIRECTORY_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			end.putInt(RawZipFile.END_OF_CENTRAL_DIRECTORY_SIGNATURE);
+			end.putShort((short) 0);
+			end.putShort((short) 0);
+			end.putShort((short) Math.min(centralEntries.size(), 0xFFFF));
+			end.putShort((short) Math.min(centralEntries.size(), 0xFFFF));
+			end.putInt((int) Math.min(centralDirectorySize, 0xFFFFFFFFL));
+			end.putInt((int) Math.min(centralDirectoryOffset, 0xFFFFFFFFL));
+			end.putShort((short) 0);
+			writeFully(end.flip());
+		}
+	}
+
+	private void writeCentralHeader(CentralEntry entry) throws IOException {
+		final byte[] name = entry.name().getBytes(StandardCharsets.UTF_8);
+		final boolean zip64 = entry.localHeaderOffset() >= 0xFFFFFFFFL;
+		byte[] extra = entry.extra();
+
+		if (zip64) {
+			final ByteBuffer zip64Extra = ByteBuffer.allocate(extra.length + 12).order(ByteOrder.LITTLE_ENDIAN);
+			zip64Extra.putShort((short) RawZipFile.ZIP64_EXTRA_ID);
+			zip64Extra.putShort((short) 8);
+			zip64Extra.putLong(entry.localHeaderOffset());
+			zip64Extra.put(extra);
+			extra = zip64Extra.array();
+		}
+
+		final ByteBuffer header = ByteBuffer.allocate(RawZipFile.CENTRAL_HEADER_SIZE + name.length + extra.length + entry.comment().length).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(RawZipFile.CENTRAL_HEADER_SIGNATURE);
+		header.putShort((short) entry.versionMadeBy());
+		header.putShort((short) (zip64 ? VERSION_NEEDED_ZIP64 : VERSION_NEEDED));
+		header.putShort((short) entry.flags());
+		header.putShort((short) entry.method());
+		header.putInt(entry.dosTime());
+		header.putInt((int) entry.crc());
+		header.putInt((int) entry.compressedSize());
+		header.putInt((int) entry.size());
+		header.putShort((short) name.length);
+		header.putShort((short) extra.length);
+		header.putShort((short) entry.comment().length);
+		header.putShort((short) 0);
+		header.putShort((short) 0);
+		header.putInt(entry.externalAttributes());
+		header.putInt((int) Math.min(entry.localHeaderOffset(), 0xFFFFFFFFL));
+		header.put(name);
+		header.put(extra);
+		header.put(entry.comment());
+		writeFully(header.flip());
+		position += header.limit();
+	}
+
+	private void writeFully(ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	private static int nameFlags(String name) {
+		return StandardCharsets.US_ASCII.newEncoder().canEncode(name) ? 0 : UTF8_FLAG;
+	}
+
+	private static byte[] deflate(byte[] data) {
+		final var deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+
+		try {
+			deflater.setInput(data);
+			deflater.finish();
+
+			final var out = new ByteArrayOutputStream(Math.max(64, data.length / 2));
+			final byte[] buffer = new byte[8192];
+
+			while (!deflater.finished()) {
+				final int length = deflater.deflate(buffer);
+				out.write(buffer, 0, length);
+			}
+
+			return out.toByteArray();
+		} finally {
+			deflater.end();
+		}
+	}
+
+	public static int toDosTime(LocalDateTime time) {
+		return (time.getYear() - 1980) << 25
+				| time.getMonthValue() << 21
+				| time.getDayOfMonth() << 16
+				| time.getHour() << 11
+				| time.getMinute() << 5
+				| time.getSecond() >> 1;
+	}
+
+	public static int toDosTime(long epochMillis) {
+		final LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+
+		if (time.getYear() < 1980) {
+			return CONSTANT_DOS_TIME;
+		}
+
+		return toDosTime(time);
+	}
+
+	private record CentralEntry(String name, int versionMadeBy, int flags, int method, int dosTime, long crc, long compressedSize, long size, byte[] extra, byte[] comment, int externalAttributes, long localHeaderOffset) {
+	}
+}
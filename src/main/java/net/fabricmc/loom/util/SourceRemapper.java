@@ -26,14 +26,16 @@ package net.fabricmc.loom.util;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.function.Consumer;
 
 import org.cadixdev.lorenz.MappingSet;
 import org.cadixdev.mercury.Mercury;
@@ -45,6 +47,7 @@ import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.compile.JavaCompile;
 import org.gradle.internal.logging.progress.ProgressLogger;
 import org.gradle.internal.logging.progress.ProgressLoggerFactory;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 
 import net.fabricmc.loom.LoomGradleExtension;
@@ -56,13 +59,13 @@ import net.fabricmc.loom.task.service.LorenzMappingService;
 import net.fabricmc.loom.util.service.SharedServiceManager;
 
 public class SourceRemapper {
+	private static final String CACHE_VERSION = "1";
+
 	private final Project project;
 	private final SharedServiceManager serviceManager;
 	private String from;
 	private String to;
-	private final List<Consumer<ProgressLogger>> remapTasks = new ArrayList<>();
-
-	private Mercury mercury;
+	private final List<RemapTask> remapTasks = new ArrayList<>();
 
 	public SourceRemapper(Project project, SharedServiceManager serviceManager, boolean toNamed) {
 		this(project, serviceManager, toNamed ? IntermediaryNamespaces.runtimeIntermediary(project) : "named", !toNamed ? IntermediaryNamespaces.runtimeIntermediary(project) : "named");
@@ -76,21 +79,7 @@ public class SourceRemapper {
 	}
 
 	public void scheduleRemapSources(File source, File destination, boolean reproducibleFileOrder, boolean preserveFileTimestamps, Runnable completionCallback) {
-		remapTasks.add((logger) -> {
-			try {
-				logger.progress("remapping sources - " + source.getName());
-				remapSourcesInner(source, destination);
-				ZipReprocessorUtil.reprocessZip(destination.toPath(), reproducibleFileOrder, preserveFileTimestamps);
-
-				// Set the remapped sources creation date to match the sources if we're likely succeeded in making it
-				destination.setLastModified(source.lastModified());
-				completionCallback.run();
-			} catch (Exception e) {
-				// Failed to remap, lets clean up to ensure we try again next time
-				destination.delete();
-				throw new RuntimeException("Failed to remap sources for " + source, e);
-			}
-		});
+		remapTasks.add(new RemapTask(source, destination, reproducibleFileOrder, preserveFileTimestamps, completionCallback, null));
 	}
 
 	public void remapAll() {
@@ -104,7 +93,34 @@ public class SourceRemapper {
 		ProgressLogger progressLogger = progressLoggerFactory.newOperation(SourceRemapper.class.getName());
 		progressLogger.start("Remapping dependency sources", "sources");
 
-		remapTasks.forEach(consumer -> consumer.accept(progressLogger));
+		final Path cacheDir = LoomGradleExtension.get(project).getFiles().getUserCache().toPath().resolve("remapped_sources");
+		final String cacheContext = getCacheContext();
+		final List<RemapTask> pending = new ArrayList<>();
+
+		for (RemapTask task : remapTasks) {
+			final boolean cacheable = task.source().isFile() && !task.destination().isDirectory() && !task.source().equals(task.destination());
+			final RemapTask cacheableTask = cacheable ? task.withCachedPath(getCachedPath(cacheDir, task.source(), cacheContext)) : task;
+
+			if (!restoreFromCache(cacheableTask)) {
+				pending.add(cacheableTask);
+			}
+		}
+
+		final List<Path> classPath = pending.isEmpty() ? List.of() : getClassPath();
+
+		try {
+			MercuryPool.run(pending, () -> {
+				final MappingSet mappings = LorenzMappingService.read(serviceManager, LoomGradleExtension.get(project).getMappingConfiguration(), fromNamespace(), toNamespace());
+				return createMercury(classPath, mappings);
+			}, (mercury, task) -> runTask(task, progressLogger, mercury));
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to remap sources", e);
+		}
+
+		// The callbacks are not thread safe, so they are run on this thread once every task has finished.
+		for (RemapTask task : pending) {
+			task.completionCallback().run();
+		}
 
 		progressLogger.completed();
 
@@ -112,9 +128,88 @@ public class SourceRemapper {
 		System.gc();
 	}
 
-	private void remapSourcesInner(File source, File destination) throws Exception {
+	/**
+	 * @return a string identifying everything other than the input that affects the remapped sources.
+	 */
+	private String getCacheContext() {
+		final MappingConfiguration mappingConfiguration = LoomGradleExtension.get(project).getMappingConfiguration();
+
+		try {
+			return String.join(":", CACHE_VERSION, from, to, mappingConfiguration.mappingsIdentifier(), Checksum.sha1Hex(mappingConfiguration.tinyMappings));
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to hash mappings", e);
+		}
+	}
+
+	private boolean restoreFromCache(RemapTask task) {
+		if (task.cachedPath() == null || !Files.isRegularFile(task.cachedPath())) {
+			return false;
+		}
+
+		try {
+			project.getLogger().info(":using cached remapped sources for {}", task.source().getName());
+			Files.createDirectories(task.destination().toPath().getParent());
+			Files.copy(task.cachedPath(), task.destination().toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			project.getLogger().warn("Failed to restore cached remapped sources for {}", task.source().getName(), e);
+			return false;
+		}
+
+		task.destination().setLastModified(task.source().lastModified());
+		task.completionCallback().run();
+		return true;
+	}
+
+	private void runTask(RemapTask task, ProgressLogger logger, Mercury mercury) {
+		final File source = task.source();
+		final File destination = task.destination();
+
+		try {
+			synchronized (logger) {
+				logger.progress("remapping sources - " + source.getName());
+			}
+
+			remapSourcesInner(mercury, source, destination);
+			ZipReprocessorUtil.reprocessZip(destination.toPath(), task.reproducibleFileOrder(), task.preserveFileTimestamps());
+
+			if (task.cachedPath() != null) {
+				storeInCache(destination.toPath(), task.cachedPath());
+			}
+
+			// Set the remapped sources creation date to match the sources if we're likely succeeded in making it
+			destination.setLastModified(source.lastModified());
+		} catch (Exception e) {
+			// Failed to remap, lets clean up to ensure we try again next time
+			destination.delete();
+			throw new RuntimeException("Failed to remap sources for " + source, e);
+		}
+	}
+
+	private static Path getCachedPath(Path cacheDir, File source, String cacheContext) {
+		try {
+			final String hash = Checksum.sha1Hex((cacheContext + ":" + Checksum.sha1Hex(source.toPath())).getBytes(StandardCharsets.UTF_8));
+			return cacheDir.resolve(hash.substring(0, 2)).resolve(hash + ".jar");
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to hash " + source, e);
+		}
+	}
+
+	private void storeInCache(Path remapped, Path cachedPath) {
+		try {
+			CacheFiles.store(remapped, cachedPath);
+		} catch (IOException e) {
+			project.getLogger().warn("Failed to cache remapped sources {}", remapped, e);
+		}
+	}
+
+	private record RemapTask(File source, File destination, boolean reproducibleFileOrder, boolean preserveFileTimestamps, Runnable completionCallback, @Nullable Path cachedPath) {
+		RemapTask withCachedPath(@Nullable Path cachedPath) {
+			return new RemapTask(source, destination, reproducibleFileOrder, preserveFileTimestamps, completionCallback, cachedPath);
+		}
+	}
+
+	private void remapSourcesInner(Mercury mercury, File source, File destination) throws Exception {
 		project.getLogger().info(":remapping source jar");
-		Mercury mercury = getMercuryInstance();
 
 		if (source.equals(destination)) {
 			if (source.isDirectory()) {
@@ -166,43 +261,32 @@ public class SourceRemapper {
 		}
 	}
 
-	private Mercury getMercuryInstance() {
-		if (this.mercury != null) {
-			return this.mercury;
-		}
-
-		LoomGradleExtension extension = LoomGradleExtension.get(project);
-		MappingConfiguration mappingConfiguration = extension.getMappingConfiguration();
+	private MappingsNamespace fromNamespace() {
+		return Objects.requireNonNull(MappingsNamespace.of(from));
+	}
 
-		MappingSet mappings = LorenzMappingService.create(serviceManager,
-															mappingConfiguration,
-															Objects.requireNonNull(MappingsNamespace.of(from)),
-															Objects.requireNonNull(MappingsNamespace.of(to))
-		).mappings();
+	private MappingsNamespace toNamespace() {
+		return Objects.requireNonNull(MappingsNamespace.of(to));
+	}
 
-		Mercury mercury = createMercuryWithClassPath(project, MappingsNamespace.of(to) == MappingsNamespace.NAMED);
-		mercury.setSourceCompatibilityFromRelease(getJavaCompileRelease(project));
+	// Resolved once on the calling thread, and shared by all of the Mercury instances.
+	private List<Path> getClassPath() {
+		LoomGradleExtension extension = LoomGradleExtension.get(project);
+		final List<Path> classPath = getMercuryClassPath(project, MappingsNamespace.of(to) == MappingsNamespace.NAMED);
 
 		for (File file : extension.getUnmappedModCollection()) {
 			Path path = file.toPath();
 
 			if (Files.isRegularFile(path)) {
-				mercury.getClassPath().add(path);
+				classPath.add(path);
 			}
 		}
 
-		for (Path intermediaryJar : extension.getMinecraftJars(MappingsNamespace.INTERMEDIARY)) {
-			mercury.getClassPath().add(intermediaryJar);
-		}
-
-		for (Path intermediaryJar : extension.getMinecraftJars(MappingsNamespace.NAMED)) {
-			mercury.getClassPath().add(intermediaryJar);
-		}
+		classPath.addAll(extension.getMinecraftJars(MappingsNamespace.INTERMEDIARY));
+		classPath.addAll(extension.getMinecraftJars(MappingsNamespace.NAMED));
 
 		if (extension.isForgeLike()) {
-			for (Path jar : extension.getMinecraftJars(IntermediaryNamespaces.runtimeIntermediaryNamespace(project))) {
-				mercury.getClassPath().add(jar);
-			}
+			classPath.addAll(extension.getMinecraftJars(IntermediaryNamespaces.runtimeIntermediaryNamespace(project)));
 		}
 
 		Set<File> files = project.getConfigurations()
@@ -210,13 +294,19 @@ public class SourceRemapper {
 				.resolve();
 
 		for (File file : files) {
-			mercury.getClassPath().add(file.toPath());
+			classPath.add(file.toPath());
 		}
 
-		mercury.getProcessors().add(MercuryRemapper.create(mappings));
+		return classPath;
+	}
 
-		this.mercury = mercury;
-		return this.mercury;
+	private Mercury createMercury(List<Path> classPath, MappingSet mappings) {
+		Mercury mercury = new Mercury();
+		mercury.setGracefulClasspathChecks(true);
+		mercury.setSourceCompatibilityFromRelease(getJavaCompileRelease(project));
+		mercury.getClassPath().addAll(classPath);
+		mercury.getProcessors().add(MercuryRemapper.create(mappings));
+		return mercury;
 	}
 
 	public static int getJavaCompileRelease(Project project) {
@@ -260,7 +350,11 @@ public class SourceRemapper {
 	public static Mercury createMercuryWithClassPath(Project project, boolean toNamed) {
 		Mercury m = new Mercury();
 		m.setGracefulClasspathChecks(true);
+		m.getClassPath().addAll(getMercuryClassPath(project, toNamed));
+		return m;
+	}
 
+	private static List<Path> getMercuryClassPath(Project project, boolean toNamed) {
 		final List<Path> classPath = new ArrayList<>();
 
 		for (File file : project.getConfigurations().getByName(Constants.Configurations.MINECRAFT_COMPILE_LIBRARIES).getFiles()) {
@@ -281,13 +375,8 @@ public class SourceRemapper {
 			}
 		}
 
-		for (Path path : classPath) {
-			if (Files.exists(path)) {
-				m.getClassPath().add(path);
-			}
-		}
-
-		return m;
+		classPath.removeIf(Files::notExists);
+		return classPath;
 	}
 
 	private static boolean isJavaFile(Path path) {
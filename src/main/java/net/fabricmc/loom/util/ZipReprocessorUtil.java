@@ -25,17 +25,12 @@
 package net.fabricmc.loom.util;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
-import java.util.Calendar;
 import java.util.Comparator;
-import java.util.GregorianCalendar;
-import java.util.zip.CRC32;
+import java.util.List;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
-import java.util.zip.ZipOutputStream;
 
 import org.gradle.api.tasks.bundling.ZipEntryCompression;
 import org.intellij.lang.annotations.MagicConstant;
@@ -91,46 +86,38 @@ public class ZipReprocessorUtil {
 		reprocessZip(file, reproducibleFileOrder, preserveFileTimestamps, ZipEntryCompression.DEFLATED);
 	}
 
+	/**
+	 * Rewrites a zip file with a reproducible entry order and/or constant time stamps.
+	 * Entries that are already compressed with the requested method are copied without being inflated,
+	 * only their headers are rewritten.
+	 */
 	public static void reprocessZip(Path file, boolean reproducibleFileOrder, boolean preserveFileTimestamps, ZipEntryCompression zipEntryCompression) throws IOException {
 		if (!reproducibleFileOrder && preserveFileTimestamps) {
 			return;
 		}
 
 		final Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+		final int method = zipEntryCompressionMethod(zipEntryCompression);
 
-		try (var zipFile = new ZipFile(file.toFile());
-				var fileOutputStream = Files.newOutputStream(tempFile)) {
-			ZipEntry[] entries;
+		try (var zipFile = RawZipFile.open(file);
+				var writer = new RawZipWriter(tempFile)) {
+			final List<RawZipFile.Entry> entries = zipFile.getEntries();
 
 			if (reproducibleFileOrder) {
-				entries = zipFile.stream()
-						.sorted(Comparator.comparing(ZipEntry::getName, ZipReprocessorUtil::specialOrdering))
-						.toArray(ZipEntry[]::new);
-			} else {
-				entries = zipFile.stream()
-						.toArray(ZipEntry[]::new);
+				entries.sort(Comparator.comparing(RawZipFile.Entry::name, ZipReprocessorUtil::specialOrdering));
 			}
 
-			try (var zipOutputStream = new ZipOutputStream(fileOutputStream)) {
-				zipOutputStream.setMethod(zipOutputStreamCompressionMethod(zipEntryCompression));
-
-				for (ZipEntry entry : entries) {
-					ZipEntry newEntry = entry;
-
-					if (!preserveFileTimestamps) {
-						newEntry = new ZipEntry(entry.getName());
-						setConstantFileTime(newEntry);
-					}
-
-					newEntry.setMethod(zipEntryCompressionMethod(zipEntryCompression));
-
-					if (zipEntryCompression == ZipEntryCompression.STORED) {
-						copyUncompressedZipEntry(zipOutputStream, newEntry, zipFile.getInputStream(entry));
-					} else {
-						copyZipEntry(zipOutputStream, newEntry, zipFile.getInputStream(entry));
-					}
+			for (RawZipFile.Entry entry : entries) {
+				if (entry.method() == method) {
+					writer.copy(zipFile, entry, entry.name(), preserveFileTimestamps);
+				} else {
+					final int dosTime = preserveFileTimestamps ? entry.dosTime() : RawZipWriter.CONSTANT_DOS_TIME;
+					writer.write(entry.name(), zipFile.readAllBytes(entry), method, dosTime);
 				}
 			}
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(tempFile);
+			throw e;
 		}
 
 		Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
@@ -139,75 +126,28 @@ public class ZipReprocessorUtil {
 	/**
 	 * Appends an entry to a zip file, persevering the existing entry order and time stamps.
 	 * The new entry is added with a constant time stamp to ensure reproducibility.
+	 * The existing entries are copied as is, only the central directory is rewritten.
 	 * This method should only be used when a reproducible output is required, use {@link ZipUtils#add(Path, String, byte[])} normally.
 	 */
 	public static void appendZipEntry(Path file, String path, byte[] data) throws IOException {
-		final Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
-
-		try (var zipFile = new ZipFile(file.toFile());
-				var fileOutputStream = Files.newOutputStream(tempFile)) {
-			ZipEntry[] entries = zipFile.stream().toArray(ZipEntry[]::new);
-
-			try (var zipOutputStream = new ZipOutputStream(fileOutputStream)) {
-				// Copy existing entries
-				for (ZipEntry entry : entries) {
-					if (entry.getName().equals(path)) {
-						throw new IllegalArgumentException("Zip file (%s) already contains entry (%s)".formatted(file.getFileName().toString(), path));
-					}
-
-					copyZipEntry(zipOutputStream, entry, zipFile.getInputStream(entry));
-				}
-
-				// Append the new entry
-				var entry = new ZipEntry(path);
-				setConstantFileTime(entry);
-				zipOutputStream.putNextEntry(entry);
-				zipOutputStream.write(data, 0, data.length);
-				zipOutputStream.closeEntry();
+		try (var zipFile = RawZipFile.open(file)) {
+			if (zipFile.getEntry(path) != null) {
+				throw new IllegalArgumentException("Zip file (%s) already contains entry (%s)".formatted(file.getFileName().toString(), path));
 			}
 		}
 
-		Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
-	}
-
-	private static void copyZipEntry(ZipOutputStream zipOutputStream, ZipEntry entry, InputStream inputStream) throws IOException {
-		zipOutputStream.putNextEntry(entry);
-		byte[] buf = new byte[1024];
-		int length;
+		// Appended to a copy, so the original is left intact if writing fails part way through.
+		final Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+		Files.copy(file, tempFile, StandardCopyOption.REPLACE_EXISTING);
 
-		while ((length = inputStream.read(buf)) > 0) {
-			zipOutputStream.write(buf, 0, length);
+		try (var writer = RawZipWriter.append(tempFile)) {
+			writer.write(path, data, ZipEntry.DEFLATED, RawZipWriter.CONSTANT_DOS_TIME);
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(tempFile);
+			throw e;
 		}
 
-		zipOutputStream.closeEntry();
-	}
-
-	private static void copyUncompressedZipEntry(ZipOutputStream zipOutputStream, ZipEntry entry, InputStream inputStream) throws IOException {
-		// We need to read the entire input stream to calculate the CRC32 checksum and the size of the entry.
-		final byte[] data = inputStream.readAllBytes();
-
-		var crc = new CRC32();
-		crc.update(data);
-		entry.setCrc(crc.getValue());
-		entry.setSize(data.length);
-		entry.setCompressedSize(data.length);
-
-		zipOutputStream.putNextEntry(entry);
-		zipOutputStream.write(data, 0, data.length);
-		zipOutputStream.closeEntry();
-	}
-
-	private static void setConstantFileTime(ZipEntry entry) {
-		// See https://github.com/openjdk/jdk/blob/master/test/jdk/java/util/zip/ZipFile/ZipEntryTimeBounds.java
-		entry.setTime(new GregorianCalendar(1980, Calendar.JANUARY, 1, 0, 0, 0).getTimeInMillis());
-	}
-
-	@MagicConstant(valuesFromClass = ZipOutputStream.class)
-	private static int zipOutputStreamCompressionMethod(ZipEntryCompression compression) {
-		return switch (compression) {
-		case STORED -> ZipOutputStream.STORED;
-		case DEFLATED -> ZipOutputStream.DEFLATED;
-		};
+		Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
 	}
 
 	@MagicConstant(valuesFromClass = ZipEntry.class)
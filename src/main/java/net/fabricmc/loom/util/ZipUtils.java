@@ -41,6 +41,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 import org.jetbrains.annotations.Nullable;
@@ -153,6 +154,45 @@ public class ZipUtils {
 		}
 	}
 
+	/**
+	 * Writes all entries of {@code classes}, followed by the entries of {@code input} that are not class files and are
+	 * not excluded. Entries are copied without being inflated and deflated again.
+	 */
+	public static void copyWithNonClassFiles(Path classes, Path input, Path output, Predicate<String> exclude) throws IOException {
+		try (RawZipFile classesZip = RawZipFile.open(classes);
+				RawZipFile inputZip = RawZipFile.open(input);
+				RawZipWriter writer = new RawZipWriter(output)) {
+			for (RawZipFile.Entry entry : classesZip.getEntries()) {
+				writer.copy(classesZip, entry);
+			}
+
+			for (RawZipFile.Entry entry : inputZip.getEntries()) {
+				final String name = entry.name();
+
+				if (name.endsWith(".class") || exclude.test(name) || writer.contains(name)) {
+					continue;
+				}
+
+				writer.writeParentDirectories(name, entry.dosTime());
+				writer.copy(inputZip, entry);
+			}
+		}
+	}
+
+	/**
+	 * Copies the matching entries of a zip into a new zip, without inflating and deflating them again.
+	 */
+	public static void copyEntries(Path input, Path output, Predicate<String> filter) throws IOException {
+		try (RawZipFile inputZip = RawZipFile.open(input);
+				RawZipWriter writer = new RawZipWriter(output)) {
+			for (RawZipFile.Entry entry : inputZip.getEntries()) {
+				if (filter.test(entry.name())) {
+					writer.copy(inputZip, entry);
+				}
+			}
+		}
+	}
+
 	public static void add(Path zip, String path, String str) throws IOException {
 		add(zip, path, str.getBytes(StandardCharsets.UTF_8));
 	}
@@ -0,0 +1,274 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2024 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.util.download;
+
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Downloads many small files concurrently without a thread per request, the requests are sent asynchronously and are
+ * multiplexed over HTTP/2 streams.
+ *
+ * <p>The number of requests in flight is controlled using additive increase, multiplicative decrease (AIMD).
+ * The limit grows while requests complete with a low latency, and is halved when the server responds with
+ * 429 or 5xx, or a request fails. Failed requests are retried up to {@link DownloadBuilder#maxRetries(int)} times.
+ *
+ * <p>The file work of each download, such as hashing the existing file and moving the new one into place, runs on a separate
+ * pool of I/O threads so that it neither blocks the http client nor counts towards the latency of the requests.
+ */
+public class AsyncDownloadExecutor implements AutoCloseable {
+	private static final Logger LOGGER = LoggerFactory.getLogger(AsyncDownloadExecutor.class);
+	// Requests slower than this multiple of the fastest observed request are treated as a sign of congestion.
+	private static final int LATENCY_TOLERANCE = 4;
+
+	private final int maxConcurrency;
+	private final Deque<Job> queue = new ArrayDeque<>();
+	private final List<CompletableFuture<Void>> results = new ArrayList<>();
+	private final List<DownloadException> downloadExceptions = new ArrayList<>();
+	private final long startTime = System.nanoTime();
+	private final ThreadLocal<Boolean> draining = ThreadLocal.withInitial(() -> false);
+	private final ExecutorService ioExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+
+	// All of the following are guarded by this
+	private double limit;
+	private int inFlight = 0;
+	private long minLatency = Long.MAX_VALUE;
+	private long lastDecrease = 0;
+	private boolean failed = false;
+
+	private int downloaded = 0;
+	private int upToDate = 0;
+	private long downloadedBytes = 0;
+	private int retries = 0;
+	private int throttled = 0;
+	private int peakConcurrency = 0;
+
+	public AsyncDownloadExecutor(int initialConcurrency, int maxConcurrency) {
+		this.limit = Math.max(1, initialConcurrency);
+		this.maxConcurrency = Math.max(1, maxConcurrency);
+	}
+
+	void submit(DownloadBuilder builder, Path output) {
+		final var job = new Job(builder, output, new CompletableFuture<>());
+
+		synchronized (this) {
+			results.add(job.result);
+
+			if (failed) {
+				job.result.complete(null);
+				return;
+			}
+
+			queue.add(job);
+		}
+
+		drain();
+	}
+
+	private void drain() {
+		if (draining.get()) {
+			// Downloads that complete immediately (failing to start) are picked up by the outer loop, avoiding deep recursion.
+			return;
+		}
+
+		draining.set(true);
+
+		try {
+			while (true) {
+				final Job job;
+
+				synchronized (this) {
+					if (inFlight >= (int) limit || queue.isEmpty()) {
+						return;
+					}
+
+					inFlight++;
+					peakConcurrency = Math.max(peakConcurrency, inFlight);
+					job = queue.poll();
+				}
+
+				start(job);
+			}
+		} finally {
+			draining.set(false);
+		}
+	}
+
+	private void start(Job job) {
+		job.attempt++;
+
+		if (job.attempt == job.builder.getMaxRetries()) {
+			// Last ditch attempt, try over HTTP 1.1
+			job.builder.httpVersion(HttpClient.Version.HTTP_1_1);
+		}
+
+		CompletableFuture<Download.AsyncResult> future;
+
+		try {
+			future = job.builder.build(job.attempt).downloadPathAsync(job.output, ioExecutor);
+		} catch (RuntimeException e) {
+			future = CompletableFuture.failedFuture(e);
+		}
+
+		future.whenComplete((result, throwable) -> onComplete(job, result, throwable));
+	}
+
+	private void onComplete(Job job, Download.AsyncResult result, Throwable throwable) {
+		final Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+		boolean retry = false;
+
+		synchronized (this) {
+			inFlight--;
+
+			if (cause == null) {
+				if (result.bytes() > 0) {
+					downloaded++;
+					downloadedBytes += result.bytes();
+					onSuccess(result.latency());
+				} else {
+					upToDate++;
+				}
+			} else {
+				final int statusCode = cause instanceof DownloadException e ? e.getStatusCode() : -1;
+
+				if (statusCode == 429 || statusCode >= 500) {
+					throttled++;
+				}
+
+				if (statusCode != 404) {
+					onCongestion();
+				}
+
+				retry = !failed && statusCode != 404 && job.attempt < job.builder.getMaxRetries();
+
+				if (retry) {
+					retries++;
+					queue.add(job);
+				} else {
+					failed = true;
+					downloadExceptions.add(cause instanceof DownloadException e ? e : new DownloadException("Failed to download", cause));
+
+					// Stop starting new downloads, matching DownloadExecutor
+					for (Job queued : queue) {
+						queued.result.complete(null);
+					}
+
+					queue.clear();
+				}
+			}
+		}
+
+		if (!retry) {
+			job.result.complete(null);
+		}
+
+		drain();
+	}
+
+	private void onSuccess(long latency) {
+		minLatency = Math.min(minLatency, latency);
+
+		if (latency > minLatency * LATENCY_TOLERANCE) {
+			decrease(0.9);
+			return;
+		}
+
+		// Grows by roughly one request for each window of requests completed
+		limit = Math.min(maxConcurrency, limit + 1 / limit);
+	}
+
+	private void onCongestion() {
+		decrease(0.5);
+	}
+
+	private void decrease(double factor) {
+		final long now = System.nanoTime();
+
+		// Only back off once per round trip, requests that were already in flight will report the same congestion.
+		if (minLatency != Long.MAX_VALUE && now - lastDecrease < minLatency) {
+			return;
+		}
+
+		lastDecrease = now;
+		limit = Math.max(1, limit * factor);
+	}
+
+	@Override
+	public void close() throws DownloadException {
+		final CompletableFuture<?>[] futures;
+
+		synchronized (this) {
+			futures = results.toArray(CompletableFuture[]::new);
+		}
+
+		try {
+			CompletableFuture.allOf(futures).join();
+		} finally {
+			ioExecutor.shutdown();
+		}
+
+		synchronized (this) {
+			final double seconds = (System.nanoTime() - startTime) / (double) TimeUnit.SECONDS.toNanos(1);
+			LOGGER.info(String.format(Locale.ENGLISH, "Downloaded %d files (%.2f MiB) in %.2fs (%.2f MiB/s), %d already up to date, %d retries, %d throttled responses, peak concurrency %d, final concurrency limit %d",
+					downloaded, downloadedBytes / 1048576D, seconds, downloadedBytes / 1048576D / Math.max(seconds, 0.001D), upToDate, retries, throttled, peakConcurrency, (int) limit));
+
+			if (!downloadExceptions.isEmpty()) {
+				DownloadException downloadException = new DownloadException("Failed to download");
+
+				for (DownloadException suppressed : downloadExceptions) {
+					downloadException.addSuppressed(suppressed);
+				}
+
+				throw downloadException;
+			}
+		}
+	}
+
+	private static final class Job {
+		private final DownloadBuilder builder;
+		private final Path output;
+		private final CompletableFuture<Void> result;
+		private int attempt = 0;
+
+		private Job(DownloadBuilder builder, Path output, CompletableFuture<Void> result) {
+			this.builder = builder;
+			this.output = output;
+			this.result = result;
+		}
+	}
+}
@@ -1,7 +1,7 @@
 /*
  * This file is part of fabric-loom, licensed under the MIT License (MIT).
  *
- * Copyright (c) 2016-2021 FabricMC
+ * Copyright (c) 2024 FabricMC
  *
  * Permission is hereby granted, free of charge, to any person obtaining a copy
  * of this software and associated documentation files (the "Software"), to deal
@@ -22,30 +22,43 @@
  * SOFTWARE.
  */
 
-package net.fabricmc.loom.configuration.providers.mappings.parchment;
+package net.fabricmc.loom.util.download;
 
 import java.io.IOException;
-import java.util.Locale;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 
-import net.fabricmc.mappingio.MappingVisitor;
-import net.fabricmc.mappingio.adapter.ForwardingMappingVisitor;
+import net.fabricmc.loom.util.CacheFiles;
 
-public final class ParchmentPrefixStripingMappingVisitor extends ForwardingMappingVisitor {
-	protected ParchmentPrefixStripingMappingVisitor(MappingVisitor next) {
-		super(next);
+/**
+ * A {@link DownloadCache} stored in a directory, which may be shared between many builds or machines.
+ * Files are stored as {@code <algorithm>/<first two characters of the hash>/<hash>}.
+ */
+public record DirectoryDownloadCache(Path root) implements DownloadCache {
+	@Override
+	public boolean get(String algorithm, String hash, Path output) throws IOException {
+		try {
+			Files.copy(getPath(algorithm, hash), output, StandardCopyOption.REPLACE_EXISTING);
+			return true;
+		} catch (NoSuchFileException e) {
+			return false;
+		}
 	}
 
 	@Override
-	public boolean visitMethodArg(int argPosition, int lvIndex, String srcName) throws IOException {
-		return super.visitMethodArg(argPosition, lvIndex, stripMethodArg(srcName));
-	}
+	public void put(String algorithm, String hash, Path file) throws IOException {
+		final Path path = getPath(algorithm, hash);
 
-	public static String stripMethodArg(String arg) {
-		if (arg.length() > 1 && arg.startsWith("p") && Character.isUpperCase(arg.charAt(1))) {
-			String a2 = arg.substring(1); // Remove p
-			return a2.substring(0, 1).toLowerCase(Locale.ROOT) + a2.substring(1); // Make first char lowercase
+		if (Files.exists(path)) {
+			return;
 		}
 
-		return arg;
+		CacheFiles.store(file, path);
+	}
+
+	private Path getPath(String algorithm, String hash) {
+		return root.resolve(algorithm).resolve(hash.substring(0, 2)).resolve(hash);
 	}
 }
@@ -38,20 +38,31 @@ import java.net.http.HttpClient;
 import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.FileTime;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.IntConsumer;
 import java.util.zip.GZIPInputStream;
 
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -60,9 +71,10 @@ import net.fabricmc.loom.util.Checksum;
 
 public final class Download {
 	private static final String E_TAG = "ETag";
+	private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
 	private static final Logger LOGGER = LoggerFactory.getLogger(Download.class);
-	private static final Duration TIMEOUT = Duration.ofMinutes(1);
-	private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
+	static final Duration TIMEOUT = Duration.ofMinutes(1);
+	static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
 			.followRedirects(HttpClient.Redirect.ALWAYS)
 			.proxy(ProxySelector.getDefault())
 			.connectTimeout(TIMEOUT)
@@ -80,9 +92,14 @@ public final class Download {
 	private final Duration maxAge;
 	private final DownloadProgressListener progressListener;
 	private final HttpClient.Version httpVersion;
+	private final int segments;
+	private final long segmentedMinimumSize;
+	@Nullable
+	private final DownloadCache cache;
+	private final boolean staleWhileRevalidate;
 	private final int downloadAttempt;
 
-	Download(URI url, String expectedHash, boolean useEtag, boolean forceDownload, boolean offline, Duration maxAge, DownloadProgressListener progressListener, HttpClient.Version httpVersion, int downloadAttempt) {
+	Download(URI url, String expectedHash, boolean useEtag, boolean forceDownload, boolean offline, Duration maxAge, DownloadProgressListener progressListener, HttpClient.Version httpVersion, int segments, long segmentedMinimumSize, @Nullable DownloadCache cache, boolean staleWhileRevalidate, int downloadAttempt) {
 		this.url = url;
 		this.expectedHash = expectedHash;
 		this.useEtag = useEtag;
@@ -91,6 +108,10 @@ public final class Download {
 		this.maxAge = maxAge;
 		this.progressListener = progressListener;
 		this.httpVersion = httpVersion;
+		this.segments = segments;
+		this.segmentedMinimumSize = segmentedMinimumSize;
+		this.cache = cache;
+		this.staleWhileRevalidate = staleWhileRevalidate;
 		this.downloadAttempt = downloadAttempt;
 	}
 
@@ -112,12 +133,26 @@ public final class Download {
 				.build();
 	}
 
+	private HttpRequest getRangeRequest(long start, long end, String etag) {
+		return requestBuilder()
+				.header("Range", "bytes=%d-%s".formatted(start, end < 0 ? "" : Long.toString(end)))
+				.header("If-Range", etag)
+				.build();
+	}
+
 	private <T> HttpResponse<T> send(HttpRequest httpRequest, HttpResponse.BodyHandler<T> bodyHandler) throws DownloadException {
+		return send(httpRequest, bodyHandler, true);
+	}
+
+	// Segment requests are part of a download that has already started, so they do not notify the progress listener.
+	private <T> HttpResponse<T> send(HttpRequest httpRequest, HttpResponse.BodyHandler<T> bodyHandler, boolean start) throws DownloadException {
 		if (offline) {
 			throw error("Unable to download %s in offline mode", this.url);
 		}
 
-		progressListener.onStart();
+		if (start) {
+			progressListener.onStart();
+		}
 
 		try {
 			return HTTP_CLIENT.send(httpRequest, bodyHandler);
@@ -154,6 +189,11 @@ public final class Download {
 			return;
 		}
 
+		if (readFromCache(output)) {
+			progressListener.onEnd();
+			return;
+		}
+
 		try {
 			doDownload(output);
 		} catch (Throwable throwable) {
@@ -177,9 +217,20 @@ public final class Download {
 			throw error(e, "Failed to create parent directories");
 		}
 
-		final HttpRequest httpRequest = eTag
-				.map(this::getETagRequest)
-				.orElseGet(this::getRequest);
+		// Resume a previous partial download of the same file when the server supports it.
+		final Optional<String> resumeETag = eTag.isEmpty() && !forceDownload ? readResumeETag(output) : Optional.empty();
+		final long resumeFrom = resumeETag.map(s -> getPartFileSize(output)).orElse(0L);
+
+		final HttpRequest httpRequest;
+
+		if (resumeFrom > 0) {
+			LOGGER.info("Resuming download of {} from byte {}", url, resumeFrom);
+			httpRequest = getRangeRequest(resumeFrom, -1, resumeETag.get());
+		} else {
+			httpRequest = eTag
+					.map(this::getETagRequest)
+					.orElseGet(this::getRequest);
+		}
 
 		// Create a .lock file, this allows us to re-download if the download was forcefully aborted part way through.
 		createLock(output);
@@ -201,11 +252,16 @@ public final class Download {
 			return;
 		}
 
+		if (statusCode == HTTP_RANGE_NOT_SATISFIABLE) {
+			// The partial file is no longer valid, start again from scratch on the next attempt.
+			deletePartFile(output);
+		}
+
 		if (!success) {
 			throw statusError("HTTP request returned unsuccessful status (%d)", statusCode);
 		}
 
-		downloadToPath(output, response);
+		downloadToPath(output, response, statusCode == HttpURLConnection.HTTP_PARTIAL ? resumeFrom : 0);
 
 		if (useEtag) {
 			final HttpHeaders headers = response.headers();
@@ -216,6 +272,11 @@ public final class Download {
 			}
 		}
 
+		verifyHash(output);
+		writeToCache(output);
+	}
+
+	private void verifyHash(Path output) throws DownloadException {
 		if (expectedHash != null) {
 			// Ensure we downloaded the expected hash.
 			if (!isHashValid(output)) {
@@ -236,30 +297,147 @@ public final class Download {
 		}
 	}
 
-	private void downloadToPath(Path output, HttpResponse<InputStream> response) throws DownloadException {
-		// Download the file initially to a .part file
+	/**
+	 * Downloads the file without blocking the calling thread, used for bulk downloads of small files by {@link AsyncDownloadExecutor}.
+	 * Etags and resuming are not supported, the download is always written to a .part file and then moved into place.
+	 *
+	 * <p>Checking the existing file, moving, verifying and caching the download run on the {@code ioExecutor}, keeping them off the
+	 * threads of the http client.
+	 *
+	 * @return a future completing with the number of bytes downloaded and the latency of the request.
+	 */
+	CompletableFuture<AsyncResult> downloadPathAsync(Path output, Executor ioExecutor) {
 		final Path partFile = getPartFile(output);
 
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				if (!requiresDownload(output) || readFromCache(output)) {
+					return false;
+				}
+
+				if (offline) {
+					throw error("Unable to download %s in offline mode", this.url);
+				}
+
+				createParentDirs(output.toFile());
+				Files.deleteIfExists(partFile);
+				return true;
+			} catch (IOException e) {
+				progressListener.onEnd();
+				throw new CompletionException(e instanceof DownloadException ? e : error(e, "Failed to prepare download of (%s)", output));
+			}
+		}, ioExecutor).thenCompose(required -> {
+			if (!required) {
+				progressListener.onEnd();
+				return CompletableFuture.completedFuture(AsyncResult.UP_TO_DATE);
+			}
+
+			progressListener.onStart();
+			final long start = System.nanoTime();
+
+			return HTTP_CLIENT.sendAsync(getRequest(), HttpResponse.BodyHandlers.ofFile(partFile))
+					// Only the request is timed, not the file work that follows
+					.thenApply(response -> new TimedResponse(response, System.nanoTime() - start))
+					.handleAsync((timed, throwable) -> completeAsync(output, partFile, timed, throwable), ioExecutor);
+		});
+	}
+
+	private AsyncResult completeAsync(Path output, Path partFile, TimedResponse timed, Throwable throwable) {
 		try {
+			if (throwable != null) {
+				throw error(throwable instanceof CompletionException ? throwable.getCause() : throwable, "Failed to download (%s)", url);
+			}
+
+			final HttpResponse<Path> response = timed.response();
+			final int statusCode = response.statusCode();
+
+			if (statusCode < 200 || statusCode >= 300) {
+				throw statusError("HTTP request to (%s) returned unsuccessful status".formatted(url) + "(%d)", statusCode);
+			}
+
+			if (response.headers().firstValue("Content-Encoding").isPresent()) {
+				throw error("Unsupported encoding: %s", response.headers().firstValue("Content-Encoding").get());
+			}
+
+			final long length = Files.size(partFile);
+			final long expectedLength = response.headers().firstValueAsLong("Content-Length").orElse(-1);
+
+			if (expectedLength >= 0 && length != expectedLength) {
+				throw error("Unexpected file length of %d bytes, expected %d bytes".formatted(length, expectedLength));
+			}
+
 			Files.deleteIfExists(output);
-			Files.deleteIfExists(partFile);
+			Files.move(partFile, output);
+			verifyHash(output);
+			writeToCache(output);
+			return new AsyncResult(length, timed.latency());
 		} catch (IOException e) {
-			throw error(e, "Failed to delete existing file");
+			tryCleanup(output);
+
+			try {
+				Files.deleteIfExists(partFile);
+			} catch (IOException ignored) {
+				// ignored
+			}
+
+			throw new CompletionException(e instanceof DownloadException ? e : error(e, "Failed to download file from (%s) to (%s)", url, output));
+		} finally {
+			progressListener.onEnd();
 		}
+	}
 
-		final long length = Long.parseLong(response.headers().firstValue("Content-Length").orElse("-1"));
-		AtomicLong totalBytes = new AtomicLong(0);
+	private record TimedResponse(HttpResponse<Path> response, long latency) {
+	}
 
-		try (OutputStream outputStream = Files.newOutputStream(partFile, StandardOpenOption.CREATE_NEW)) {
-			copyWithCallback(decodeOutput(response), outputStream, value -> {
-				if (length < 0) {
-					return;
-				}
+	/**
+	 * @param bytes the number of bytes downloaded, 0 when the file was already up to date
+	 * @param latency the time taken by the http request in nanoseconds
+	 */
+	record AsyncResult(long bytes, long latency) {
+		static final AsyncResult UP_TO_DATE = new AsyncResult(0, 0);
+	}
 
-				progressListener.onProgress(totalBytes.addAndGet(value), length);
-			});
+	private void downloadToPath(Path output, HttpResponse<InputStream> response, long resumeFrom) throws DownloadException {
+		// Download the file initially to a .part file
+		final Path partFile = getPartFile(output);
+
+		try {
+			if (resumeFrom == 0) {
+				deletePartFile(output);
+			}
 		} catch (IOException e) {
-			throw error(e, "Failed to decode and write download output");
+			throw error(e, "Failed to delete existing file");
+		}
+
+		final HttpHeaders headers = response.headers();
+		final long length = resumeFrom > 0 ? getContentRangeLength(output, headers, resumeFrom) : headers.firstValueAsLong("Content-Length").orElse(-1);
+		final String responseETag = headers.firstValue(E_TAG).orElse(null);
+		final boolean supportsRanges = responseETag != null
+				&& headers.firstValue("Content-Encoding").isEmpty()
+				&& headers.firstValue("Accept-Ranges").map("bytes"::equalsIgnoreCase).orElse(false);
+
+		if (resumeFrom == 0 && supportsRanges && segments > 1 && length >= segmentedMinimumSize && downloadAttempt == 1) {
+			downloadSegmented(partFile, response, length, responseETag);
+		} else {
+			if (resumeFrom == 0 && supportsRanges) {
+				// Allows this download to be resumed from the .part file if it is interrupted.
+				writeResumeETag(output, responseETag);
+			}
+
+			AtomicLong totalBytes = new AtomicLong(resumeFrom);
+			final StandardOpenOption openOption = resumeFrom > 0 ? StandardOpenOption.APPEND : StandardOpenOption.CREATE_NEW;
+
+			try (OutputStream outputStream = Files.newOutputStream(partFile, openOption)) {
+				copyWithCallback(decodeOutput(response), outputStream, value -> {
+					if (length < 0) {
+						return;
+					}
+
+					progressListener.onProgress(totalBytes.addAndGet(value), length);
+				});
+			} catch (IOException e) {
+				throw error(e, "Failed to decode and write download output");
+			}
 		}
 
 		if (Files.notExists(partFile)) {
@@ -271,6 +449,7 @@ public final class Download {
 				final long actualLength = Files.size(partFile);
 
 				if (actualLength != length) {
+					deletePartFile(output);
 					throw error("Unexpected file length of %d bytes, expected %d bytes".formatted(actualLength, length));
 				}
 			} catch (IOException e) {
@@ -280,13 +459,116 @@ public final class Download {
 
 		try {
 			// Once the file has been fully read, move it to the destination file.
-			// This ensures that the output file only exists in fully populated state.
-			Files.move(partFile, output);
+			// This ensures that the output file only exists in fully populated state, and that a stale file remains usable until then.
+			Files.move(partFile, output, StandardCopyOption.REPLACE_EXISTING);
+			Files.deleteIfExists(getResumeETagFile(output));
 		} catch (IOException e) {
 			throw error(e, "Failed to complete download");
 		}
 	}
 
+	/**
+	 * Downloads the file using multiple concurrent range requests, the first segment is read from the initial response.
+	 */
+	private void downloadSegmented(Path partFile, HttpResponse<InputStream> response, long length, String eTag) throws DownloadException {
+		final long segmentSize = (length + segments - 1) / segments;
+		final AtomicLong totalBytes = new AtomicLong(0);
+		final ExecutorService executor = Executors.newFixedThreadPool(segments - 1);
+
+		try (FileChannel channel = FileChannel.open(partFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+			final List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+			for (long start = segmentSize; start < length; start += segmentSize) {
+				final long segmentStart = start;
+				final long segmentEnd = Math.min(length, start + segmentSize) - 1;
+
+				futures.add(CompletableFuture.runAsync(() -> {
+					try {
+						downloadSegment(channel, segmentStart, segmentEnd, eTag, totalBytes, length);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				}, executor));
+			}
+
+			try (InputStream inputStream = response.body()) {
+				writeSegment(inputStream, channel, 0, segmentSize, totalBytes, length);
+			}
+
+			CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+		} catch (IOException | CompletionException e) {
+			throw error(e instanceof CompletionException ? e.getCause() : e, "Failed to download segmented file");
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private void downloadSegment(FileChannel channel, long start, long end, String eTag, AtomicLong totalBytes, long length) throws IOException {
+		final HttpResponse<InputStream> response = send(getRangeRequest(start, end, eTag), HttpResponse.BodyHandlers.ofInputStream(), false);
+
+		try (InputStream inputStream = response.body()) {
+			if (response.statusCode() != HttpURLConnection.HTTP_PARTIAL || getContentRangeStart(response.headers()) != start) {
+				throw statusError("Segment request returned unexpected status (%d)", response.statusCode());
+			}
+
+			writeSegment(inputStream, channel, start, end - start + 1, totalBytes, length);
+		}
+	}
+
+	private void writeSegment(InputStream inputStream, FileChannel channel, long position, long size, AtomicLong totalBytes, long length) throws IOException {
+		final byte[] buffer = new byte[8192];
+		long remaining = size;
+
+		while (remaining > 0) {
+			final int read = inputStream.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+
+			if (read < 0) {
+				throw new IOException("Unexpected end of segment at %d".formatted(position));
+			}
+
+			final ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, read);
+
+			while (byteBuffer.hasRemaining()) {
+				position += channel.write(byteBuffer, position);
+			}
+
+			remaining -= read;
+			progressListener.onProgress(totalBytes.addAndGet(read), length);
+		}
+	}
+
+	// Parses the total length from a "Content-Range: bytes start-end/total" header, validating the start.
+	private long getContentRangeLength(Path output, HttpHeaders headers, long expectedStart) throws DownloadException {
+		final String contentRange = headers.firstValue("Content-Range").orElse("");
+		final int slash = contentRange.indexOf('/');
+
+		if (getContentRangeStart(headers) != expectedStart || slash < 0) {
+			// The partial file cannot be resumed, start again from scratch on the next attempt.
+			deletePartFile(output);
+			throw error("Unexpected Content-Range (%s) when resuming from %d", contentRange, expectedStart);
+		}
+
+		try {
+			return Long.parseLong(contentRange.substring(slash + 1));
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	private static long getContentRangeStart(HttpHeaders headers) {
+		final String contentRange = headers.firstValue("Content-Range").orElse("");
+
+		if (!contentRange.startsWith("bytes ") || contentRange.indexOf('-') < 0) {
+			return -1;
+		}
+
+		try {
+			return Long.parseLong(contentRange.substring("bytes ".length(), contentRange.indexOf('-')).trim());
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
 	private void copyWithCallback(InputStream is, OutputStream os, IntConsumer consumer) throws IOException {
 		byte[] buffer = new byte[1024];
 		int length;
@@ -308,6 +590,11 @@ public final class Download {
 	}
 
 	private boolean requiresDownload(Path output) throws DownloadException {
+		if (!forceDownload && StaleRevalidation.isInFlight(output)) {
+			// Being revalidated in the background, the existing file is used until that completes.
+			return false;
+		}
+
 		final boolean locked = getAndResetLock(output);
 
 		if (forceDownload || !exists(output)) {
@@ -342,15 +629,94 @@ public final class Download {
 			LOGGER.info("Found existing file ({}) to download with unexpected hash.", output);
 		}
 
-		//noinspection RedundantIfStatement
-		if (!maxAge.equals(Duration.ZERO) && !isOutdated(output)) {
-			return false;
+		if (!maxAge.equals(Duration.ZERO)) {
+			if (!isOutdated(output)) {
+				return false;
+			}
+
+			if (staleWhileRevalidate && expectedHash == null) {
+				// Use the outdated file for now, it will be replaced once the revalidation completes.
+				revalidateInBackground(output);
+				return false;
+			}
 		}
 
 		// Default to re-downloading, may check the etag
 		return true;
 	}
 
+	private void revalidateInBackground(Path output) {
+		// Runs outside of the build operation that requested the download, so progress is not reported.
+		final Download download = new Download(url, expectedHash, useEtag, forceDownload, offline, maxAge, DownloadProgressListener.NONE, httpVersion, segments, segmentedMinimumSize, cache, staleWhileRevalidate, downloadAttempt);
+
+		StaleRevalidation.submit(output, () -> {
+			try {
+				download.doDownload(output);
+			} catch (Throwable throwable) {
+				// The stale file is kept, the next build will try again as the file is still outdated.
+				LOGGER.warn("Failed to revalidate ({}), continuing to use the existing file", url, throwable);
+
+				try {
+					getAndResetLock(output);
+				} catch (DownloadException e) {
+					LOGGER.debug("Failed to release lock on {}", output, e);
+				}
+			}
+		});
+	}
+
+	/**
+	 * @return true when the output was populated from the download cache, with a verified hash.
+	 */
+	private boolean readFromCache(Path output) {
+		if (cache == null || expectedHash == null || (offline && cache instanceof MirrorDownloadCache)) {
+			return false;
+		}
+
+		final int i = expectedHash.indexOf(':');
+		final Path cacheFile = output.resolveSibling(output.getFileName() + ".cache");
+
+		try {
+			createParentDirs(output.toFile());
+
+			if (!cache.get(expectedHash.substring(0, i), expectedHash.substring(i + 1).toLowerCase(Locale.ROOT), cacheFile)) {
+				return false;
+			}
+
+			if (!isHashValid(cacheFile)) {
+				LOGGER.warn("Ignoring download cache entry for ({}) with an unexpected hash", url);
+				return false;
+			}
+
+			Files.move(cacheFile, output, StandardCopyOption.REPLACE_EXISTING);
+			writeHash(output, expectedHash);
+			return true;
+		} catch (IOException e) {
+			LOGGER.warn("Failed to read ({}) from the download cache", url, e);
+			return false;
+		} finally {
+			try {
+				Files.deleteIfExists(cacheFile);
+			} catch (IOException ignored) {
+				// ignored
+			}
+		}
+	}
+
+	private void writeToCache(Path output) {
+		if (cache == null || expectedHash == null) {
+			return;
+		}
+
+		final int i = expectedHash.indexOf(':');
+
+		try {
+			cache.put(expectedHash.substring(0, i), expectedHash.substring(i + 1).toLowerCase(Locale.ROOT), output);
+		} catch (IOException e) {
+			LOGGER.warn("Failed to store ({}) in the download cache", url, e);
+		}
+	}
+
 	private boolean isHashValid(Path path) {
 		int i = expectedHash.indexOf(':');
 		String algorithm = expectedHash.substring(0, i);
@@ -423,10 +789,12 @@ public final class Download {
 			// ignored
 		}
 
-		try {
-			Files.deleteIfExists(getPartFile(output));
-		} catch (IOException ignored) {
-			// ignored
+		if (!exists(getResumeETagFile(output))) {
+			try {
+				Files.deleteIfExists(getPartFile(output));
+			} catch (IOException ignored) {
+				// ignored
+			}
 		}
 	}
 
@@ -443,6 +811,50 @@ public final class Download {
 		return output.resolveSibling(output.getFileName() + ".part");
 	}
 
+	// Plain file rather than an attribute, as the attribute fallback file would not be moved along with the .part file.
+	private Path getResumeETagFile(Path output) {
+		return output.resolveSibling(output.getFileName() + ".part.etag");
+	}
+
+	private Optional<String> readResumeETag(Path output) {
+		final Path eTagFile = getResumeETagFile(output);
+
+		if (!exists(eTagFile) || !exists(getPartFile(output))) {
+			return Optional.empty();
+		}
+
+		try {
+			return Optional.of(Files.readString(eTagFile, StandardCharsets.UTF_8));
+		} catch (IOException e) {
+			return Optional.empty();
+		}
+	}
+
+	private void writeResumeETag(Path output, String eTag) throws DownloadException {
+		try {
+			Files.writeString(getResumeETagFile(output), eTag, StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			throw error(e, "Failed to write resume etag for (%s)", output);
+		}
+	}
+
+	private long getPartFileSize(Path output) {
+		try {
+			return Files.size(getPartFile(output));
+		} catch (IOException e) {
+			return 0;
+		}
+	}
+
+	private void deletePartFile(Path output) throws DownloadException {
+		try {
+			Files.deleteIfExists(getPartFile(output));
+			Files.deleteIfExists(getResumeETagFile(output));
+		} catch (IOException e) {
+			throw error(e, "Failed to delete partial download of (%s)", output);
+		}
+	}
+
 	private boolean getAndResetLock(Path output) throws DownloadException {
 		final Path lock = getLockFile(output);
 		final boolean exists = exists(lock);
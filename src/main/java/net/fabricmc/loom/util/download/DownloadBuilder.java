@@ -48,6 +48,10 @@ public class DownloadBuilder {
 	private int maxRetries = 3;
 	private boolean allowInsecureProtocol = false;
 	private HttpClient.Version httpVersion = HttpClient.Version.HTTP_2;
+	private int segments = 1;
+	private long segmentedMinimumSize = Long.MAX_VALUE;
+	private DownloadCache cache = null;
+	private boolean staleWhileRevalidate = false;
 
 	private DownloadBuilder(URI url) {
 		this.url = url;
@@ -107,18 +111,48 @@ public class DownloadBuilder {
 		return this;
 	}
 
-	private Download build(int downloadAttempt) {
+	/**
+	 * Download files of at least the given size using multiple concurrent range requests, when supported by the server.
+	 */
+	public DownloadBuilder segmented(int segments, long minimumSize) {
+		this.segments = segments;
+		this.segmentedMinimumSize = minimumSize;
+		return this;
+	}
+
+	/**
+	 * Use a content addressed cache for downloads with an expected hash.
+	 */
+	public DownloadBuilder cache(DownloadCache cache) {
+		this.cache = cache;
+		return this;
+	}
+
+	/**
+	 * Allow an outdated file of a {@link #maxAge(Duration)} download to be used while it is revalidated in the background.
+	 * Has no effect on downloads with an expected hash.
+	 */
+	public DownloadBuilder staleWhileRevalidate() {
+		this.staleWhileRevalidate = true;
+		return this;
+	}
+
+	Download build(int downloadAttempt) {
 		if (!allowInsecureProtocol && !isSecureUrl(url)) {
 			throw new IllegalArgumentException("Cannot create download for url (%s) with insecure protocol".formatted(url.toString()));
 		}
 
-		return new Download(this.url, this.expectedHash, this.useEtag, this.forceDownload, this.offline, maxAge, progressListener, httpVersion, downloadAttempt);
+		return new Download(this.url, this.expectedHash, this.useEtag, this.forceDownload, this.offline, maxAge, progressListener, httpVersion, segments, segmentedMinimumSize, cache, staleWhileRevalidate, downloadAttempt);
 	}
 
 	public void downloadPathAsync(Path path, DownloadExecutor executor) {
 		executor.runAsync(() -> downloadPath(path));
 	}
 
+	public void downloadPathAsync(Path path, AsyncDownloadExecutor executor) {
+		executor.submit(this, path);
+	}
+
 	public void downloadPath(Path path) throws DownloadException {
 		withRetries((download) -> {
 			download.downloadPath(path);
@@ -172,8 +206,12 @@ public class DownloadBuilder {
 		throw new IllegalStateException();
 	}
 
+	int getMaxRetries() {
+		return maxRetries;
+	}
+
 	// See comment on org.gradle.util.internal.GUtil.isSecureUrl
-	private static boolean isSecureUrl(URI url) {
+	static boolean isSecureUrl(URI url) {
 		if ("127.0.0.1".equals(url.getHost())) {
 			return true;
 		}
@@ -0,0 +1,69 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2024 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.util.download;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * A content addressed store shared between builds, used by {@link Download} for files with an expected hash.
+ * Content read from a cache is always verified against the expected hash before being used.
+ */
+public interface DownloadCache {
+	/**
+	 * Copies the content with the given hash to the output when present in the cache.
+	 *
+	 * @param algorithm the hash algorithm, e.g. sha1
+	 * @param hash the lowercase hex hash of the content
+	 * @return true when the content was found and written to the output
+	 */
+	boolean get(String algorithm, String hash, Path output) throws IOException;
+
+	/**
+	 * Stores a file that has been verified to have the given hash.
+	 */
+	void put(String algorithm, String hash, Path file) throws IOException;
+
+	/**
+	 * Creates a cache from a location, either a http(s) url of a read-through mirror, or a path to a shared directory.
+	 */
+	static DownloadCache create(String location) {
+		final String lowerCase = location.toLowerCase(Locale.ROOT);
+
+		if (lowerCase.startsWith("http://") || lowerCase.startsWith("https://")) {
+			final URI uri = URI.create(location.endsWith("/") ? location : location + "/");
+
+			if (!DownloadBuilder.isSecureUrl(uri)) {
+				throw new IllegalArgumentException("Cannot use download cache mirror (%s) with insecure protocol".formatted(location));
+			}
+
+			return new MirrorDownloadCache(uri);
+		}
+
+		return new DirectoryDownloadCache(Path.of(location));
+	}
+}
@@ -31,8 +31,10 @@ import javax.inject.Inject;
 import org.gradle.api.Project;
 import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
 
 import net.fabricmc.loom.LoomGradleExtension;
+import net.fabricmc.loom.util.Constants;
 
 /**
  * Can be used to create a {@link DownloadBuilder} with the correct settings for the project within a task.
@@ -44,6 +46,10 @@ public abstract class DownloadFactory {
 	@Input
 	protected abstract Property<Boolean> getIsManualRefreshDependencies();
 
+	// Does not affect the downloaded content
+	@Internal
+	protected abstract Property<String> getDownloadCache();
+
 	@Inject
 	public abstract Project getProject();
 
@@ -51,6 +57,7 @@ public abstract class DownloadFactory {
 	public DownloadFactory() {
 		getIsOffline().set(getProject().getGradle().getStartParameter().isOffline());
 		getIsManualRefreshDependencies().set(LoomGradleExtension.get(getProject()).refreshDeps());
+		getDownloadCache().set(getProject().getProviders().gradleProperty(Constants.Properties.DOWNLOAD_CACHE));
 	}
 
 	// Matches the logic in LoomGradleExtensionImpl
@@ -71,6 +78,17 @@ public abstract class DownloadFactory {
 			builder.forceDownload();
 		}
 
+		if (getDownloadCache().isPresent()) {
+			builder.cache(DownloadCache.create(getDownloadCache().get()));
+		}
+
 		return builder;
 	}
+
+	/**
+	 * @return true when downloads are being forced to refresh, and any locally cached state should be ignored.
+	 */
+	public boolean refreshDependencies() {
+		return getIsManualRefreshDependencies().get();
+	}
 }
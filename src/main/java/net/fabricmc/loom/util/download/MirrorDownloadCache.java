@@ -0,0 +1,73 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2024 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.util.download;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * A {@link DownloadCache} backed by a read-through mirror, content is requested from {@code <url>/<algorithm>/<hash>}.
+ *
+ * <p>The mirror is expected to populate itself, so nothing is uploaded by {@link #put(String, String, Path)}.
+ * A 404 response is treated as a cache miss, and the file is then downloaded from its original url.
+ */
+public record MirrorDownloadCache(URI url) implements DownloadCache {
+	@Override
+	public boolean get(String algorithm, String hash, Path output) throws IOException {
+		final HttpRequest request = HttpRequest.newBuilder(url.resolve(algorithm + "/" + hash))
+				.timeout(Download.TIMEOUT)
+				.GET()
+				.build();
+
+		final Path tempPath = output.resolveSibling(output.getFileName() + ".mirror");
+
+		try {
+			final HttpResponse<Path> response = Download.HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofFile(tempPath));
+
+			if (response.statusCode() != HttpURLConnection.HTTP_OK) {
+				return false;
+			}
+
+			Files.move(tempPath, output, StandardCopyOption.REPLACE_EXISTING);
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while reading from download mirror", e);
+		} finally {
+			Files.deleteIfExists(tempPath);
+		}
+	}
+
+	@Override
+	public void put(String algorithm, String hash, Path file) {
+		// The mirror fetches and stores the content itself.
+	}
+}
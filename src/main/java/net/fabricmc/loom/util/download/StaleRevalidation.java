@@ -0,0 +1,71 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2025 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.util.download;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the revalidation of outdated files in the background, while the stale file continues to be used.
+ * At most one revalidation of a file is in flight at a time.
+ */
+final class StaleRevalidation {
+	private static final int THREADS = 4;
+	private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+	private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(THREADS, runnable -> {
+		final Thread thread = new Thread(runnable, "Loom revalidation " + THREAD_COUNT.incrementAndGet());
+		thread.setDaemon(true);
+		return thread;
+	});
+	private static final Map<Path, CompletableFuture<Void>> IN_FLIGHT = new ConcurrentHashMap<>();
+
+	private StaleRevalidation() {
+	}
+
+	static void submit(Path output, Runnable revalidation) {
+		final Path path = output.toAbsolutePath();
+		final CompletableFuture<Void> future = new CompletableFuture<>();
+
+		if (IN_FLIGHT.putIfAbsent(path, future) != null) {
+			// Already being revalidated.
+			return;
+		}
+
+		// The future is registered before the revalidation starts, so it can be removed without racing the insertion.
+		CompletableFuture.runAsync(revalidation, EXECUTOR).whenComplete((unused, throwable) -> {
+			IN_FLIGHT.remove(path, future);
+			future.complete(null);
+		});
+	}
+
+	static boolean isInFlight(Path output) {
+		return IN_FLIGHT.containsKey(output.toAbsolutePath());
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2025 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.test.integration
+
+import groovy.io.FileType
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import net.fabricmc.loom.test.util.GradleProjectTestTrait
+
+import static net.fabricmc.loom.test.LoomTestConstants.STANDARD_TEST_VERSIONS
+import static org.gradle.testkit.runner.TaskOutcome.SUCCESS
+
+class LazyModSourcesTest extends Specification implements GradleProjectTestTrait {
+	private static final List<String> LAZY_ARGS = ["-Pfabric.loom.experimental.lazyModSources=true"]
+	private static final String PENDING_MESSAGE = "mod dependencies have not been remapped, run the remapModSources task"
+
+	@Unroll
+	def "lazy mod sources (gradle #version)"() {
+		setup:
+		def gradle = gradleProject(project: "minimalBase", version: version)
+		gradle.buildGradle << '''
+                dependencies {
+                    minecraft "com.mojang:minecraft:1.20.2"
+                    mappings "net.fabricmc:yarn:1.20.2+build.4:v2"
+                    modImplementation "net.fabricmc:fabric-loader:0.14.23"
+                    modImplementation fabricApi.module("fabric-api-base", "0.90.0+1.20.2")
+                }
+            '''
+
+		when:
+		def filtered = gradle.run(tasks: ["remapModSources", "--dependency=fabric-api-base"], args: LAZY_ARGS)
+		def apiSources = findRemappedSources(gradle, "fabric-api-base")
+		def apiSourcesModified = apiSources?.lastModified()
+		def loaderSourcesAfterFilter = findRemappedSources(gradle, "fabric-loader")
+
+		def all = gradle.run(task: "remapModSources", args: LAZY_ARGS)
+		def upToDate = gradle.run(task: "remapModSources", args: LAZY_ARGS)
+
+		then:
+		// Nothing is remapped while configuring the project
+		filtered.output.contains(PENDING_MESSAGE)
+		filtered.task(":remapModSources").outcome == SUCCESS
+		apiSources != null
+		loaderSourcesAfterFilter == null
+
+		all.output.contains(PENDING_MESSAGE)
+		all.task(":remapModSources").outcome == SUCCESS
+		findRemappedSources(gradle, "fabric-loader") != null
+		// Cached sources are not remapped again
+		findRemappedSources(gradle, "fabric-api-base").lastModified() == apiSourcesModified
+
+		!upToDate.output.contains(PENDING_MESSAGE)
+		upToDate.task(":remapModSources").outcome == SUCCESS
+
+		where:
+		version << STANDARD_TEST_VERSIONS
+	}
+
+	private static File findRemappedSources(GradleProject gradle, String name) {
+		def remappedMods = new File(gradle.projectDir, ".gradle/loom-cache/remapped_mods")
+		File sources = null
+
+		if (!remappedMods.exists()) {
+			return null
+		}
+
+		remappedMods.traverse(type: FileType.FILES) {
+			if (it.name.startsWith(name + "-") && it.name.endsWith("-sources.jar")) {
+				sources = it
+			}
+		}
+
+		return sources
+	}
+}
@@ -66,4 +66,29 @@ class ForgeTest extends Specification implements GradleProjectTestTrait {
 		'1.14.4'  | "28.2.23"    | '8'         | "loom.officialMojangMappings()"
 		'1.14.4'  | "28.2.23"    | '8'         | '"net.fabricmc:yarn:1.14.4+build.18:v2"'
 	}
+
+	@Unroll
+	def "forge tool CDS (enabled: #enabled)"() {
+		setup:
+		def gradle = gradleProject(project: "forge/simple", version: DEFAULT_GRADLE)
+		gradle.buildGradle.text = gradle.buildGradle.text.replace('@MCVERSION@', '1.20.1')
+				.replace('@FORGEVERSION@', '47.2.1')
+				.replace('@MAPPINGS@', 'loom.officialMojangMappings()')
+				.replace('@REPOSITORIES@', '')
+				.replace('@PACKAGE@', 'net.minecraftforge:forge')
+				.replace('@JAVA_VERSION@', '17')
+		def cdsDir = new File(gradle.projectDir, ".gradle/loom-cache/cds/tools")
+
+		when:
+		def result = gradle.run(task: "build", args: ["-Pfabric.loom.experimental.forgeToolCds=$enabled"])
+
+		then:
+		result.task(":build").outcome == SUCCESS
+		// Archives are only created when opted in, and no pending archive is left behind
+		(cdsDir.listFiles()?.findAll { it.name.endsWith(".jsa") } ?: []).isEmpty() == !enabled
+		(cdsDir.listFiles()?.findAll { it.name.endsWith(".tmp") } ?: []).isEmpty()
+
+		where:
+		enabled << [true, false]
+	}
 }
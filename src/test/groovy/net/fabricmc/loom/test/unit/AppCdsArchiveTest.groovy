@@ -0,0 +1,175 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2025 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.test.unit
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+import org.objectweb.asm.ClassWriter
+import org.objectweb.asm.Opcodes
+import spock.lang.Specification
+
+import net.fabricmc.loom.test.util.ZipTestUtils
+import net.fabricmc.loom.util.AppCdsArchive
+
+class AppCdsArchiveTest extends Specification {
+	Path tempDir = Files.createTempDirectory("loom-cds")
+
+	def "create then use archive"() {
+		given:
+		def jar = Files.writeString(tempDir.resolve("lib.jar"), "jar").toFile()
+		def archive = AppCdsArchive.create(tempDir.resolve("cds"), "runClient", "21", [jar])
+
+		when:
+		def createArgs = archive.getJvmArgs()
+		Files.writeString(archive.path(), "archive")
+		def useArgs = archive.getJvmArgs()
+
+		then:
+		createArgs == ["-XX:ArchiveClassesAtExit=" + archive.path().toAbsolutePath()]
+		useArgs == ["-XX:SharedArchiveFile=" + archive.path().toAbsolutePath()]
+	}
+
+	def "archive is keyed by classpath and java runtime"() {
+		given:
+		def jar = Files.writeString(tempDir.resolve("lib.jar"), "jar").toFile()
+		def directory = tempDir.resolve("cds")
+		def archive = AppCdsArchive.create(directory, "runClient", "21", [jar])
+		archive.getJvmArgs()
+		Files.writeString(archive.path(), "archive")
+		def other = AppCdsArchive.create(directory, "runServer", "21", [jar])
+		other.getJvmArgs()
+		Files.writeString(other.path(), "archive")
+
+		when:
+		Files.writeString(jar.toPath(), "modified jar")
+		def modified = AppCdsArchive.create(directory, "runClient", "21", [jar])
+		modified.getJvmArgs()
+
+		then:
+		AppCdsArchive.create(directory, "runClient", "17", [jar]).path() != modified.path()
+		modified.path() != archive.path()
+		!modified.exists()
+		// The outdated archive is removed, other run configs are kept
+		Files.notExists(archive.path())
+		other.exists()
+	}
+
+	def "pending archive is stored when the process succeeds"() {
+		given:
+		def jar = Files.writeString(tempDir.resolve("lib.jar"), "jar").toFile()
+		def directory = Files.createDirectories(tempDir.resolve("cds"))
+		def stale = Files.writeString(directory.resolve("tool-0123456789abcdef.jsa"), "stale")
+		def archive = AppCdsArchive.create(directory, "tool", "21", [jar])
+		def pending = archive.createPendingPath()
+		Files.writeString(pending, "archive")
+
+		when:
+		archive.finish(pending, true)
+
+		then:
+		Files.readString(archive.path()) == "archive"
+		Files.notExists(pending)
+		Files.notExists(stale)
+	}
+
+	def "pending archive is deleted when the process fails"() {
+		given:
+		def jar = Files.writeString(tempDir.resolve("lib.jar"), "jar").toFile()
+		def archive = AppCdsArchive.create(Files.createDirectories(tempDir.resolve("cds")), "tool", "21", [jar])
+		def pending = archive.createPendingPath()
+		Files.writeString(pending, "incomplete archive")
+
+		when:
+		archive.finish(pending, false)
+
+		then:
+		Files.notExists(pending)
+		!archive.exists()
+	}
+
+	def "no archive is stored when the process did not create one"() {
+		given:
+		def jar = Files.writeString(tempDir.resolve("lib.jar"), "jar").toFile()
+		def archive = AppCdsArchive.create(Files.createDirectories(tempDir.resolve("cds")), "tool", "21", [jar])
+
+		when:
+		archive.finish(archive.createPendingPath(), true)
+
+		then:
+		!archive.exists()
+	}
+
+	def "second launch uses the archive"() {
+		given:
+		def jar = ZipTestUtils.createZipFromBytes(["Main.class": createMainClass()], ".jar").toFile()
+		def archive = AppCdsArchive.create(tempDir.resolve("cds"), "runClient", System.getProperty("java.runtime.version"), [jar])
+
+		when:
+		def first = launch(archive.getJvmArgs(), jar)
+		def secondArgs = archive.getJvmArgs()
+		def second = launch(secondArgs + "-Xlog:class+load=info", jar)
+
+		then:
+		first.exitValue == 0
+		archive.exists()
+		secondArgs == ["-XX:SharedArchiveFile=" + archive.path().toAbsolutePath()]
+		second.exitValue == 0
+		second.output.contains("Main source: shared objects file (top)")
+	}
+
+	def "non-empty directories cannot be archived"() {
+		given:
+		def jar = Files.writeString(tempDir.resolve("lib.jar"), "jar").toFile()
+		def empty = Files.createDirectories(tempDir.resolve("empty")).toFile()
+		def classes = Files.createDirectories(tempDir.resolve("classes")).toFile()
+		Files.writeString(classes.toPath().resolve("Main.class"), "class")
+
+		expect:
+		AppCdsArchive.findNonEmptyDirectory([jar, empty]) == null
+		AppCdsArchive.findNonEmptyDirectory([jar, empty, classes]) == classes
+	}
+
+	private static Map launch(List<String> jvmArgs, File jar) {
+		def java = Path.of(System.getProperty("java.home"), "bin", "java").toString()
+		def process = new ProcessBuilder([java] + jvmArgs + ["-cp", jar.absolutePath, "Main"])
+				.redirectErrorStream(true)
+				.start()
+		def output = process.inputStream.text
+		return [exitValue: process.waitFor(), output: output]
+	}
+
+	private static byte[] createMainClass() {
+		def writer = new ClassWriter(ClassWriter.COMPUTE_MAXS)
+		writer.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, "Main", null, "java/lang/Object", null)
+		def main = writer.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "main", "([Ljava/lang/String;)V", null, null)
+		main.visitCode()
+		main.visitInsn(Opcodes.RETURN)
+		main.visitMaxs(0, 1)
+		main.visitEnd()
+		writer.visitEnd()
+		return writer.toByteArray()
+	}
+}
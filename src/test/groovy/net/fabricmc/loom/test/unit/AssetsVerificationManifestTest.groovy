@@ -0,0 +1,84 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2024 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.test.unit
+
+import java.nio.file.Files
+import java.nio.file.attribute.FileTime
+
+import spock.lang.Specification
+
+import net.fabricmc.loom.configuration.providers.minecraft.assets.AssetsVerificationManifest
+
+class AssetsVerificationManifestTest extends Specification {
+	def "verify unchanged files"() {
+		given:
+		def dir = Files.createTempDirectory("loom-assets")
+		def file = dir.resolve("object")
+		def manifestPath = dir.resolve("indexes/test.verified.json")
+		Files.writeString(file, "hello")
+
+		when:
+		def manifest = AssetsVerificationManifest.read(manifestPath)
+		def verifiedBefore = manifest.isVerified(file, "abc")
+		manifest.put(file, "abc")
+		manifest.write(manifestPath)
+		def read = AssetsVerificationManifest.read(manifestPath)
+
+		then:
+		!verifiedBefore
+		read.isVerified(file, "abc")
+		!read.isVerified(file, "def")
+	}
+
+	def "modified files are not verified"() {
+		given:
+		def dir = Files.createTempDirectory("loom-assets")
+		def file = dir.resolve("object")
+		Files.writeString(file, "hello")
+		def manifest = AssetsVerificationManifest.read(dir.resolve("missing.json"))
+		manifest.put(file, "abc")
+
+		when:
+		Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() - 10000))
+
+		then:
+		!manifest.isVerified(file, "abc")
+
+		when:
+		Files.delete(file)
+
+		then:
+		!manifest.isVerified(file, "abc")
+	}
+
+	def "corrupt manifest is ignored"() {
+		given:
+		def path = Files.createTempFile("loom-assets", ".json")
+		Files.writeString(path, "{not json")
+
+		expect:
+		AssetsVerificationManifest.read(path).objects().isEmpty()
+	}
+}
@@ -0,0 +1,134 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2024 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.test.unit
+
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+
+import org.objectweb.asm.ClassWriter
+import org.objectweb.asm.Opcodes
+import org.objectweb.asm.Type
+import spock.lang.Specification
+
+import net.fabricmc.loom.task.IncrementalRemapIndex
+import net.fabricmc.loom.test.util.ZipTestUtils
+
+class IncrementalRemapIndexTest extends Specification {
+	def "read dependencies"() {
+		when:
+		def dependencies = IncrementalRemapIndex.readDependencies(classBytes("test/Mixin", "java/lang/Object", ["test/Iface"], "test/Target"))
+
+		then:
+		dependencies == [
+			"java/lang/Object",
+			"test/Iface",
+			"test/Target"
+		]
+	}
+
+	def "changes propagate to subclasses and mixins"() {
+		given:
+		def before = IncrementalRemapIndex.create(createJar(false, "hello"), "context")
+		def after = IncrementalRemapIndex.create(createJar(true, "world"), "context")
+
+		when:
+		def changes = after.diff(before)
+
+		then:
+		changes.classes() == [
+			"test/A.class",
+			"test/B.class",
+			"test/M.class"
+		] as Set
+		changes.resources() == ["test.txt"] as Set
+		changes.removedResources().isEmpty()
+	}
+
+	def "no changes"() {
+		given:
+		def before = IncrementalRemapIndex.create(createJar(false, "hello"), "context")
+		def after = IncrementalRemapIndex.create(createJar(false, "hello"), "context")
+
+		when:
+		def changes = after.diff(before)
+
+		then:
+		changes.isEmpty()
+	}
+
+	def "context change requires full remap"() {
+		given:
+		def before = IncrementalRemapIndex.create(createJar(false, "hello"), "context")
+		def after = IncrementalRemapIndex.create(createJar(false, "hello"), "other")
+
+		expect:
+		after.diff(before) == null
+		after.diff(null) == null
+	}
+
+	def "read and write"() {
+		given:
+		def index = IncrementalRemapIndex.create(createJar(false, "hello"), "context")
+		def file = Files.createTempFile("loom-incremental", ".json")
+
+		when:
+		index.write(file)
+		def read = IncrementalRemapIndex.read(file)
+
+		then:
+		read == index
+		read.diff(index).isEmpty()
+	}
+
+	private static def createJar(boolean modified, String resource) {
+		return ZipTestUtils.createZipFromBytes([
+			"test/A.class": classBytes("test/A", "java/lang/Object", [], null, modified),
+			"test/B.class": classBytes("test/B", "test/A", [], null),
+			"test/C.class": classBytes("test/C", "java/lang/Object", [], null),
+			"test/M.class": classBytes("test/M", "java/lang/Object", [], "test/A"),
+			"test.txt": resource.getBytes(StandardCharsets.UTF_8)
+		], ".jar")
+	}
+
+	private static byte[] classBytes(String name, String superName, List<String> interfaces, String mixinTarget, boolean extraField = false) {
+		def writer = new ClassWriter(0)
+		writer.visit(Opcodes.V17, Opcodes.ACC_PUBLIC, name, null, superName, interfaces as String[])
+
+		if (mixinTarget != null) {
+			def annotation = writer.visitAnnotation("Lorg/spongepowered/asm/mixin/Mixin;", false)
+			def array = annotation.visitArray("value")
+			array.visit(null, Type.getObjectType(mixinTarget))
+			array.visitEnd()
+			annotation.visitEnd()
+		}
+
+		if (extraField) {
+			writer.visitField(Opcodes.ACC_PUBLIC, "extra", "I", null, null).visitEnd()
+		}
+
+		writer.visitEnd()
+		return writer.toByteArray()
+	}
+}
@@ -0,0 +1,86 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2025 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.test.unit
+
+import java.nio.file.Files
+import java.util.zip.ZipEntry
+import java.util.zip.ZipFile
+
+import com.google.gson.JsonObject
+import org.slf4j.LoggerFactory
+import spock.lang.Specification
+
+import net.fabricmc.loom.LoomGradlePlugin
+import net.fabricmc.loom.build.nesting.JarNester
+import net.fabricmc.loom.build.nesting.NestableJarGenerationTask
+import net.fabricmc.loom.test.util.ZipTestUtils
+import net.fabricmc.loom.util.ModPlatform
+import net.fabricmc.loom.util.ZipUtils
+
+class JarNesterTest extends Specification {
+	def "nest jars"() {
+		given:
+		def modJar = ZipTestUtils.createZip([
+			"fabric.mod.json": '{"schemaVersion": 1, "id": "test"}',
+			"test/Test.class": "class",
+			"META-INF/jars/nested.jar": "old"
+		], ".jar")
+		def nestedJar = ZipTestUtils.createZip(["fabric.mod.json": '{"schemaVersion": 1, "id": "nested"}'], ".jar")
+		def nestedFile = Files.createTempDirectory("loom-nesting").resolve("nested.jar")
+		Files.move(nestedJar, nestedFile)
+
+		when:
+		JarNester.nestJars([nestedFile.toFile()], modJar.toFile(), ModPlatform.FABRIC, LoggerFactory.getLogger("test"))
+		def json = ZipUtils.unpackGson(modJar, "fabric.mod.json", JsonObject.class)
+		def method = new ZipFile(modJar.toFile()).withCloseable { it.getEntry("META-INF/jars/nested.jar").method }
+
+		then:
+		json.getAsJsonArray("jars").size() == 1
+		json.getAsJsonArray("jars").get(0).getAsJsonObject().get("file").getAsString() == "META-INF/jars/nested.jar"
+		ZipUtils.unpack(modJar, "test/Test.class") == "class".bytes
+		ZipUtils.unpack(modJar, "META-INF/jars/nested.jar") == Files.readAllBytes(nestedFile)
+		method == ZipEntry.STORED
+	}
+
+	def "nest jars forge"() {
+		given:
+		def modJar = ZipTestUtils.createZip(["META-INF/mods.toml": "", "test/Test.class": "class"], ".jar")
+		def metadata = new JsonObject()
+		metadata.addProperty("group", "test")
+		metadata.addProperty("name", "nested")
+		metadata.addProperty("version", "1.0.0")
+		def nestedJar = ZipTestUtils.createZip([(NestableJarGenerationTask.NESTING_METADATA_PATH): LoomGradlePlugin.GSON.toJson(metadata)], ".jar")
+
+		when:
+		JarNester.nestJars([nestedJar.toFile()], modJar.toFile(), ModPlatform.FORGE, LoggerFactory.getLogger("test"))
+		def json = ZipUtils.unpackGson(modJar, "META-INF/jarjar/metadata.json", JsonObject.class)
+
+		then:
+		def jar = json.getAsJsonArray("jars").get(0).getAsJsonObject()
+		jar.get("path").getAsString() == "META-INF/jars/" + nestedJar.fileName
+		jar.getAsJsonObject("identifier").get("artifact").getAsString() == "nested"
+		ZipUtils.unpack(modJar, "META-INF/jars/" + nestedJar.fileName) == Files.readAllBytes(nestedJar)
+	}
+}
@@ -87,6 +87,36 @@ class JarSplitterTest extends Specification {
 		clientOutputJar.exists()
 	}
 
+	def "analyse and split: split"() {
+		given:
+		def inputJar = downloadJarIfNotExists(SPLIT_INPUT_JAR_URL, "split.jar")
+		def commonOutputJar = getFile("common-analysed-out.jar")
+		def clientOutputJar = getFile("client-analysed-out.jar")
+
+		when:
+		def target = new JarSplitter(inputJar.toPath()).analyseAndSplit(commonOutputJar.toPath(), clientOutputJar.toPath())
+
+		then:
+		target == JarSplitter.Target.SPLIT
+		commonOutputJar.exists()
+		clientOutputJar.exists()
+	}
+
+	def "analyse and split: client"() {
+		given:
+		def inputJar = downloadJarIfNotExists(CLIENT_INPUT_JAR_URL, "client.jar")
+		def commonOutputJar = getFile("common-analysed-out.jar")
+		def clientOutputJar = getFile("client-analysed-out.jar")
+
+		when:
+		def target = new JarSplitter(inputJar.toPath()).analyseAndSplit(commonOutputJar.toPath(), clientOutputJar.toPath())
+
+		then:
+		target == JarSplitter.Target.CLIENT_ONLY
+		!commonOutputJar.exists()
+		!clientOutputJar.exists()
+	}
+
 	File downloadJarIfNotExists(String url, String name) {
 		File dst = new File(workingDir, name)
 
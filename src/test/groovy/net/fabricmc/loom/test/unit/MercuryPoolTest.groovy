@@ -0,0 +1,85 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2025 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.test.unit
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicInteger
+
+import org.cadixdev.mercury.Mercury
+import spock.lang.Specification
+
+import net.fabricmc.loom.util.MercuryPool
+
+class MercuryPoolTest extends Specification {
+	def "each value is run once"() {
+		given:
+		def created = new AtomicInteger()
+		def inUse = ConcurrentHashMap.newKeySet()
+		def values = ConcurrentHashMap.newKeySet()
+
+		when:
+		MercuryPool.run((1..20).toList(), {
+			created.incrementAndGet()
+			new Mercury()
+		}, { mercury, value ->
+			// An instance must never be used by two jobs at once
+			assert inUse.add(mercury)
+			values.add(value)
+			inUse.remove(mercury)
+		})
+
+		then:
+		values == (1..20).toSet()
+		created.get() >= 1
+		created.get() <= 4
+	}
+
+	def "io exceptions are rethrown"() {
+		when:
+		MercuryPool.run((1..8).toList(), { new Mercury() }, { mercury, value ->
+			if (value == 5) {
+				throw new IOException("Failed $value")
+			}
+		})
+
+		then:
+		def e = thrown(IOException)
+		e.message == "Failed 5"
+	}
+
+	def "no instances are created without values"() {
+		given:
+		def created = new AtomicInteger()
+
+		when:
+		MercuryPool.run([], {
+			created.incrementAndGet()
+			new Mercury()
+		}, { mercury, value -> })
+
+		then:
+		created.get() == 0
+	}
+}
@@ -0,0 +1,80 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2025 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.test.unit
+
+import spock.lang.Specification
+
+import net.fabricmc.loom.task.MigrateMappingsTask
+import net.fabricmc.mappingio.MappingReader
+import net.fabricmc.mappingio.tree.MemoryMappingTree
+
+class MigrateMappingsTest extends Specification {
+	def "changed names"() {
+		given:
+		def current = createMappings("""
+tiny\t2\t0\tintermediary\tnamed
+c\tclass_1\ttest/Entity
+\tf\tI\tfield_1\tage
+\tm\t()V\tmethod_1\ttick
+c\tclass_2\ttest/World
+c\tclass_2\$class_3\ttest/World\$Chunk
+c\tclass_4\ttest/Removed
+""")
+		def target = createMappings("""
+tiny\t2\t0\tintermediary\tnamed
+c\tclass_1\ttest/Entity
+\tf\tI\tfield_1\tticksExisted
+\tm\t()V\tmethod_1\ttick
+c\tclass_2\ttest/level/World
+c\tclass_2\$class_3\ttest/level/World\$LevelChunk
+""")
+
+		when:
+		def changedNames = MigrateMappingsTask.getChangedNames(current, target)
+
+		then:
+		changedNames == ["age", "World", "Chunk", "Removed"] as Set
+	}
+
+	def "touches changed names"() {
+		expect:
+		MigrateMappingsTask.touchesChangedNames(source, ["age", "World"] as Set) == expected
+
+		where:
+		source                                      | expected
+		"class Test { int get() { return age; } }"  | true
+		"import test.World;"                        | true
+		"class Test { int getAge() { return 1; } }" | false
+		"class Test { WorldRenderer renderer; }"    | false
+	}
+
+	private static MemoryMappingTree createMappings(String mappings) {
+		def tree = new MemoryMappingTree()
+		new StringReader(mappings.trim()).withCloseable {
+			MappingReader.read(it, tree)
+		}
+		return tree
+	}
+}
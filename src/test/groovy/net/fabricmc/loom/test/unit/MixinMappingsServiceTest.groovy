@@ -0,0 +1,136 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2025 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.test.unit
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.attribute.FileTime
+
+import spock.lang.Specification
+
+import net.fabricmc.loom.task.service.MixinMappingsService
+import net.fabricmc.tinyremapper.IMappingProvider
+
+class MixinMappingsServiceTest extends Specification {
+	Path tempDir = Files.createTempDirectory("loom-mixin-mappings")
+	Path first = tempDir.resolve("first.tiny")
+	Path second = tempDir.resolve("second.tiny")
+	MixinMappingsService service = new MixinMappingsService([
+		new MixinMappingsService.Source(first, "intermediary", "named"),
+		new MixinMappingsService.Source(second, "intermediary", "named")
+	])
+
+	def cleanup() {
+		service.close()
+	}
+
+	def "new files are read"() {
+		given:
+		writeMappings(first, "class_1": "First")
+
+		when:
+		def before = load()
+		writeMappings(second, "class_2": "Second")
+		def after = load()
+
+		then:
+		before == ["class_1 -> First"]
+		after == ["class_1 -> First", "class_2 -> Second"]
+	}
+
+	def "changed files are read again"() {
+		given:
+		writeMappings(first, "class_1": "First")
+		def before = load()
+
+		when:
+		writeMappings(first, "class_1": "Renamed")
+		Files.setLastModifiedTime(first, FileTime.fromMillis(Files.getLastModifiedTime(first).toMillis() + 2000))
+		def after = load()
+
+		then:
+		before == ["class_1 -> First"]
+		after == ["class_1 -> Renamed"]
+	}
+
+	def "files with an unchanged stamp are not read again"() {
+		given:
+		writeMappings(first, "class_1": "First")
+		def modified = Files.getLastModifiedTime(first)
+		def before = load()
+
+		when:
+		// Same size and modification time
+		writeMappings(first, "class_1": "Other")
+		Files.setLastModifiedTime(first, modified)
+		def after = load()
+
+		then:
+		before == ["class_1 -> First"]
+		after == before
+	}
+
+	def "deleted files are no longer provided"() {
+		given:
+		writeMappings(first, "class_1": "First")
+		writeMappings(second, "class_2": "Second")
+		def before = load()
+
+		when:
+		Files.delete(first)
+		def after = load()
+
+		then:
+		before == ["class_1 -> First", "class_2 -> Second"]
+		after == ["class_2 -> Second"]
+	}
+
+	def "mappings are loaded in source order"() {
+		given:
+		// The second file is read first
+		writeMappings(second, "class_2": "Second")
+		load()
+		writeMappings(first, "class_1": "First")
+
+		when:
+		def mappings = load()
+
+		then:
+		mappings == ["class_1 -> First", "class_2 -> Second"]
+	}
+
+	private List<String> load() {
+		def classes = []
+		def acceptor = [acceptClass: { String src, String dst -> classes << "$src -> $dst".toString() }] as IMappingProvider.MappingAcceptor
+		service.mappingsProvider.load(acceptor)
+		return classes
+	}
+
+	private static void writeMappings(Map<String, String> classes, Path path) {
+		def lines = ["v1\tintermediary\tnamed"]
+		classes.each { from, to -> lines << "CLASS\t$from\t$to".toString() }
+		Files.writeString(path, lines.join("\n") + "\n")
+	}
+}
@@ -0,0 +1,80 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2025 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.test.unit
+
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.zip.ZipEntry
+import java.util.zip.ZipOutputStream
+
+import spock.lang.Specification
+
+import net.fabricmc.loom.configuration.providers.minecraft.NativesExtractor
+import net.fabricmc.loom.test.util.ZipTestUtils
+
+class NativesExtractorTest extends Specification {
+	Path tempDir = Files.createTempDirectory("loom-natives")
+
+	def "extract natives"() {
+		given:
+		def jar = ZipTestUtils.createZipFromBytes([
+			"liblwjgl.so": bytes("lwjgl"),
+			"macos/liblwjgl.jnilib": bytes("mac"),
+			"META-INF/MANIFEST.MF": bytes("manifest")
+		], ".jar")
+		def output = tempDir.resolve("natives")
+
+		when:
+		NativesExtractor.extractJar(jar, output)
+
+		then:
+		Files.readString(output.resolve("liblwjgl.so")) == "lwjgl"
+		Files.readString(output.resolve("macos/liblwjgl.dylib")) == "mac"
+		Files.notExists(output.resolve("META-INF/MANIFEST.MF"))
+	}
+
+	def "entries outside of the output are rejected"() {
+		given:
+		// Written directly, as the zip file system normalises the name
+		def jar = tempDir.resolve("escape.jar")
+		new ZipOutputStream(Files.newOutputStream(jar)).withCloseable {
+			it.putNextEntry(new ZipEntry("../escape.so"))
+			it.write(bytes("escape"))
+		}
+		def output = tempDir.resolve("natives")
+
+		when:
+		NativesExtractor.extractJar(jar, output)
+
+		then:
+		thrown(IOException)
+		Files.notExists(tempDir.resolve("escape.so"))
+	}
+
+	private static byte[] bytes(String value) {
+		return value.getBytes(StandardCharsets.UTF_8)
+	}
+}
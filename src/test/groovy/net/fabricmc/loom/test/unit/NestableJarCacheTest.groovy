@@ -0,0 +1,89 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2025 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.test.unit
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+import spock.lang.Specification
+
+import net.fabricmc.loom.build.nesting.NestableJarCache
+import net.fabricmc.loom.util.ModPlatform
+
+class NestableJarCacheTest extends Specification {
+	Path tempDir = Files.createTempDirectory("loom-nestable-jars")
+	NestableJarCache cache = new NestableJarCache(tempDir.resolve("cache"))
+
+	def "cache miss"() {
+		given:
+		def input = Files.writeString(tempDir.resolve("input.jar"), "input")
+		def output = tempDir.resolve("output.jar")
+
+		when:
+		def cachedFile = cache.getCachedFile(input, ModPlatform.FABRIC, '{"id": "test"}', null)
+		def restored = cache.restore(cachedFile, output)
+
+		then:
+		!restored
+		Files.notExists(output)
+	}
+
+	def "cache hit"() {
+		given:
+		def input = Files.writeString(tempDir.resolve("input.jar"), "input")
+		def output = Files.writeString(tempDir.resolve("output.jar"), "nestable jar")
+		def cachedFile = cache.getCachedFile(input, ModPlatform.FABRIC, '{"id": "test"}', null)
+		cache.store(output, cachedFile)
+		def restoredOutput = tempDir.resolve("restored.jar")
+
+		when:
+		def restored = cache.restore(cache.getCachedFile(input, ModPlatform.FABRIC, '{"id": "test"}', null), restoredOutput)
+		def content = Files.readString(restoredOutput)
+		// Later changes to the output must not reach the cache
+		Files.writeString(restoredOutput, "modified")
+
+		then:
+		restored
+		content == "nestable jar"
+		Files.readString(cachedFile) == "nestable jar"
+	}
+
+	def "cache key changes with the generated metadata"() {
+		given:
+		def input = Files.writeString(tempDir.resolve("input.jar"), "input")
+		def cachedFile = cache.getCachedFile(input, ModPlatform.FABRIC, '{"id": "test"}', null)
+		cache.store(Files.writeString(tempDir.resolve("output.jar"), "nestable jar"), cachedFile)
+
+		when:
+		def changedModJson = cache.getCachedFile(input, ModPlatform.FABRIC, '{"id": "other"}', null)
+		def changedPlatform = cache.getCachedFile(input, ModPlatform.FORGE, null, '{"group": "test"}')
+		Files.writeString(input, "changed input")
+		def changedInput = cache.getCachedFile(input, ModPlatform.FABRIC, '{"id": "test"}', null)
+
+		then:
+		[cachedFile, changedModJson, changedPlatform, changedInput].toSet().size() == 4
+		!cache.restore(changedModJson, tempDir.resolve("restored.jar"))
+	}
+}
@@ -24,6 +24,7 @@
 
 package net.fabricmc.loom.test.unit
 
+import org.objectweb.asm.ClassReader
 import org.spongepowered.asm.mixin.Mixin
 import org.spongepowered.asm.mixin.gen.Accessor
 import spock.lang.Specification
@@ -68,6 +69,28 @@ class ValidateMixinNameTest extends Specification {
 		mixin == null
 	}
 
+	def "NotAMixin"() {
+		when:
+		def mixin = getMixin(Test.class)
+		then:
+		mixin == null
+	}
+
+	def "Constant pool pre-scan"() {
+		expect:
+		getInput(clazz).withCloseable {
+			ValidateMixinNameTask.containsMixinDescriptor(new ClassReader(it))
+		} == expected
+
+		where:
+		clazz                      | expected
+		TestMixin.class            | true
+		TestAccessor.class         | true
+		TestManyTargetsMixin.class | true
+		Test.class                 | false
+		Test.Inner.class           | false
+	}
+
 	static ValidateMixinNameTask.Mixin getMixin(Class<?> clazz) {
 		return getInput(clazz).withCloseable {
 			return ValidateMixinNameTask.getMixin(it)
@@ -24,17 +24,26 @@
 
 package net.fabricmc.loom.test.unit
 
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
 import java.nio.charset.StandardCharsets
+import java.nio.file.FileSystems
 import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.attribute.PosixFilePermissions
 import java.time.ZoneId
+import java.util.zip.ZipEntry
+import java.util.zip.ZipOutputStream
 
 import com.google.gson.JsonObject
 import org.gradle.api.tasks.bundling.ZipEntryCompression
 import spock.lang.Specification
 
+import net.fabricmc.loom.test.util.ZipTestUtils
 import net.fabricmc.loom.util.Checksum
 import net.fabricmc.loom.util.FileSystemUtil
 import net.fabricmc.loom.util.Pair
+import net.fabricmc.loom.util.RawZipFile
 import net.fabricmc.loom.util.ZipReprocessorUtil
 import net.fabricmc.loom.util.ZipUtils
 
@@ -180,7 +189,7 @@ class ZipUtilsTest extends Specification {
 		then:
 		ZipUtils.unpack(zip, "text.txt") == "hello world".bytes
 		ZipUtils.unpack(zip, "fabric.mod.json") == "Some text".bytes
-		Checksum.sha1Hex(zip) == "1b06cc0aaa65ab2b0d423fe33431ff5bd14bf9c8"
+		Checksum.sha1Hex(zip) == "4569aa6084d1b31345820654f3d196c132e08397"
 
 		where:
 		timezone 			| _
@@ -192,6 +201,63 @@ class ZipUtilsTest extends Specification {
 		"Etc/GMT+9" 		| _
 	}
 
+	def "append zip entry keeps existing entries in place"() {
+		given:
+		def zip = ZipTestUtils.createZip(["text.txt": "hello world", "test/other.txt": "other"])
+		ZipReprocessorUtil.reprocessZip(zip, true, false)
+		def before = Files.readAllBytes(zip)
+		// The offset of the central directory is stored at the end of the file, the zip has no comment
+		def centralDirectoryOffset = ByteBuffer.wrap(before).order(ByteOrder.LITTLE_ENDIAN).getInt(before.length - 6)
+
+		when:
+		ZipReprocessorUtil.appendZipEntry(zip, "fabric.mod.json", "Some text".getBytes(StandardCharsets.UTF_8))
+		def after = Files.readAllBytes(zip)
+
+		then:
+		Arrays.equals(before, 0, centralDirectoryOffset, after, 0, centralDirectoryOffset)
+		ZipUtils.unpack(zip, "text.txt") == "hello world".bytes
+		ZipUtils.unpack(zip, "test/other.txt") == "other".bytes
+		ZipUtils.unpack(zip, "fabric.mod.json") == "Some text".bytes
+	}
+
+	def "reprocess ignores file attributes and extra fields"() {
+		given:
+		def readOnly = createPosixZip("rw-r--r--")
+		def executable = createPosixZip("rwxrwxrwx")
+		def withExtra = Files.createTempFile("loom-zip-test", ".zip")
+		new ZipOutputStream(Files.newOutputStream(withExtra)).withCloseable { out ->
+			def entry = new ZipEntry("text.txt")
+			entry.extra = [0x4c, 0x4f, 4, 0, 1, 2, 3, 4] as byte[]
+			entry.comment = "comment"
+			out.putNextEntry(entry)
+			out.write("hello world".bytes)
+			out.closeEntry()
+		}
+
+		when:
+		[readOnly, executable, withExtra].each {
+			ZipReprocessorUtil.reprocessZip(it, true, false)
+		}
+
+		then:
+		Files.readAllBytes(readOnly) == Files.readAllBytes(executable)
+		Files.readAllBytes(readOnly) == Files.readAllBytes(withExtra)
+		ZipUtils.unpack(readOnly, "text.txt") == "hello world".bytes
+	}
+
+	private static Path createPosixZip(String permissions) {
+		def zip = Files.createTempFile("loom-zip-test", ".zip")
+		Files.delete(zip)
+
+		FileSystems.newFileSystem(URI.create("jar:" + zip.toUri()), [create: "true", enablePosixFileAttributes: "true"]).withCloseable { fs ->
+			def file = fs.getPath("text.txt")
+			Files.writeString(file, "hello world")
+			Files.setPosixFilePermissions(file, PosixFilePermissions.fromString(permissions))
+		}
+
+		return zip
+	}
+
 	def "transform json"() {
 		given:
 		def dir = File.createTempDir()
@@ -256,6 +322,50 @@ class ZipUtilsTest extends Specification {
 
 		then:
 		ZipUtils.unpack(zip, "text.txt") == "hello world".bytes
-		Checksum.sha1Hex(zip) == "e699fa52a520553241aac798f72255ac0a912b05"
+		Checksum.sha1Hex(zip) == "e73df2b8f0e567bcdfedd16b8a2bc4e9bab0943f"
+	}
+
+	def "copy with non class files"() {
+		given:
+		def classes = ZipTestUtils.createZipFromBytes(["test/A.class": "remapped".bytes], ".jar")
+		def input = ZipTestUtils.createZipFromBytes([
+			"test/A.class": "original".bytes,
+			"test/B.class": "removed".bytes,
+			"META-INF/MANIFEST.MF": "Manifest-Version: 1.0".bytes,
+			"assets/test/text.txt": "hello world".bytes
+		], ".jar")
+		def output = Files.createTempFile("loom-zip-test", ".jar")
+		Files.delete(output)
+
+		when:
+		ZipUtils.copyWithNonClassFiles(classes, input, output) { it.startsWith("META-INF/") }
+
+		then:
+		ZipUtils.unpack(output, "test/A.class") == "remapped".bytes
+		ZipUtils.unpack(output, "assets/test/text.txt") == "hello world".bytes
+		!ZipUtils.contains(output, "test/B.class")
+		!ZipUtils.contains(output, "META-INF/MANIFEST.MF")
+
+		// Resources are copied without being recompressed
+		RawZipFile.open(input).withCloseable { source ->
+			RawZipFile.open(output).withCloseable { copy ->
+				def sourceEntry = source.getEntry("assets/test/text.txt")
+				def copiedEntry = copy.getEntry("assets/test/text.txt")
+
+				assert copiedEntry.method() == sourceEntry.method()
+				assert copiedEntry.crc() == sourceEntry.crc()
+				assert copiedEntry.compressedSize() == sourceEntry.compressedSize()
+				assert readRawData(output, copiedEntry) == readRawData(input, sourceEntry)
+			}
+		}
+	}
+
+	// Reads the stored (possibly compressed) bytes of an entry, skipping its local header
+	private static byte[] readRawData(Path zip, RawZipFile.Entry entry) {
+		def bytes = Files.readAllBytes(zip)
+		def header = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN)
+		int offset = (int) entry.localHeaderOffset()
+		int dataStart = offset + 30 + Short.toUnsignedInt(header.getShort(offset + 26)) + Short.toUnsignedInt(header.getShort(offset + 28))
+		return Arrays.copyOfRange(bytes, dataStart, dataStart + (int) entry.compressedSize())
 	}
 }
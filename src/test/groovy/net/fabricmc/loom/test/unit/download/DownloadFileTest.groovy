@@ -29,12 +29,18 @@ import java.nio.file.Paths
 import java.nio.file.attribute.FileTime
 import java.time.Duration
 import java.time.Instant
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
 
 import io.javalin.http.HttpStatus
 import spock.lang.IgnoreIf
+import spock.util.concurrent.PollingConditions
 
 import net.fabricmc.loom.util.Checksum
+import net.fabricmc.loom.util.download.AsyncDownloadExecutor
+import net.fabricmc.loom.util.download.DirectoryDownloadCache
 import net.fabricmc.loom.util.download.Download
+import net.fabricmc.loom.util.download.DownloadCache
 import net.fabricmc.loom.util.download.DownloadException
 import net.fabricmc.loom.util.download.DownloadExecutor
 import net.fabricmc.loom.util.download.DownloadProgressListener
@@ -200,6 +206,48 @@ class DownloadFileTest extends DownloadTest {
 		requestCount == 2
 	}
 
+	@IgnoreIf({ os.windows }) // Requires admin on windows.
+	def "Stale while revalidate"() {
+		setup:
+		String content = "Hello World"
+		int requestCount = 0
+		// Holds the revalidation request until the stale file has been read
+		def release = new CountDownLatch(1)
+
+		server.get("/stale.txt") {
+			if (requestCount++ > 0) {
+				release.await(10, TimeUnit.SECONDS)
+			}
+
+			it.result(content)
+		}
+
+		def output = new File(File.createTempDir(), "stale.txt").toPath()
+		def conditions = new PollingConditions(timeout: 10)
+
+		when:
+		Download.create("$PATH/stale.txt")
+				.maxAge(Duration.ofDays(1))
+				.staleWhileRevalidate()
+				.downloadPath(output)
+
+		Files.setLastModifiedTime(output, FileTime.from(Instant.now() - Duration.ofDays(2)))
+		content = "Hello Loom"
+
+		def stale = Download.create("$PATH/stale.txt")
+				.maxAge(Duration.ofDays(1))
+				.staleWhileRevalidate()
+				.downloadString(output)
+
+		release.countDown()
+
+		then:
+		stale == "Hello World"
+		conditions.eventually {
+			assert Files.readString(output) == "Hello Loom"
+		}
+	}
+
 	def "ETag"() {
 		setup:
 		int requestCount = 0
@@ -427,4 +475,280 @@ class DownloadFileTest extends DownloadTest {
 		then:
 		Checksum.sha1Hex(file) == "8e8c9be5dc27802caba47053d4fdea328f7f89bd"
 	}
+
+	def "Resume: Partial file"() {
+		setup:
+		def rangeRequests = []
+		server.get("/resumeFile") {
+			serveRange(it, "Hello World".bytes, "\"resume\"", rangeRequests)
+		}
+
+		def output = new File(File.createTempDir(), "file.txt").toPath()
+		Files.writeString(output.resolveSibling("file.txt.part"), "Hello")
+		Files.writeString(output.resolveSibling("file.txt.part.etag"), "\"resume\"")
+
+		when:
+		Download.create("$PATH/resumeFile")
+				.sha1("0a4d55a8d778e5022fab701977c5d840bbc486d0")
+				.downloadPath(output)
+
+		then:
+		Files.readString(output) == "Hello World"
+		rangeRequests == ["bytes=5-"]
+		Files.notExists(output.resolveSibling("file.txt.part"))
+		Files.notExists(output.resolveSibling("file.txt.part.etag"))
+	}
+
+	def "Resume: Changed file"() {
+		setup:
+		def rangeRequests = []
+		server.get("/resumeChangedFile") {
+			serveRange(it, "Hello World".bytes, "\"new\"", rangeRequests)
+		}
+
+		def output = new File(File.createTempDir(), "file.txt").toPath()
+		Files.writeString(output.resolveSibling("file.txt.part"), "Bye")
+		Files.writeString(output.resolveSibling("file.txt.part.etag"), "\"old\"")
+
+		when:
+		Download.create("$PATH/resumeChangedFile").downloadPath(output)
+
+		then:
+		Files.readString(output) == "Hello World"
+		rangeRequests == ["bytes=3-"]
+	}
+
+	def "Resume: Unexpected range"() {
+		setup:
+		def rangeRequests = []
+		server.get("/resumeUnexpectedRange") {
+			it.header("ETag", "\"resume\"")
+			it.header("Accept-Ranges", "bytes")
+
+			if (it.header("Range") != null) {
+				// Ignores the requested start, the partial file cannot be resumed from this response.
+				rangeRequests.add(it.header("Range"))
+				it.status(HttpStatus.PARTIAL_CONTENT)
+				it.header("Content-Range", "bytes 0-10/11")
+			}
+
+			it.result("Hello World")
+		}
+
+		def output = new File(File.createTempDir(), "file.txt").toPath()
+		Files.writeString(output.resolveSibling("file.txt.part"), "Hello")
+		Files.writeString(output.resolveSibling("file.txt.part.etag"), "\"resume\"")
+
+		when:
+		Download.create("$PATH/resumeUnexpectedRange").downloadPath(output)
+
+		then:
+		Files.readString(output) == "Hello World"
+		rangeRequests == ["bytes=5-"]
+		Files.notExists(output.resolveSibling("file.txt.part"))
+	}
+
+	def "Segmented"() {
+		setup:
+		def data = new byte[100_000]
+		new Random(42).nextBytes(data)
+		def rangeRequests = Collections.synchronizedList([])
+		server.get("/segmentedFile") {
+			serveRange(it, data, "\"segmented\"", rangeRequests)
+		}
+
+		def output = new File(File.createTempDir(), "file.bin").toPath()
+
+		when:
+		Download.create("$PATH/segmentedFile")
+				.sha1(Checksum.sha1Hex(data))
+				.segmented(4, 1000)
+				.downloadPath(output)
+
+		then:
+		Files.readAllBytes(output) == data
+		rangeRequests.toSorted() == ["bytes=25000-49999", "bytes=50000-74999", "bytes=75000-99999"]
+	}
+
+	def "Segmented: Progress"() {
+		setup:
+		def data = new byte[100_000]
+		new Random(42).nextBytes(data)
+		server.get("/segmentedProgressFile") {
+			serveRange(it, data, "\"segmented\"", Collections.synchronizedList([]))
+		}
+
+		def output = new File(File.createTempDir(), "file.bin").toPath()
+		int started = 0
+		int ended = 0
+
+		when:
+		Download.create("$PATH/segmentedProgressFile")
+				.segmented(4, 1000)
+				.progress(new DownloadProgressListener() {
+					@Override
+					void onStart() {
+						started++
+					}
+
+					@Override
+					void onProgress(long bytesTransferred, long contentLength) {
+					}
+
+					@Override
+					void onEnd() {
+						ended++
+					}
+				})
+				.downloadPath(output)
+
+		then:
+		Files.readAllBytes(output) == data
+		started == 1
+		ended == 1
+	}
+
+	def "Async executor"() {
+		setup:
+		int failures = 0
+		server.get("/async/{name}") {
+			if (it.pathParam("name") == "flaky" && failures++ == 0) {
+				it.status(HttpStatus.SERVICE_UNAVAILABLE)
+				return
+			}
+
+			it.result("Hello " + it.pathParam("name"))
+		}
+
+		def dir = File.createTempDir().toPath()
+		def names = (0..<50).collect { "file$it" } + ["flaky"]
+
+		when:
+		new AsyncDownloadExecutor(2, 8).withCloseable { executor ->
+			for (name in names) {
+				Download.create("$PATH/async/$name").downloadPathAsync(dir.resolve(name), executor)
+			}
+		}
+
+		then:
+		names.every { Files.readString(dir.resolve(it)) == "Hello $it" }
+		failures == 2
+	}
+
+	def "Async executor: Not found"() {
+		setup:
+		server.get("/asyncNotFound") {
+			it.status(HttpStatus.NOT_FOUND)
+		}
+
+		def output = new File(File.createTempDir(), "file.txt").toPath()
+
+		when:
+		new AsyncDownloadExecutor(1, 1).withCloseable { executor ->
+			Download.create("$PATH/asyncNotFound").downloadPathAsync(output, executor)
+		}
+
+		then:
+		def e = thrown DownloadException
+		(e.suppressed[0] as DownloadException).statusCode == 404
+		Files.notExists(output)
+	}
+
+	def "Cache: Directory"() {
+		setup:
+		int requestCount = 0
+		server.get("/cachedFile") {
+			it.result("Hello World")
+			requestCount++
+		}
+
+		def cache = new DirectoryDownloadCache(File.createTempDir().toPath())
+		def first = new File(File.createTempDir(), "file.txt").toPath()
+		def second = new File(File.createTempDir(), "file.txt").toPath()
+
+		when:
+		for (output in [first, second]) {
+			Download.create("$PATH/cachedFile")
+					.sha1("0a4d55a8d778e5022fab701977c5d840bbc486d0")
+					.cache(cache)
+					.downloadPath(output)
+		}
+
+		then:
+		requestCount == 1
+		Files.readString(second) == "Hello World"
+		Files.readString(cache.root().resolve("sha1/0a/0a4d55a8d778e5022fab701977c5d840bbc486d0")) == "Hello World"
+	}
+
+	def "Cache: Mirror"() {
+		setup:
+		int requestCount = 0
+		server.get("/mirrorOrigin") {
+			requestCount++
+			it.result("Hello World")
+		}
+		server.get("/mirror/sha1/{hash}") {
+			if (it.pathParam("hash") == "0a4d55a8d778e5022fab701977c5d840bbc486d0") {
+				it.result("Hello World")
+			} else {
+				it.status(HttpStatus.NOT_FOUND)
+			}
+		}
+
+		def cache = DownloadCache.create("$PATH/mirror")
+		def hit = new File(File.createTempDir(), "file.txt").toPath()
+		def miss = new File(File.createTempDir(), "file.txt").toPath()
+
+		when:
+		Download.create("$PATH/mirrorOrigin")
+				.sha1("0a4d55a8d778e5022fab701977c5d840bbc486d0")
+				.cache(cache)
+				.downloadPath(hit)
+		// Not present in the mirror, so the origin is used. The origin content does not match the hash either.
+		Download.create("$PATH/mirrorOrigin")
+				.sha1("0a4d55a8d778e5022fab701977c5d840bbc486d1")
+				.cache(cache)
+				.maxRetries(1)
+				.downloadPath(miss)
+
+		then:
+		thrown DownloadException
+		Files.readString(hit) == "Hello World"
+		requestCount == 2
+	}
+
+	def "Cache: Insecure mirror"() {
+		when:
+		DownloadCache.create("http://example.com/mirror")
+
+		then:
+		thrown IllegalArgumentException
+	}
+
+	// A minimal single range implementation, enough for the downloader
+	private static void serveRange(def ctx, byte[] data, String etag, List<String> rangeRequests) {
+		ctx.header("ETag", etag)
+		ctx.header("Accept-Ranges", "bytes")
+
+		def range = ctx.header("Range")
+
+		if (range == null || (ctx.header("If-Range") != null && ctx.header("If-Range") != etag)) {
+			if (range != null) {
+				rangeRequests.add(range)
+			}
+
+			ctx.header("Content-Length", data.length as String)
+			ctx.result(data)
+			return
+		}
+
+		rangeRequests.add(range)
+		def (start, end) = range.substring("bytes=".length()).split("-", -1)
+		int from = start as int
+		int to = end.isEmpty() ? data.length - 1 : end as int
+
+		ctx.status(HttpStatus.PARTIAL_CONTENT)
+		ctx.header("Content-Range", "bytes $from-$to/${data.length}")
+		ctx.result(Arrays.copyOfRange(data, from, to + 1))
+	}
 }
@@ -0,0 +1,109 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2025 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.test.unit.forge
+
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.nio.file.Path
+
+import dev.architectury.loom.util.MappingOption
+import spock.lang.Specification
+
+import net.fabricmc.loom.configuration.sources.ForgeSourcesRemapper
+
+class ForgeSourcesRemapperTest extends Specification {
+	Path tempDir = Files.createTempDirectory("loom-forge-sources")
+
+	def "shards never split packages"() {
+		given:
+		def names = []
+		names += (0..<3).collect { "/net/minecraftforge/a/A${it}.java" }
+		names += (0..<4).collect { "/net/minecraftforge/b/B${it}.java" }
+		names += (0..<2).collect { "/net/minecraftforge/c/C${it}.java" }
+		names += "/Root.java"
+
+		when:
+		def shards = ForgeSourcesRemapper.createShards(names.shuffled(), 5)
+
+		then:
+		shards.flatten().toSet() == names.toSet()
+		shards.flatten().size() == names.size()
+		// Each package is only found in a single shard
+		names.groupBy { packageOf(it) }.keySet().every { pkg ->
+			shards.count { shard -> shard.any { packageOf(it) == pkg } } == 1
+		}
+	}
+
+	def "shards are bounded by the shard size"() {
+		given:
+		def names = (0..<20).collect { "/net/minecraftforge/p${it % 10}/File${it}.java" }
+		names += (0..<7).collect { "/net/minecraftforge/large/File${it}.java" }
+
+		when:
+		def shards = ForgeSourcesRemapper.createShards(names, 5)
+
+		then:
+		shards.flatten().size() == names.size()
+		// Only a shard holding a single package larger than the size may exceed it
+		shards.every { it.size() <= 5 || it.collect { packageOf(it) }.toSet().size() == 1 }
+		shards.find { it.size() > 5 }.size() == 7
+	}
+
+	def "no shards without sources"() {
+		expect:
+		ForgeSourcesRemapper.createShards([], 5).isEmpty()
+	}
+
+	def "cache key changes with the mappings"() {
+		given:
+		def mappings = Files.writeString(tempDir.resolve("mappings.tiny"), "tiny\t2\t0\tintermediary\tnamed\n")
+		def cacheDir = tempDir.resolve("cache")
+		def source = "class Test {}".getBytes(StandardCharsets.UTF_8)
+		def context = createCacheContext(mappings, "net.fabricmc.yarn.1_20_1.1.20.1+build.1-v2")
+		def cachePath = ForgeSourcesRemapper.getCachePath(cacheDir, context, source)
+
+		when:
+		def sameContext = createCacheContext(mappings, "net.fabricmc.yarn.1_20_1.1.20.1+build.1-v2")
+		def changedIdentifier = createCacheContext(mappings, "net.fabricmc.yarn.1_20_1.1.20.1+build.2-v2")
+		// Mappings may change without a new identifier, for example with layered mappings
+		Files.writeString(mappings, "tiny\t2\t0\tintermediary\tnamed\nc\ta\tb\n")
+		def changedMappings = createCacheContext(mappings, "net.fabricmc.yarn.1_20_1.1.20.1+build.1-v2")
+
+		then:
+		ForgeSourcesRemapper.getCachePath(cacheDir, sameContext, source) == cachePath
+		ForgeSourcesRemapper.getCachePath(cacheDir, changedIdentifier, source) != cachePath
+		ForgeSourcesRemapper.getCachePath(cacheDir, changedMappings, source) != cachePath
+		ForgeSourcesRemapper.getCachePath(cacheDir, context, "class Other {}".getBytes(StandardCharsets.UTF_8)) != cachePath
+		cachePath.startsWith(cacheDir)
+	}
+
+	private static String createCacheContext(Path mappings, String mappingsIdentifier) {
+		return ForgeSourcesRemapper.createCacheContext("srg", MappingOption.WITH_SRG, "net.minecraftforge:forge:1.20.1-47.1.0:sources", mappingsIdentifier, mappings)
+	}
+
+	private static String packageOf(String name) {
+		return name.substring(0, name.lastIndexOf('/'))
+	}
+}
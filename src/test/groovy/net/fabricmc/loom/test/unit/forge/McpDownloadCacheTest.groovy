@@ -0,0 +1,77 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2025 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.test.unit.forge
+
+import java.nio.file.Files
+
+import net.fabricmc.loom.configuration.providers.forge.mcpconfig.McpDownloadCache
+import net.fabricmc.loom.test.unit.download.DownloadTest
+import net.fabricmc.loom.util.download.Download
+import net.fabricmc.loom.util.download.DownloadExecutor
+
+class McpDownloadCacheTest extends DownloadTest {
+	def "prefetched file is not downloaded again"() {
+		setup:
+		int requests = 0
+		server.get("/mcpFile") {
+			requests++
+			it.result("Hello World")
+		}
+
+		def cache = new McpDownloadCache(File.createTempDir().toPath().resolve("downloads"), { Download.create(it) })
+
+		when:
+		new DownloadExecutor(2).withCloseable {
+			cache.prefetch("$PATH/mcpFile", it)
+		}
+		def path = cache.download("$PATH/mcpFile")
+
+		then:
+		Files.readString(path) == "Hello World"
+		requests == 1
+	}
+
+	def "file is downloaded without prefetching"() {
+		setup:
+		server.get("/mcpFile") {
+			it.result("Hello World")
+		}
+		server.get("/otherMcpFile") {
+			it.result("Other")
+		}
+
+		def cache = new McpDownloadCache(File.createTempDir().toPath().resolve("downloads"), { Download.create(it) })
+
+		when:
+		def path = cache.download("$PATH/mcpFile")
+		def other = cache.download("$PATH/otherMcpFile")
+
+		then:
+		Files.readString(path) == "Hello World"
+		Files.readString(other) == "Other"
+		path != other
+		path.parent == other.parent
+	}
+}
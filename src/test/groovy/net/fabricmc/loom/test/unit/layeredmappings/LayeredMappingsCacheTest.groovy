@@ -0,0 +1,123 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2024 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.test.unit.layeredmappings
+
+import java.nio.file.Files
+
+import groovy.transform.EqualsAndHashCode
+import spock.lang.Specification
+
+import net.fabricmc.loom.api.mappings.layered.MappingContext
+import net.fabricmc.loom.api.mappings.layered.MappingLayer
+import net.fabricmc.loom.api.mappings.layered.MappingsNamespace
+import net.fabricmc.loom.api.mappings.layered.spec.MappingsSpec
+import net.fabricmc.loom.configuration.providers.mappings.LayeredMappingSpec
+import net.fabricmc.loom.configuration.providers.mappings.LayeredMappingsProcessor
+import net.fabricmc.mappingio.MappingReader
+import net.fabricmc.mappingio.MappingVisitor
+
+class LayeredMappingsCacheTest extends Specification {
+	static Map<String, Integer> visits = [:]
+
+	def setup() {
+		visits.clear()
+	}
+
+	def "unchanged layers are read from the cache"() {
+		given:
+		def cacheDir = Files.createTempDirectory("loom-layer-cache")
+		def first = new TestSpec("first", MappingsNamespace.OFFICIAL, "tiny\t2\t0\tofficial\tintermediary\tnamed\nc\ta\tclass_1\tFoo\n")
+		def second = new TestSpec("second", MappingsNamespace.NAMED, "tiny\t2\t0\tnamed\tintermediary\nc\tFoo\tclass_1\n\tc\tA comment\n")
+		def changedSecond = new TestSpec("changed", MappingsNamespace.NAMED, "tiny\t2\t0\tnamed\tintermediary\nc\tFoo\tclass_1\n\tc\tAnother comment\n")
+
+		when:
+		def initial = getMappings(cacheDir, first, second)
+		def cached = getMappings(cacheDir, first, second)
+		def changed = getMappings(cacheDir, first, changedSecond)
+
+		then:
+		visits == [first: 1, second: 1, changed: 1]
+		initial.srcNamespace == "named"
+		initial.getClass("Foo").getDstName(initial.getNamespaceId("official")) == "a"
+		initial.getClass("Foo").comment == "A comment"
+		cached.getClass("Foo").comment == "A comment"
+		changed.getClass("Foo").comment == "Another comment"
+	}
+
+	def "unused cached layers are pruned"() {
+		given:
+		def cacheDir = Files.createTempDirectory("loom-layer-cache")
+		def specs = (1..8).collect { new TestSpec("spec$it", MappingsNamespace.NAMED, "tiny\t2\t0\tnamed\tintermediary\nc\tFoo$it\tclass_1\n") }
+
+		when:
+		specs.each { getMappings(cacheDir, it) }
+
+		then:
+		// The current layer, and the most recently used unused layers
+		Files.list(cacheDir).withCloseable { it.count() } == 5
+	}
+
+	private static def getMappings(def cacheDir, MappingsSpec<? extends MappingLayer>... specs) {
+		def processor = new LayeredMappingsProcessor(new LayeredMappingSpec(specs.toList()), false, cacheDir)
+		return processor.getMappings(processor.resolveLayers(null))
+	}
+
+	@EqualsAndHashCode
+	static class TestSpec implements MappingsSpec<TestLayer> {
+		final String name
+		final MappingsNamespace sourceNamespace
+		final String mappings
+
+		TestSpec(String name, MappingsNamespace sourceNamespace, String mappings) {
+			this.name = name
+			this.sourceNamespace = sourceNamespace
+			this.mappings = mappings
+		}
+
+		@Override
+		TestLayer createLayer(MappingContext context) {
+			return new TestLayer(this)
+		}
+	}
+
+	static class TestLayer implements MappingLayer {
+		final TestSpec spec
+
+		TestLayer(TestSpec spec) {
+			this.spec = spec
+		}
+
+		@Override
+		void visit(MappingVisitor mappingVisitor) throws IOException {
+			visits[spec.name] = (visits[spec.name] ?: 0) + 1
+			MappingReader.read(new StringReader(spec.mappings), mappingVisitor)
+		}
+
+		@Override
+		MappingsNamespace getSourceNamespace() {
+			return spec.sourceNamespace
+		}
+	}
+}
@@ -24,10 +24,15 @@
 
 package net.fabricmc.loom.test.unit.layeredmappings
 
+import java.nio.charset.StandardCharsets
+
 import net.fabricmc.loom.api.mappings.layered.spec.FileSpec
 import net.fabricmc.loom.configuration.providers.mappings.intermediary.IntermediaryMappingsSpec
 import net.fabricmc.loom.configuration.providers.mappings.mojmap.MojangMappingsSpec
+import net.fabricmc.loom.configuration.providers.mappings.parchment.ParchmentMappingLayer
 import net.fabricmc.loom.configuration.providers.mappings.parchment.ParchmentMappingsSpec
+import net.fabricmc.loom.test.util.ZipTestUtils
+import net.fabricmc.mappingio.tree.MemoryMappingTree
 
 class ParchmentMappingLayerTest extends LayeredMappingsSpecification {
 	def "Read parchment mappings" () {
@@ -76,4 +81,41 @@ class ParchmentMappingLayerTest extends LayeredMappingsSpecification {
 		mappings.classes[0].methods[0].args[0].srcName.hashCode() == 109757064
 		reorderedMappings.getClass("net/minecraft/class_2573").getMethod("method_10913", "(Lnet/minecraft/class_1799;Lnet/minecraft/class_1767;)V").args.size() > 0
 	}
+
+	def "Stream parchment json" () {
+		setup:
+		def json = """
+		{
+			"version": "1.1.0",
+			"packages": [{"name": "test", "javadoc": ["Package"]}],
+			"classes": [
+				{
+					"methods": [{"name": "run", "descriptor": "(I)V", "parameters": [{"index": 1, "name": "pValue", "javadoc": "Value"}]}],
+					"name": "test/Early",
+					"fields": [{"name": "field", "descriptor": "I", "javadoc": ["Field"]}]
+				},
+				{
+					"name": "test/Normal",
+					"javadoc": ["Line 1", "Line 2"],
+					"fields": null,
+					"methods": [{"name": "get", "descriptor": "()I", "javadoc": ["Getter"]}]
+				}
+			]
+		}
+		"""
+		def zip = ZipTestUtils.createZipFromBytes(["parchment.json": json.getBytes(StandardCharsets.UTF_8)])
+		def tree = new MemoryMappingTree()
+
+		when:
+		new ParchmentMappingLayer(zip, true).visit(tree)
+
+		then:
+		tree.srcNamespace == "named"
+		tree.classes.size() == 2
+		tree.getClass("test/Early").getField("field", "I").comment == "Field"
+		tree.getClass("test/Early").getMethod("run", "(I)V").getArg(1, 1, null).srcName == "value"
+		tree.getClass("test/Early").getMethod("run", "(I)V").getArg(1, 1, null).comment == "Value"
+		tree.getClass("test/Normal").comment == "Line 1\nLine 2"
+		tree.getClass("test/Normal").getMethod("get", "()I").comment == "Getter"
+	}
 }